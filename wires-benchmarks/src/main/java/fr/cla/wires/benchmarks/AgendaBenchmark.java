@@ -0,0 +1,98 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.Box;
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//@formatter:off
+/**
+ * Throughput of the Agenda of a Clock: each operation appoints todos todos (one per observed Wire), then runs 1 Tick.
+ * The callbacks only count their calls, so what is measured is the scheduling itself.
+ * With short delays, all the todos are appointed 1 Tick ahead, so each Tick runs those of the operation.
+ * With mixed delays, they are appointed 1 to 3 Ticks ahead, like in most circuits, and 1 in LONG_DELAY_ONE_IN
+ *  LONG_DELAY Ticks ahead: further than the ring of the TimingWheel of the Agenda, so through its overflow tier.
+ *  Each Tick then runs todos appointed by earlier operations, about todos of them once the Agenda is in a steady state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgendaBenchmark {
+
+    private static final int LONG_DELAY_ONE_IN = 100;
+    //10 times the slots of the ring of a TimingWheel.
+    private static final Delay LONG_DELAY = Delay.of(640);
+
+    @Param({"1", "64", "1024"})
+    int todos;
+
+    @Param({"short", "mixed"})
+    String delays;
+
+    private Clock clock;
+    private List<Wire<Boolean>> observed;
+    private List<Counting> boxes;
+    private boolean value;
+
+    @Setup
+    public void setup() {
+        clock = Clock.createTime();
+        observed = new ArrayList<>(todos);
+        //1 Box per Delay, since the Delay of the reactions is that of their Box.
+        List<List<Wire<Boolean>>> byDelay = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for(int i = 0; i < todos; i++) {
+            Wire<Boolean> wire = Wire.make();
+            observed.add(wire);
+            if("short".equals(delays)) byDelay.get(0).add(wire);
+            else if(i % LONG_DELAY_ONE_IN == LONG_DELAY_ONE_IN - 1) byDelay.get(3).add(wire);
+            else byDelay.get(i % 3).add(wire);
+        }
+        boxes = List.of(
+            new Counting(byDelay.get(0), clock, Delay.of(1)).startup(),
+            new Counting(byDelay.get(1), clock, Delay.of(2)).startup(),
+            new Counting(byDelay.get(2), clock, Delay.of(3)).startup(),
+            new Counting(byDelay.get(3), clock, LONG_DELAY).startup()
+        );
+    }
+
+    @Benchmark
+    public long appointAndRun() {
+        value = !value;
+        Signal<Boolean> signal = Signal.of(value);
+        for(Wire<Boolean> wire : observed) wire.setSignal(signal);
+        clock.tick();
+        long calls = 0L;
+        for(Counting box : boxes) calls += box.calls;
+        return calls;
+    }
+
+
+
+
+    private static final class Counting extends Box {
+        private final List<Wire<Boolean>> observed;
+        private long calls;
+
+        private Counting(List<Wire<Boolean>> observed, Clock clock, Delay delay) {
+            super(clock, delay);
+            this.observed = observed;
+        }
+
+        @Override
+        protected Counting startup() {
+            observed.forEach(wire -> onSignalChanged(wire, newSignal -> calls++));
+            return this;
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,65 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.neuron.perceptron.BackPropagationNetwork;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+//@formatter:off
+/**
+ * Cost of 1 epoch of mini-batch backpropagation over samples random samples, through a 64-32-10 network,
+ *  the samples of each mini-batch being back-propagated either on the common pool or on a pool of 1 thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackPropagationBenchmark {
+
+    private static final int INPUTS = 64, HIDDENS = 32, OUTPUTS = 10, BATCH_SIZE = 64;
+
+    @Param({"common", "sequential"})
+    String pool;
+
+    @Param({"10000"})
+    int samples;
+
+    private ForkJoinPool sequential;
+    private BackPropagationNetwork network;
+    private double[][] inputs, targets;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0L);
+        inputs = new double[samples][];
+        targets = new double[samples][];
+        for(int s = 0; s < samples; s++) {
+            inputs[s] = random.doubles(INPUTS).toArray();
+            targets[s] = new double[OUTPUTS];
+            targets[s][random.nextInt(OUTPUTS)] = 1.0;
+        }
+        sequential = new ForkJoinPool(1);
+        network = BackPropagationNetwork
+            .layers(INPUTS, HIDDENS, OUTPUTS)
+            .batchSize(BATCH_SIZE)
+            .pool("common".equals(pool) ? ForkJoinPool.commonPool() : sequential)
+            .seed(0L)
+        ;
+    }
+
+    @TearDown
+    public void tearDown() {
+        sequential.shutdown();
+    }
+
+    @Benchmark
+    public double epoch() {
+        return network.train(inputs, targets, 1);
+    }
+
+}
+//@formatter:on
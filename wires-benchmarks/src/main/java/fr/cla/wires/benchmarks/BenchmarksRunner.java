@@ -0,0 +1,36 @@
+package fr.cla.wires.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//@formatter:off
+/**
+ * Like org.openjdk.jmh.Main, but writes the results as JSON to target/jmh-result.json
+ *  unless -rf or -rff say otherwise.
+ */
+public final class BenchmarksRunner {
+
+    static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private BenchmarksRunner() {
+        throw new AssertionError("Not meant to be instantiated");
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+            .parent(commandLine)
+            .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+            .result(commandLine.getResult().orElse(DEFAULT_RESULT))
+            .build()
+        ;
+        new Runner(options).run();
+    }
+
+}
+//@formatter:on
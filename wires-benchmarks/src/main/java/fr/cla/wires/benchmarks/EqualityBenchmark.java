@@ -0,0 +1,106 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Tick;
+import fr.cla.wires.support.oo.AbstractValueObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonList;
+
+//@formatter:off
+/**
+ * Compares the cost of Signal and Tick equality and hashing through their direct field comparisons,
+ *  with the same through equalityCriteria() Lists (the defaults of AbstractValueObject, which they used to rely on),
+ *  on Value Objects with the same fields and criteria.
+ * Each operation compares 1 value with the next one and hashes it: reported per value.
+ * Run it with -prof gc to see the Lists allocated by the defaults.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EqualityBenchmark {
+
+    private static final int VALUES = 1024;
+
+    private Signal<?>[] signals;
+    private Tick[] ticks;
+    private ViaCriteria[] criteriaSignals, criteriaTicks;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(0L);
+        signals = new Signal<?>[VALUES];
+        ticks = new Tick[VALUES];
+        criteriaSignals = new ViaCriteria[VALUES];
+        criteriaTicks = new ViaCriteria[VALUES];
+        for(int i = 0; i < VALUES; i++) {
+            Boolean value = random.nextInt(4) == 0 ? null : random.nextBoolean();
+            long tick = random.nextInt(4);
+            signals[i] = value == null ? Signal.none() : Signal.of(value);
+            ticks[i] = Tick.number(tick);
+            criteriaSignals[i] = new ViaCriteria(value);
+            criteriaTicks[i] = new ViaCriteria(tick);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long signalDirect() {
+        return equalsAndHashCodes(signals);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long signalViaEqualityCriteria() {
+        return equalsAndHashCodes(criteriaSignals);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long tickDirect() {
+        return equalsAndHashCodes(ticks);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public long tickViaEqualityCriteria() {
+        return equalsAndHashCodes(criteriaTicks);
+    }
+
+    private static long equalsAndHashCodes(Object[] values) {
+        long result = 0L;
+        for(int i = 0; i < values.length; i++) {
+            Object v1 = values[i], v2 = values[(i + 1) % values.length];
+            if(v1.equals(v2)) result++;
+            result += v1.hashCode();
+        }
+        return result;
+    }
+
+
+
+
+    //A Value Object with a single (possibly null) field, like Signal and Tick, which keeps the default equals and hashCode.
+    private static final class ViaCriteria extends AbstractValueObject<ViaCriteria> {
+        private final Object field;
+
+        private ViaCriteria(Object field) {
+            super(ViaCriteria.class);
+            this.field = field;
+        }
+
+        @Override
+        protected List<Object> equalityCriteria() {
+            return singletonList(field);
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,104 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.neuron.Neuron;
+import fr.cla.wires.neuron.perceptron.example.CompleteConnexions;
+import fr.cla.wires.support.oo.DoubleAccumulable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//@formatter:off
+/**
+ * Cost of evaluating a fully connected layer of width neurons with width inputs,
+ *  built either from 1 Neuron per output or from 1 CompleteConnexions for all outputs
+ *  (collecting boxed Doubles through an Accumulable, or primitive doubles through a DoubleAccumulable):
+ *  each operation changes 1 input, then runs the Tick where the whole layer reacts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NeuronLayerBenchmark {
+
+    private static final double THRESHOLD = 0.5;
+
+    @Param({"Neuron", "CompleteConnexions", "CompleteConnexionsPrimitive"})
+    String layer;
+
+    @Param({"16", "128", "512"})
+    int width;
+
+    private Clock clock;
+    private Wire<Double> changed;
+    private Wire<Double> lastOut;
+    private boolean value;
+
+    @Setup
+    public void setup() {
+        clock = Clock.createTime();
+        List<Wire<Double>> ins = wires(width), outs = wires(width);
+        ins.forEach(in -> in.setSignal(Signal.of(0.0)));
+        changed = ins.get(0);
+        lastOut = outs.get(width - 1);
+        List<Double> weigths = Collections.nCopies(width, 1.0 / width);
+
+        switch(layer) {
+            case "Neuron": {
+                outs.forEach(out -> Neuron.ins(ins).out(out).threshold(THRESHOLD).weigths(weigths).time(clock));
+                break;
+            }
+            case "CompleteConnexions": {
+                CompleteConnexions.<Double, Double>
+                    ins(ins)
+                    .outs(outs)
+                    .weight(indexed -> indexed.getValue() * weigths.get(indexed.getIndex()))
+                    .accumulator(Double::sum)
+                    .finisher(potential -> potential > THRESHOLD ? 1.0 : 0.0)
+                    .clock(clock)
+                    .delay(Delay.of(1))
+                ;
+                break;
+            }
+            case "CompleteConnexionsPrimitive": {
+                CompleteConnexions.<Double, Double>
+                    ins(ins)
+                    .outs(outs)
+                    .collector(DoubleAccumulable.collector(
+                        indexed -> indexed.getValue() * weigths.get(indexed.getIndex()),
+                        Double::sum,
+                        potential -> potential > THRESHOLD ? 1.0 : 0.0
+                    ))
+                    .clock(clock)
+                    .delay(Delay.of(1))
+                ;
+                break;
+            }
+            default: throw new IllegalArgumentException("Unknown layer: " + layer);
+        }
+    }
+
+    @Benchmark
+    public Signal<Double> evaluate() {
+        value = !value;
+        changed.setSignal(Signal.of(value ? 1.0 : 0.0));
+        clock.tick();
+        return lastOut.getSignal();
+    }
+
+    private static List<Wire<Double>> wires(int n) {
+        List<Wire<Double>> wires = new ArrayList<>(n);
+        for(int i = 0; i < n; i++) wires.add(Wire.make());
+        return wires;
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,80 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.BooleanWire;
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import fr.cla.wires.core.boxes.exampleusage.primitive.BooleanNot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//@formatter:off
+/**
+ * Compares Not on Wire<Boolean> with BooleanNot on BooleanWire,
+ *  in RINGS ring oscillators (an odd number of inverters in a loop, so that they never stabilize).
+ * Each operation is 1 Tick, in which exactly 1 gate per ring changes once they oscillate: reported per gate evaluation.
+ * Run it with -prof gc to compare their allocations per evaluation too.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveWiresBenchmark {
+
+    private static final int RINGS = 16;
+
+    @Param({"63"})
+    int ringLength;
+
+    private Clock wireClock, booleanWireClock;
+
+    @Setup
+    public void setup() {
+        wireClock = Clock.createTime();
+        booleanWireClock = Clock.createTime();
+        for(int r = 0; r < RINGS; r++) {
+            wireRing(wireClock);
+            booleanWireRing(booleanWireClock);
+        }
+    }
+
+    private void wireRing(Clock clock) {
+        Wire<Boolean> first = Wire.make(), in = first;
+        for(int i = 1; i < ringLength; i++) {
+            Wire<Boolean> out = Wire.make();
+            Not.in(in).out(out).time(clock);
+            in = out;
+        }
+        Not.in(in).out(first).time(clock);
+        first.setSignal(Signal.of(true));
+    }
+
+    private void booleanWireRing(Clock clock) {
+        BooleanWire first = BooleanWire.make(), in = first;
+        for(int i = 1; i < ringLength; i++) {
+            BooleanWire out = BooleanWire.make();
+            BooleanNot.in(in).out(out).time(clock);
+            in = out;
+        }
+        BooleanNot.in(in).out(first).time(clock);
+        first.set(true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RINGS)
+    public void wire() {
+        wireClock.tick();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RINGS)
+    public void booleanWire() {
+        booleanWireClock.tick();
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,163 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Netlist;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.core.boxes.exampleusage.composite.CompositeFullAdder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//@formatter:off
+/**
+ * Cost of an addition by a ripple-carry adder of bits CompositeFullAdders:
+ *  each operation sets both operands, then runs the Clock until the carry has rippled through the chain.
+ * The same, by the Netlist compiled from the adder, and by its BitParallel simulation: 64 additions per run,
+ *  reported per addition.
+ * The same, by a Netlist that only observes the lowest bit of the sum (see Netlist::observe), like a test bench that
+ *  watches a few outputs of a large circuit: its cone of influence is 1 CompositeFullAdder out of bits,
+ *  and the rest is UNREADABLE, so it is never simulated.
+ * The same, by a Netlist that observes the lowest bit of the sum the same way, but REPLAYED the rest,
+ *  and reads the carry out of it after each addition: catching up with the whole circuit is part of the timed operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RippleCarryAdderBenchmark {
+
+    //Way more than the longest path through the chain, which is linear in bits.
+    private static final long MAX_TICKS = 1_000_000L;
+
+    @Param({"8", "64", "256"})
+    int bits;
+
+    private Clock clock;
+    private Netlist netlist;
+    private Netlist.BitParallel bitParallel;
+    private List<Wire<Boolean>> a, b;
+    private Wire<Boolean> carry;
+    private Netlist observing;
+    private List<Wire<Boolean>> observingA, observingB;
+    private Wire<Boolean> lowestSum;
+    private Netlist replaying;
+    private List<Wire<Boolean>> replayingA, replayingB;
+    private Wire<Boolean> replayingCarry;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        clock = Clock.createTime();
+        random = new SplittableRandom(0L);
+        a = new ArrayList<>(bits);
+        b = new ArrayList<>(bits);
+        carry = adder(clock, a, b, new ArrayList<>(bits));
+        netlist = Netlist.compile(clock);
+        bitParallel = netlist.bitParallel();
+
+        //On its own circuit, since a Netlist that observes a cone leaves the Wires outside of it out of date.
+        Clock observingClock = Clock.createTime();
+        observingA = new ArrayList<>(bits);
+        observingB = new ArrayList<>(bits);
+        List<Wire<Boolean>> sums = new ArrayList<>(bits);
+        adder(observingClock, observingA, observingB, sums);
+        lowestSum = sums.get(0);
+        observing = Netlist.compile(observingClock);
+        observing.observe(List.of(lowestSum));
+
+        Clock replayingClock = Clock.createTime();
+        replayingA = new ArrayList<>(bits);
+        replayingB = new ArrayList<>(bits);
+        List<Wire<Boolean>> replayingSums = new ArrayList<>(bits);
+        replayingCarry = adder(replayingClock, replayingA, replayingB, replayingSums);
+        replaying = Netlist.compile(replayingClock);
+        replaying.observe(List.of(replayingSums.get(0)), Netlist.OutOfCone.REPLAYED);
+    }
+
+    /**
+     * @return the carry out of a ripple-carry adder of bits CompositeFullAdders, whose Wires are added to a, b and sums
+     */
+    private Wire<Boolean> adder(Clock clock, List<Wire<Boolean>> a, List<Wire<Boolean>> b, List<Wire<Boolean>> sums) {
+        Wire<Boolean> inCarry = Wire.make();
+        inCarry.setSignal(Signal.of(false));
+        for(int i = 0; i < bits; i++) {
+            Wire<Boolean> inA = Wire.make(), inB = Wire.make(), sum = Wire.make(), outCarry = Wire.make();
+            CompositeFullAdder.inA(inA).inB(inB).inCarry(inCarry).sum(sum).carry(outCarry).time(clock);
+            a.add(inA);
+            b.add(inB);
+            sums.add(sum);
+            inCarry = outCarry;
+        }
+        return inCarry;
+    }
+
+    @Benchmark
+    public Signal<Boolean> add() {
+        for(int i = 0; i < bits; i++) {
+            a.get(i).setSignal(Signal.of(random.nextBoolean()));
+            b.get(i).setSignal(Signal.of(random.nextBoolean()));
+        }
+        if(!clock.runUntilQuiescent(MAX_TICKS)) throw new AssertionError(
+            "The adder didn't stabilize in " + MAX_TICKS + " ticks"
+        );
+        return carry.getSignal();
+    }
+
+    @Benchmark
+    public Signal<Boolean> addCompiled() {
+        for(int i = 0; i < bits; i++) {
+            netlist.setSignal(a.get(i), Signal.of(random.nextBoolean()));
+            netlist.setSignal(b.get(i), Signal.of(random.nextBoolean()));
+        }
+        if(!netlist.runUntilQuiescent(MAX_TICKS)) throw new AssertionError(
+            "The adder didn't stabilize in " + MAX_TICKS + " ticks"
+        );
+        return carry.getSignal();
+    }
+
+    @Benchmark
+    public Signal<Boolean> addCompiledObservingLowestSum() {
+        for(int i = 0; i < bits; i++) {
+            observing.setSignal(observingA.get(i), Signal.of(random.nextBoolean()));
+            observing.setSignal(observingB.get(i), Signal.of(random.nextBoolean()));
+        }
+        if(!observing.runUntilQuiescent(MAX_TICKS)) throw new AssertionError(
+            "The adder didn't stabilize in " + MAX_TICKS + " ticks"
+        );
+        return lowestSum.getSignal();
+    }
+
+    @Benchmark
+    public Signal<Boolean> addCompiledReplayingCarry() {
+        for(int i = 0; i < bits; i++) {
+            replaying.setSignal(replayingA.get(i), Signal.of(random.nextBoolean()));
+            replaying.setSignal(replayingB.get(i), Signal.of(random.nextBoolean()));
+        }
+        if(!replaying.runUntilQuiescent(MAX_TICKS)) throw new AssertionError(
+            "The adder didn't stabilize in " + MAX_TICKS + " ticks"
+        );
+        //Suspended: catches up with the whole circuit
+        return replayingCarry.getSignal();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Long.SIZE)
+    public long addBitParallel() {
+        for(int i = 0; i < bits; i++) {
+            bitParallel.set(a.get(i), random.nextLong(), 0L);
+            bitParallel.set(b.get(i), random.nextLong(), 0L);
+        }
+        if(!bitParallel.runUntilQuiescent(MAX_TICKS)) throw new AssertionError(
+            "The adder didn't stabilize in " + MAX_TICKS + " ticks"
+        );
+        return bitParallel.values(carry);
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,122 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.core.boxes.CollectIndexedHomogeneousInputs;
+import fr.cla.wires.core.boxes.ReduceHomogeneousInputs;
+import fr.cla.wires.core.boxes.exampleusage.multipleinputs.CollectMultipleAnd;
+import fr.cla.wires.core.boxes.exampleusage.multipleinputs.ReduceMultipleAnd;
+import fr.cla.wires.support.functional.Indexed;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+//@formatter:off
+/**
+ * Cost of the Signal reductions over N homogeneous inputs:
+ *  each operation changes 1 of the inputs of an And with inputs inputs, which then reduces all of them
+ *  through Signal::mapAndReduce (a ReduceHomogeneousInputs), Signal::collect (CollectMultipleAnd),
+ *  or Signal::collectIndexed (a CollectIndexedHomogeneousInputs),
+ *  or only updates the count of its false inputs (ReduceMultipleAnd, see IncrementalReduction).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignalReductionBenchmark {
+
+    @Param({"mapAndReduce", "incremental", "collect", "collectIndexed"})
+    String reduction;
+
+    @Param({"2", "16", "256", "4096"})
+    int inputs;
+
+    private Clock clock;
+    private Wire<Boolean> changed;
+    private Wire<Boolean> out;
+    private boolean value;
+
+    @Setup
+    public void setup() {
+        clock = Clock.createTime();
+        List<Wire<Boolean>> ins = new ArrayList<>(inputs);
+        for(int i = 0; i < inputs; i++) {
+            Wire<Boolean> in = Wire.make();
+            in.setSignal(Signal.of(true));
+            ins.add(in);
+        }
+        changed = ins.get(0);
+        out = Wire.make();
+
+        switch(reduction) {
+            case "mapAndReduce": new FullyReducedAnd(ins, out, clock).startup(); break;
+            case "incremental": ReduceMultipleAnd.ins(ins).out(out).time(clock); break;
+            case "collect": CollectMultipleAnd.ins(ins).out(out).time(clock); break;
+            case "collectIndexed": new IndexedAnd(ins, out, clock).startup(); break;
+            default: throw new IllegalArgumentException("Unknown reduction: " + reduction);
+        }
+    }
+
+    @Benchmark
+    public Signal<Boolean> reduce() {
+        value = !value;
+        changed.setSignal(Signal.of(value));
+        clock.tick();
+        return out.getSignal();
+    }
+
+
+
+
+    private static final class FullyReducedAnd extends ReduceHomogeneousInputs<Boolean, Boolean> {
+        private FullyReducedAnd(List<Wire<Boolean>> ins, Wire<Boolean> out, Clock clock) {
+            super(ins, out, clock);
+        }
+
+        @Override protected Function<Boolean, Boolean> weight() {
+            return Function.identity();
+        }
+
+        @Override protected BinaryOperator<Boolean> accumulator() {
+            return Boolean::logicalAnd;
+        }
+
+        @Override protected FullyReducedAnd startup() {
+            super.startup();
+            return this;
+        }
+    }
+
+    private static final class IndexedAnd extends CollectIndexedHomogeneousInputs<Boolean, Boolean, Integer> {
+        private IndexedAnd(List<Wire<Boolean>> ins, Wire<Boolean> out, Clock clock) {
+            super(ins, out, clock);
+        }
+
+        @Override protected Function<Indexed<Boolean>, Boolean> weight() {
+            return Indexed::getValue;
+        }
+
+        @Override protected BinaryOperator<Boolean> accumulator() {
+            return Boolean::logicalAnd;
+        }
+
+        @Override protected UnaryOperator<Boolean> finisher() {
+            return UnaryOperator.identity();
+        }
+
+        @Override protected IndexedAnd startup() {
+            super.startup();
+            return this;
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,52 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//@formatter:off
+/**
+ * Cost of Wire::setSignal when the Wire is observed by many Boxes:
+ *  each operation changes the Signal of 1 Wire that is the input of listeners Not gates,
+ *  then runs the Tick where they all react.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFanOutBenchmark {
+
+    @Param({"1", "16", "256"})
+    int listeners;
+
+    private Clock clock;
+    private Wire<Boolean> in;
+    private Wire<Boolean> lastOut;
+    private boolean value;
+
+    @Setup
+    public void setup() {
+        clock = Clock.createTime();
+        in = Wire.make();
+        for(int i = 0; i < listeners; i++) {
+            lastOut = Wire.make();
+            Not.in(in).out(lastOut).time(clock);
+        }
+    }
+
+    @Benchmark
+    public Signal<Boolean> setSignalAndTick() {
+        value = !value;
+        in.setSignal(Signal.of(value));
+        clock.tick();
+        return lastOut.getSignal();
+    }
+
+}
+//@formatter:on
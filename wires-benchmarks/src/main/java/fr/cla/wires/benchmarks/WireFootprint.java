@@ -0,0 +1,84 @@
+package fr.cla.wires.benchmarks;
+
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import fr.cla.wires.core.boxes.exampleusage.multipleinputs.CollectMultipleAnd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+//@formatter:off
+/**
+ * Heap footprint of circuits of a million Wires, since JMH measures time, not space:
+ *  -Wires without listeners.
+ *  -A chain of Not gates, so that all Wires but the last have 1 listener (and each Box costs its share).
+ *  -Pairs of Not gates on each Wire, so that all Wires but the last have 2 listeners.
+ * And of Boxes of many inputs, which register 1 reaction per input: they must share the inputs of the Box
+ *  rather than each hold a copy, or the footprint per input would grow with the number of inputs.
+ * Measured as the growth of the used heap after full GCs, so run it alone with a fixed heap, eg.:
+ *  java -Xms4g -Xmx4g -XX:+UseSerialGC -cp ... fr.cla.wires.benchmarks.WireFootprint [wires] [inputs]
+ */
+public final class WireFootprint {
+
+    private static final int DEFAULT_WIRES = 1_000_000, DEFAULT_INPUTS = 4_000;
+
+    private WireFootprint() {
+        throw new AssertionError("Not meant to be instantiated");
+    }
+
+    public static void main(String[] args) {
+        int wireCount = args.length == 0 ? DEFAULT_WIRES : Integer.parseInt(args[0]);
+        measure("no listeners", wireCount, n -> wires(n, 0));
+        measure("1 listener (Not chain)", wireCount, n -> wires(n, 1));
+        measure("2 listeners (Not chains)", wireCount, n -> wires(n, 2));
+
+        int inputs = args.length < 2 ? DEFAULT_INPUTS : Integer.parseInt(args[1]);
+        for(int n = inputs / 4; n <= inputs; n *= 2) measure("1 CollectMultipleAnd", n, WireFootprint::and);
+    }
+
+    private static void measure(String circuit, int wireCount, IntFunction<List<Wire<Boolean>>> build) {
+        long before = usedHeap();
+        List<Wire<Boolean>> wires = build.apply(wireCount);
+        long after = usedHeap();
+        System.out.printf("%-26s %,d Wires: %,d bytes, %.1f bytes per Wire%n",
+            circuit, wires.size(), after - before, (double) (after - before) / wires.size()
+        );
+    }
+
+    //Each Wire but the last is the input of listeners Not gates, the first of which outputs to the next Wire.
+    private static List<Wire<Boolean>> wires(int wireCount, int listeners) {
+        Clock clock = Clock.createTime();
+        List<Wire<Boolean>> wires = new ArrayList<>(wireCount);
+        wires.add(Wire.make());
+        for(int i = 1; i < wireCount; i++) {
+            Wire<Boolean> next = Wire.make();
+            for(int l = 0; l < listeners; l++) Not.in(wires.get(i - 1)).out(l == 0 ? next : Wire.make()).time(clock);
+            wires.add(next);
+        }
+        wires.get(0).setSignal(Signal.of(true));
+        clock.runUntilQuiescent(wireCount);
+        return wires;
+    }
+
+    //The inputs of 1 CollectMultipleAnd (plus its output).
+    private static List<Wire<Boolean>> and(int inputs) {
+        Clock clock = Clock.createTime();
+        List<Wire<Boolean>> wires = new ArrayList<>(inputs + 1);
+        for(int i = 0; i < inputs; i++) wires.add(Wire.make());
+        Wire<Boolean> out = Wire.make();
+        CollectMultipleAnd.ins(wires).out(out).time(clock);
+        wires.add(out);
+        return wires;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
+//@formatter:on
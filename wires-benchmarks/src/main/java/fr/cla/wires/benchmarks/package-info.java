@@ -0,0 +1,7 @@
+/**
+ * JMH benchmarks of the hot paths of wires-core and wires-neuron.
+ * Run them all with mvn -pl wires-benchmarks exec:exec (after mvn install),
+ *  or with BenchmarksRunner::main, which accepts the usual JMH command line options (eg. -prof gc).
+ * The results go to target/jmh-result.json, so that regressions can be tracked.
+ */
+package fr.cla.wires.benchmarks;
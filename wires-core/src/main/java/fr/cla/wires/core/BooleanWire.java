@@ -0,0 +1,114 @@
+package fr.cla.wires.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * The counterpart of Wire<Boolean> which holds a primitive boolean plus a none bit rather than a Signal<Boolean>,
+ *  so that setting it, comparing its old and new values, and notifying its listeners doesn't allocate.
+ * Use toWire() and following() to connect it with Boxes that work on Wire<Boolean>.
+ */
+public final class BooleanWire {
+
+    private static final OnBooleanSignalChanged[] NO_LISTENERS = {};
+
+    private boolean isNone = true;
+    private boolean value = false;
+    //An array rather than a Set, so that notifying doesn't allocate an Iterator.
+    //Copied on write (listeners are registered once, when building the circuit, and notified many times).
+    private OnBooleanSignalChanged[] listeners = NO_LISTENERS;
+
+    public boolean isNone() {
+        return isNone;
+    }
+
+    /**
+     * @throws NoSuchElementException if the Signal is none
+     */
+    public boolean getAsBoolean() {
+        if(isNone) throw new NoSuchElementException("Signal is none");
+        return value;
+    }
+
+    /**
+     * Allocates, prefer isNone() and getAsBoolean() on hot paths.
+     * @return the current non-null Signal
+     */
+    public Signal<Boolean> getSignal() {
+        return isNone ? Signal.none() : Signal.of(value);
+    }
+
+    public void set(boolean newValue) {
+        if(!isNone && value == newValue) return;
+
+        this.isNone = false;
+        this.value = newValue;
+        notifyListeners();
+    }
+
+    public void setNone() {
+        if(isNone) return;
+
+        this.isNone = true;
+        this.value = false;
+        notifyListeners();
+    }
+
+    /**
+     * @param signal A non-null signal
+     * @throws NullPointerException if signal is null
+     */
+    public void setSignal(Signal<Boolean> signal) {
+        signal.value().ifPresentOrElse(this::set, this::setNone);
+    }
+
+    private void notifyListeners() {
+        for(OnBooleanSignalChanged callback : listeners) callback.accept(isNone, value);
+    }
+
+    void onSignalChanged(OnBooleanSignalChanged callback) {
+        var cb = requireNonNull(callback);
+        for(OnBooleanSignalChanged listener : listeners) {
+            if(listener.equals(cb)) return;
+        }
+
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = cb;
+    }
+
+    /**
+     * @return a new Wire<Boolean> whose Signal follows that of this BooleanWire (with no Delay)
+     */
+    public Wire<Boolean> toWire() {
+        Wire<Boolean> wire = Wire.make();
+        wire.setSignal(getSignal());
+        onSignalChanged((isNone, newValue) -> wire.setSignal(isNone ? Signal.none() : Signal.of(newValue)));
+        return wire;
+    }
+
+    /**
+     * @return a new BooleanWire whose value follows the Signal of wire (with no Delay)
+     */
+    public static BooleanWire following(Wire<Boolean> wire) {
+        BooleanWire following = make();
+        following.setSignal(wire.getSignal());
+        wire.onSignalChanged(following::setSignal);
+        return following;
+    }
+
+    public static BooleanWire make() {
+        return new BooleanWire();
+    }
+
+    private BooleanWire() {}
+
+    @Override
+    public String toString() {
+        return isNone ? "null" : String.valueOf(value);
+    }
+
+}
+//@formatter:on
@@ -3,9 +3,10 @@ package fr.cla.wires.core;
 import fr.cla.wires.support.functional.Indexed;
 import fr.cla.wires.support.oo.Accumulable;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -27,6 +28,10 @@ public abstract class Box {
     protected final Clock clock;
     protected final Delay delay;
     private final Clock.Agenda agenda;
+    //The Dirty flags of the reductions built by the "Staged Builder" below, by target.
+    private final Map<Wire<?>, Dirty> dirtyTargets = new IdentityHashMap<>();
+    //The number of reactions registered by this Box, so that Netlist::compile can check that it described them all.
+    private int reactions;
 
     protected Box(
         Clock clock,
@@ -44,11 +49,207 @@ public abstract class Box {
     protected final <O> void onSignalChanged(Wire<O> observed, OnSignalChanged<O> callback) {
         var cb = requireNonNull(callback);
 
+        registering();
         observed.onSignalChanged(
-            agenda.afterDelay(delay, cb)
+            agenda.afterDelay(getClass(), delay, cb)
         );
     }
 
+    //The primitive wires have no "Staged Builder" (yet), so their callbacks don't tell which Wires they read and write:
+    // a parallel Clock runs the Ticks where they are due sequentially.
+    protected final void onSignalChanged(BooleanWire observed, OnBooleanSignalChanged callback) {
+        var cb = requireNonNull(callback);
+
+        registering();
+        observed.onSignalChanged(
+            agenda.afterDelayForBoolean(getClass(), delay, cb)
+        );
+    }
+
+    protected final void onSignalChanged(LongWire observed, OnLongSignalChanged callback) {
+        var cb = requireNonNull(callback);
+
+        registering();
+        observed.onSignalChanged(
+            agenda.afterDelayForLong(getClass(), delay, cb)
+        );
+    }
+
+    protected final void onSignalChanged(DoubleWire observed, OnDoubleSignalChanged callback) {
+        var cb = requireNonNull(callback);
+
+        registering();
+        observed.onSignalChanged(
+            agenda.afterDelayForDouble(getClass(), delay, cb)
+        );
+    }
+
+    /**
+     * Like onSignalChanged(Wire, OnSignalChanged), for the callbacks built by the "Staged Builder" below,
+     *  which know exactly which Wires they read and write (so that a parallel Clock can run them concurrently).
+     * @param targets The only Wires that the callback writes
+     * @param reads The Wires that the callback reads, besides the new Signal of the observed Wire which it is passed
+     */
+    private <O> void onSignalChanged(
+        Wire<O> observed,
+        Collection<? extends Wire<?>> targets,
+        Collection<? extends Wire<?>> reads,
+        OnSignalChanged<O> callback
+    ) {
+        var cb = requireNonNull(callback);
+
+        registering();
+        observed.onSignalChanged(
+            agenda.afterDelay(getClass(), delay, cb, targets, reads)
+        );
+    }
+
+    private void registering() {
+        if(reactions++ == 0) agenda.registered(this);
+    }
+
+    int reactions() {
+        return reactions;
+    }
+
+    /**
+     * Describes the reactions registered by startup() to a Netlist.Compiler, in the same order.
+     * Only Boxes that register reactions themselves need to override this:
+     *  those that only assemble other Boxes (eg. CompositeFullAdder) have nothing to describe.
+     * @throws UnsupportedOperationException unless overridden,
+     *  since the reactions of a Box are opaque callbacks that a Netlist can't interpret.
+     */
+    protected void compile(Netlist.Compiler compiler) {
+        throw new UnsupportedOperationException(getClass().getName() + " can't be compiled to a Netlist");
+    }
+
+    /**
+     * Same as onSignalChanged(in).set(target).from(inputs).map(weight).reduce(accumulator) for each in of inputs,
+     *  but a change of 1 input costs O(1) instead of O(inputs), since the reduction is updated rather than computed again.
+     * @param reduction Must reduce to the same result as the weight and accumulator it stands for
+     */
+    protected final <O, A, T> void reduceIncrementally(
+        List<Wire<O>> inputs,
+        Wire<T> target,
+        IncrementalReduction<O, A, T> reduction
+    ) {
+        var ins = checkNoNulls(inputs);
+        var out = requireNonNull(target);
+        var running = requireNonNull(reduction).start(ins);
+        var outs = List.of(out);
+
+        for(int i = 0; i < ins.size(); i++) {
+            int index = i;
+            Wire<O> in = ins.get(i);
+            //Mark right away, react after the Delay: see IncrementalReduction.Running
+            in.onSignalChanged(newSignal -> running.markDirty(index));
+            onSignalChanged(in, outs, ins,
+                newSignal -> out.setSignal(running.fold())
+            );
+        }
+    }
+
+    /**
+     * Same as onSignalChanged(in).set(target).from(inputs).collectIndexed(collector) for each in of inputs and each target of targets,
+     *  but each change is collected once and fanned out to all targets, rather than collected again for each of them.
+     */
+    protected final <O, T> void collectIndexedToAll(
+        List<Wire<O>> inputs,
+        List<Wire<T>> targets,
+        Collector<Indexed<O>, ?, T> collector
+    ) {
+        var c = requireNonNull(collector);
+        evaluateToAll(inputs, targets, ins -> Wire.collectIndexed(ins, c));
+    }
+
+    /**
+     * Like collectIndexedToAll, for an evaluation of the inputs that doesn't go through a Collector
+     *  (eg. a kernel on primitive arrays, see Neuron).
+     * The targets go through exactly the same Signals, in the same order, as if each was evaluated by its own reactions,
+     *  since the reactions of a Box to the same input are appointed one after the other: nothing can change the inputs between them...
+     *  ...unless a target is also an input, in which case each target is evaluated separately.
+     * @param evaluation Is passed the inputs (the same List each time), and must only read their Signals
+     */
+    protected final <O, T> void evaluateToAll(
+        List<Wire<O>> inputs,
+        List<Wire<T>> targets,
+        Function<List<Wire<O>>, Signal<T>> evaluation
+    ) {
+        var ins = checkNoNulls(inputs);
+        var outs = checkNoNulls(targets);
+        var e = requireNonNull(evaluation);
+
+        if(outs.stream().anyMatch(out -> ins.stream().anyMatch(in -> in == out))) {
+            ins.forEach(in -> outs.forEach(out -> {
+                var d = dirty(out, ins);
+                onSignalChanged(in, List.of(out), ins, newSignal -> {
+                    if(d.clear()) out.setSignal(e.apply(ins));
+                });
+            }));
+            return;
+        }
+        var d = newDirty(ins);
+        ins.forEach(in -> onSignalChanged(in, outs, ins, newSignal -> {
+            if(!d.clear()) return;
+            Signal<T> evaluated = e.apply(ins);
+            outs.forEach(out -> out.setSignal(evaluated));
+        }));
+    }
+
+    /**
+     * @return the Dirty flag shared by all the reductions of inputs to target,
+     *  so that when several inputs change in the same Tick, only the first of their reactions evaluates the reduction.
+     */
+    private <O> Dirty dirty(Wire<?> target, List<Wire<O>> inputs) {
+        Dirty dirty = dirtyTargets.get(target);
+        if(dirty != null && (dirty.inputs == inputs || dirty.inputs.equals(inputs))) return dirty;
+
+        //Only 1 Dirty per target, in the unlikely case that this Box reduces different inputs to the same target.
+        Dirty fresh = newDirty(inputs);
+        if(dirty == null) dirtyTargets.put(target, fresh);
+        return fresh;
+    }
+
+    private Dirty newDirty(List<? extends Wire<?>> inputs) {
+        Dirty dirty = new Dirty(inputs);
+        inputs.forEach(in -> in.onSignalChanged(newSignal -> dirty.mark()));
+        return dirty;
+    }
+
+    /**
+     * Whether any of the inputs of a reduction changed since it was last evaluated.
+     * Wire::setSignal marks it right away, while the reactions of the Box only come after its Delay:
+     *  so when several inputs change in the same Tick, the first of their reactions evaluates the reduction,
+     *  and the next ones skip it, since they would compute the same result again.
+     * If an input changes again in the meantime (during the Tick of the reactions), the next reaction evaluates it again,
+     *  so the target goes through exactly the same Signals as if each reaction evaluated it.
+     * With a parallel Clock, marks can race, but they all write true,
+     *  and mark() never races with clear() since the reactions are declared to read the inputs (see ParallelTick).
+     */
+    private static final class Dirty {
+        private final List<? extends Wire<?>> inputs;
+        //Initially true, since the target has never been evaluated.
+        private boolean dirty = true;
+
+        //inputs is the unmodifiable copy already made by the "Staged Builder".
+        private Dirty(List<? extends Wire<?>> inputs) {
+            this.inputs = requireNonNull(inputs);
+        }
+
+        void mark() {
+            dirty = true;
+        }
+
+        /**
+         * @return whether the reduction must be evaluated
+         */
+        boolean clear() {
+            boolean wasDirty = dirty;
+            dirty = false;
+            return wasDirty;
+        }
+    }
+
     /**
      * Abstract method, so don't call from the constructor (see Effective Java).
      */
@@ -56,13 +257,14 @@ public abstract class Box {
 
     /**
      * @throws NullPointerException if the collection itself or any of its elements are null
-     * @return a defensive copy (to help implementors minimize mutability)
+     * @return an unmodifiable defensive copy (to help implementors minimize mutability),
+     *  which the "Staged Builder" and Reaction then share rather than copy again
      */
     protected static <X> List<X> checkNoNulls(Collection<X> inputs) {
         if(inputs.stream().anyMatch(Objects::isNull)) {
             throw new NullPointerException("Detected null wires in " + inputs);
         }
-        return new ArrayList<>(inputs);
+        return List.copyOf(inputs);
     }
 
 
@@ -155,7 +357,7 @@ public abstract class Box {
         public final void signalValueTransformation(Function<O, O> signalValueTransformation) {
             var f = requireNonNull(signalValueTransformation);
 
-            onSignalChanged(observed,
+            onSignalChanged(observed, List.of(target), List.of(),
                 newSignal -> target.setSignal(
                     newSignal.map(f)
                 )
@@ -171,7 +373,7 @@ public abstract class Box {
             var r = requireNonNull(rightWire);
             var c = requireNonNull(combiningPolicy);
 
-            onSignalChanged(observed,
+            onSignalChanged(observed, List.of(target), List.of(r),
                 newSignal -> target.setSignal(
                     Signal.combine(newSignal, r.getSignal(), f, c)
                 )
@@ -187,7 +389,7 @@ public abstract class Box {
             var f = requireNonNull(signalValuesCombinator);
             var c = requireNonNull(combiningPolicy);
 
-            onSignalChanged(observed,
+            onSignalChanged(observed, List.of(target), List.of(l),
                 newSignal -> target.setSignal(
                     Signal.combine(l.getSignal(), newSignal, f, c)
                 )
@@ -207,16 +409,20 @@ public abstract class Box {
             List<Wire<O>> inputs
         ) {
             super(observed, target);
-            this.inputs = new ArrayList<>(inputs);
+            //Boxes call from(ins) once per observed Wire with the same ins (see ReduceHomogeneousInputs):
+            // List::copyOf doesn't copy ins if checkNoNulls already did, so that all the reactions share it,
+            // rather than each holding its own copy (O(N^2) memory for a Box with N inputs).
+            this.inputs = List.copyOf(inputs);
         }
 
         public final void collect(Collector<O, ?, T> collector) {
             var c = requireNonNull(collector);
+            var d = dirty(target, inputs);
 
-            onSignalChanged(observed,
-                newSignal -> target.setSignal(
+            onSignalChanged(observed, List.of(target), inputs,
+                newSignal -> { if(d.clear()) target.setSignal(
                     Wire.collect(inputs, c)
-                )
+                ); }
             );
         }
 
@@ -236,11 +442,12 @@ public abstract class Box {
 
         public final void collectIndexed(Collector<Indexed<O>, ?, T> collector) {
             var c = requireNonNull(collector);
+            var d = dirty(target, inputs);
 
-            onSignalChanged(observed,
-                newSignal -> target.setSignal(
+            onSignalChanged(observed, List.of(target), inputs,
+                newSignal -> { if(d.clear()) target.setSignal(
                     Wire.collectIndexed(inputs, c)
-                )
+                ); }
             );
         }
     }
@@ -263,11 +470,12 @@ public abstract class Box {
 
         public final void reduce(BinaryOperator<T> accumulator, T identity) {
             var acc = requireNonNull(accumulator);
+            var d = dirty(target, inputs);
 
-            onSignalChanged(observed,
-                newSignal -> target.setSignal(
+            onSignalChanged(observed, List.of(target), inputs,
+                newSignal -> { if(d.clear()) target.setSignal(
                     Wire.mapAndReduceIndexed(inputs, weight, acc)
-                )
+                ); }
             );
         }
     }
@@ -290,11 +498,12 @@ public abstract class Box {
 
         public final void reduce(BinaryOperator<T> accumulator) {
             var acc = requireNonNull(accumulator);
+            var d = dirty(target, inputs);
 
-            onSignalChanged(observed,
-                newSignal -> target.setSignal(
+            onSignalChanged(observed, List.of(target), inputs,
+                newSignal -> { if(d.clear()) target.setSignal(
                     Wire.mapAndReduce(inputs, weight, acc)
-                )
+                ); }
             );
         }
     }
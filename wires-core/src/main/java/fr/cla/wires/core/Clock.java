@@ -1,7 +1,9 @@
 package fr.cla.wires.core;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.util.Objects.requireNonNull;
 
@@ -13,9 +15,11 @@ import static java.util.Objects.requireNonNull;
  */
 public final class Clock {
 
-    private final Agenda agenda = new Agenda();
+    private final Agenda agenda;
 
-    private Clock() {}
+    private Clock(Agenda agenda) {
+        this.agenda = requireNonNull(agenda);
+    }
 
     /**
      * @return the non-null Agenda
@@ -26,13 +30,77 @@ public final class Clock {
     }
 
     public static Clock createTime() {
-        return new Clock();
+        return new Clock(new Agenda());
+    }
+
+    /**
+     * Like createTime(), except that the callbacks due at the same Tick may run in parallel, on the common ForkJoinPool.
+     * The results are exactly the same as with createTime().
+     * Only pays off for wide circuits (many Boxes reacting at the same Tick, like big neuron Layers):
+     *  small Ticks, and Ticks with callbacks registered through the raw Box::onSignalChanged, still run sequentially.
+     */
+    public static Clock createParallelTime() {
+        return createParallelTime(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Like createParallelTime(), but on the specified ForkJoinPool.
+     */
+    public static Clock createParallelTime(ForkJoinPool pool) {
+        return new Clock(new Agenda(requireNonNull(pool), Agenda.DEFAULT_MIN_PARALLEL_TODOS));
+    }
+
+    static Clock createTime(Agenda agenda) {
+        return new Clock(agenda);
     }
 
     public void tick() {
         agenda().tick();
     }
 
+    /**
+     * Unlike tick(), which goes through every Tick even when nothing is appointed at it,
+     *  jumps now straight to the next Tick which has appointments, and runs them.
+     * @return false iff there was no appointment at all, in which case now doesn't change
+     */
+    public boolean advanceToNextEvent() {
+        return agenda().advanceToNextEvent();
+    }
+
+    /**
+     * Advances from event to event until no appointment remains,
+     *  but without going further than maxTicks from now,
+     *  so that this terminates even for circuits that never stabilize (eg. Counter).
+     * @param maxTicks The maximum number of Ticks to advance, must be >= 0
+     * @return true iff no appointment remains (which may then happen before maxTicks).
+     * If false, now is that of the last event run, not necessarily maxTicks from the initial now.
+     * @throws IllegalArgumentException if maxTicks is negative
+     */
+    public boolean runUntilQuiescent(long maxTicks) {
+        if(maxTicks < 0L) throw new IllegalArgumentException("maxTicks must be >= 0, was: " + maxTicks);
+        return agenda().runUntilQuiescent(maxTicks);
+    }
+
+    /**
+     * Starts counting what the Agenda does (see SimulationMetrics), until disableMetrics().
+     * While disabled, which is the default, metrics cost a null check per appointment and per Tick,
+     *  and a ThreadLocal lookup per Wire::setSignal.
+     * The calls to Wire::setSignal on the calling thread between Ticks count against this Clock from now on
+     *  (see SimulationMetrics), until another Clock enables metrics or ticks with metrics on it.
+     * @return the SimulationMetrics of this Clock, the same ones if they were already enabled
+     */
+    public SimulationMetrics enableMetrics() {
+        return agenda().enableMetrics();
+    }
+
+    /**
+     * Stops counting: the SimulationMetrics returned by enableMetrics() keep the counts so far.
+     * Does nothing if metrics are not enabled.
+     */
+    public void disableMetrics() {
+        agenda().disableMetrics();
+    }
+
     /**
      * @return the current non-null Tick
      */
@@ -49,41 +117,208 @@ public final class Clock {
      * Remembers which tasks (Tick.Queue) to execute at each Tick.
      */
     static final class Agenda {
-        private final Map<Tick, Tick.Queue> appointments = new HashMap<>();
-        private Tick now = Tick.ZERO;
+        //Below that, forking costs more than running the todos of a Tick sequentially.
+        static final int DEFAULT_MIN_PARALLEL_TODOS = 256;
+
+        //Keyed on raw long ticks: a Map<Tick, Tick.Queue> would allocate and hash a Tick for every appointment.
+        private final TimingWheel appointments;
+        //null iff Ticks run sequentially.
+        private final ParallelTick parallelTick;
+        //The Boxes that registered reactions, in the order of their first registration (see Netlist::compile).
+        private final List<Box> boxes = new ArrayList<>();
+        //null iff metrics are disabled, which is the default.
+        private SimulationMetrics metrics;
+
+        Agenda() {
+            this(new TimingWheel());
+        }
+
+        /**
+         * @param appointments A new TimingWheel, eg. with fewer slots than the default one to test it through this Agenda
+         */
+        Agenda(TimingWheel appointments) {
+            this.appointments = requireNonNull(appointments);
+            this.parallelTick = null;
+        }
+
+        Agenda(ForkJoinPool pool, int minParallelTodos) {
+            this.appointments = new TimingWheel();
+            this.parallelTick = new ParallelTick(pool, minParallelTodos);
+        }
 
         void tick() {
-            now = now.plus(Delay.of(1));
+            Tick.Queue todo = advance();
+            if(todo != null) run(todo);
+            ticked();
+        }
+
+        /**
+         * Like tick(), but runs beforeTodos at the new now, before the todos appointed at it.
+         */
+        void tick(Runnable beforeTodos) {
+            Tick.Queue todo = advance();
+            beforeTodos.run();
+            if(todo != null) run(todo);
+            ticked();
+        }
+
+        private Tick.Queue advance() {
             try {
-                runAppointedTodos();
-            } finally {
-                appointments.remove(now);
+                return appointments.advance();
+            } catch(ArithmeticException overflow) {
+                throw new Tick.OverflowException(now(), Delay.of(1), overflow);
             }
         }
 
-        private void runAppointedTodos() {
-            Tick.Queue todo = appointments.get(now);
-            if(todo != null) todo.runAll();
+        boolean advanceToNextEvent() {
+            if(appointments.isEmpty()) return false;
+
+            run(appointments.advanceTo(appointments.nextTick()));
+            ticked();
+            return true;
+        }
+
+        boolean runUntilQuiescent(long maxTicks) {
+            long now = appointments.now();
+            //Saturate rather than overflow: no appointment can be made beyond Long.MAX_VALUE anyway.
+            long deadline = maxTicks > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + maxTicks;
+
+            while(!appointments.isEmpty() && appointments.nextTick() <= deadline) {
+                advanceToNextEvent();
+            }
+            return appointments.isEmpty();
         }
 
         Tick now() {
-            if(now == null) throw new AssertionError();
-            return now;
+            return Tick.number(nowNumber());
+        }
+
+        boolean isEmpty() {
+            return appointments.isEmpty();
+        }
+
+        void registered(Box box) {
+            boxes.add(requireNonNull(box));
+        }
+
+        List<Box> boxes() {
+            return List.copyOf(boxes);
+        }
+
+        long nowNumber() {
+            return appointments.now();
+        }
+
+        int pendingTicks() {
+            return appointments.pendingTicks();
+        }
+
+        SimulationMetrics enableMetrics() {
+            if(metrics == null) metrics = new SimulationMetrics(this);
+            metrics.countBetweenTicks();
+            return metrics;
+        }
+
+        void disableMetrics() {
+            if(metrics == null) return;
+            metrics.stopCounting();
+            metrics = null;
+        }
+
+        /**
+         * @return the SimulationMetrics, or null if disabled
+         */
+        SimulationMetrics metrics() {
+            return metrics;
+        }
+
+        private void run(Tick.Queue todo) {
+            SimulationMetrics m = metrics;
+            if(m != null) m.running(todo);
+
+            Object event = FlightRecording.beginTick();
+            if(parallelTick == null) todo.runAll(m);
+            else parallelTick.run(todo, this);
+            FlightRecording.commitTick(event, nowNumber(), todo.size());
+        }
+
+        private void ticked() {
+            SimulationMetrics m = metrics;
+            if(m != null) m.ticked(nowNumber(), pendingTicks());
         }
 
         <V> OnSignalChanged<V> afterDelay(Delay delay, OnSignalChanged<V> callback) {
-            var d = requireNonNull(delay);
-            var cb = requireNonNull(callback);
+            return afterDelay(null, delay, callback);
+        }
+
+        /**
+         * @param box The class of the Box that registers the callback (see SimulationMetrics), or null if it isn't a Box
+         */
+        <V> OnSignalChanged<V> afterDelay(Class<? extends Box> box, Delay delay, OnSignalChanged<V> callback) {
+            var reaction = Reaction.unknown(requireNonNull(callback), requireNonNull(delay), box);
 
-            return newSignalOfV -> waitFor(d).thenCall(cb, newSignalOfV);
+            return newSignalOfV -> schedule(reaction, requireNonNull(newSignalOfV), 0L);
         }
 
-        private Tick.Queue waitFor(Delay delay) {
-            return appointments.computeIfAbsent(
-                now.plus(delay),
-                Tick.Queue::new
+        OnBooleanSignalChanged afterDelayForBoolean(Class<? extends Box> box, Delay delay, OnBooleanSignalChanged callback) {
+            var reaction = Reaction.toBoolean(requireNonNull(callback), requireNonNull(delay), box);
+
+            return (isNone, newValue) -> schedule(reaction, isNone ? Reaction.NONE : null, newValue ? 1L : 0L);
+        }
+
+        OnLongSignalChanged afterDelayForLong(Class<? extends Box> box, Delay delay, OnLongSignalChanged callback) {
+            var reaction = Reaction.toLong(requireNonNull(callback), requireNonNull(delay), box);
+
+            return (isNone, newValue) -> schedule(reaction, isNone ? Reaction.NONE : null, newValue);
+        }
+
+        OnDoubleSignalChanged afterDelayForDouble(Class<? extends Box> box, Delay delay, OnDoubleSignalChanged callback) {
+            var reaction = Reaction.toDouble(requireNonNull(callback), requireNonNull(delay), box);
+
+            return (isNone, newValue) -> schedule(
+                reaction, isNone ? Reaction.NONE : null, Double.doubleToRawLongBits(newValue)
             );
         }
+
+        /**
+         * Like afterDelay(Delay, OnSignalChanged), for a callback that declares which Wires it reads and writes,
+         *  which lets a parallel Agenda run it concurrently with the callbacks it can't observe.
+         * @param targets The only Wires that the callback writes
+         * @param reads The Wires that the callback reads, besides the new Signal of the observed Wire which it is passed
+         */
+        <V> OnSignalChanged<V> afterDelay(
+            Class<? extends Box> box,
+            Delay delay,
+            OnSignalChanged<V> callback,
+            Collection<? extends Wire<?>> targets,
+            Collection<? extends Wire<?>> reads
+        ) {
+            var reaction = Reaction.known(requireNonNull(callback), requireNonNull(delay), box, targets, reads);
+
+            return newSignalOfV -> schedule(reaction, requireNonNull(newSignalOfV), 0L);
+        }
+
+        /**
+         * @param payload See Reaction::run
+         * @param bits See Reaction::run
+         */
+        void schedule(Reaction reaction, Object payload, long bits) {
+            if(parallelTick != null && parallelTick.defer(reaction, payload, bits)) return;
+
+            waitFor(reaction.delay()).thenCall(reaction, payload, bits);
+            if(metrics != null) metrics.scheduled();
+        }
+
+        private Tick.Queue waitFor(Delay delay) {
+            long now = appointments.now();
+            long then;
+            try {
+                then = Math.addExact(now, (long)delay.duration());
+            } catch(ArithmeticException overflow) {
+                throw new Tick.OverflowException(now(), delay, overflow);
+            }
+            return appointments.queueAt(then);
+        }
     }
 
 }
@@ -28,6 +28,16 @@ public final class Delay extends AbstractValueObject<Delay> {
         return singletonList(duration);
     }
 
+    @Override
+    protected boolean sameEqualityCriteria(Delay that) {
+        return this.duration == that.duration;
+    }
+
+    @Override
+    protected int equalityCriteriaHashCode() {
+        return 31 + (31 + Integer.hashCode(duration));
+    }
+
     public static Delay of(int duration) {
         return new Delay(duration);
     }
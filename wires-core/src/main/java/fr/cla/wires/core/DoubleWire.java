@@ -0,0 +1,115 @@
+package fr.cla.wires.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * The counterpart of Wire<Double> which holds a primitive double plus a none bit rather than a Signal<Double>,
+ *  so that setting it, comparing its old and new values, and notifying its listeners doesn't allocate.
+ * Use toWire() and following() to connect it with Boxes that work on Wire<Double>.
+ */
+public final class DoubleWire {
+
+    private static final OnDoubleSignalChanged[] NO_LISTENERS = {};
+
+    private boolean isNone = true;
+    private double value = 0.0;
+    //An array rather than a Set, so that notifying doesn't allocate an Iterator.
+    //Copied on write (listeners are registered once, when building the circuit, and notified many times).
+    private OnDoubleSignalChanged[] listeners = NO_LISTENERS;
+
+    public boolean isNone() {
+        return isNone;
+    }
+
+    /**
+     * @throws NoSuchElementException if the Signal is none
+     */
+    public double getAsDouble() {
+        if(isNone) throw new NoSuchElementException("Signal is none");
+        return value;
+    }
+
+    /**
+     * Allocates, prefer isNone() and getAsDouble() on hot paths.
+     * @return the current non-null Signal
+     */
+    public Signal<Double> getSignal() {
+        return isNone ? Signal.none() : Signal.of(value);
+    }
+
+    public void set(double newValue) {
+        //Same equality as Double::equals, so that this behaves like Wire<Double> (eg. NaN doesn't change anything)
+        if(!isNone && Double.doubleToLongBits(value) == Double.doubleToLongBits(newValue)) return;
+
+        this.isNone = false;
+        this.value = newValue;
+        notifyListeners();
+    }
+
+    public void setNone() {
+        if(isNone) return;
+
+        this.isNone = true;
+        this.value = 0.0;
+        notifyListeners();
+    }
+
+    /**
+     * @param signal A non-null signal
+     * @throws NullPointerException if signal is null
+     */
+    public void setSignal(Signal<Double> signal) {
+        signal.value().ifPresentOrElse(this::set, this::setNone);
+    }
+
+    private void notifyListeners() {
+        for(OnDoubleSignalChanged callback : listeners) callback.accept(isNone, value);
+    }
+
+    void onSignalChanged(OnDoubleSignalChanged callback) {
+        var cb = requireNonNull(callback);
+        for(OnDoubleSignalChanged listener : listeners) {
+            if(listener.equals(cb)) return;
+        }
+
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = cb;
+    }
+
+    /**
+     * @return a new Wire<Double> whose Signal follows that of this DoubleWire (with no Delay)
+     */
+    public Wire<Double> toWire() {
+        Wire<Double> wire = Wire.make();
+        wire.setSignal(getSignal());
+        onSignalChanged((isNone, newValue) -> wire.setSignal(isNone ? Signal.none() : Signal.of(newValue)));
+        return wire;
+    }
+
+    /**
+     * @return a new DoubleWire whose value follows the Signal of wire (with no Delay)
+     */
+    public static DoubleWire following(Wire<Double> wire) {
+        DoubleWire following = make();
+        following.setSignal(wire.getSignal());
+        wire.onSignalChanged(following::setSignal);
+        return following;
+    }
+
+    public static DoubleWire make() {
+        return new DoubleWire();
+    }
+
+    private DoubleWire() {}
+
+    @Override
+    public String toString() {
+        return isNone ? "null" : String.valueOf(value);
+    }
+
+}
+//@formatter:on
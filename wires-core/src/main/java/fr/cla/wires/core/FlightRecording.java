@@ -0,0 +1,149 @@
+package fr.cla.wires.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+//@formatter:off
+/**
+ * Java Flight Recorder events, to line up the simulation with GC, allocations and the rest in JMC:
+ *  -1 Tick event per Tick which has todos (its number, the todos run, and its duration),
+ *  -1 BoxEvaluation event per EVALUATION_SAMPLING todos run by a thread, whatever the Ticks they belong to
+ *   (the class of the Box, its delay, and the duration): a per-thread counter, so that small Ticks are sampled as much as big ones,
+ *   and that their first todos are not favoured,
+ *  -1 WireFanOut event per Wire::setSignal that notifies at least FAN_OUT_THRESHOLD listeners.
+ * They cost a static final boolean check and an isEnabled() check when not recording (and nothing if jdk.jfr is absent,
+ *  since wires-core only requires it statically): the methods below return null rather than an event in that case.
+ * Events are passed around as Objects, so that the classes which record them don't link to jdk.jfr themselves.
+ */
+final class FlightRecording {
+
+    static final int EVALUATION_SAMPLING = 64;
+    static final int FAN_OUT_THRESHOLD = 64;
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private FlightRecording() {
+        throw new AssertionError("Not meant to be instantiated");
+    }
+
+    /**
+     * @return the started Tick event, or null if not recording
+     */
+    static Object beginTick() {
+        return AVAILABLE ? Events.beginTick() : null;
+    }
+
+    static void commitTick(Object event, long tick, int executed) {
+        if(event != null) Events.commitTick(event, tick, executed);
+    }
+
+    /**
+     * Only 1 in EVALUATION_SAMPLING of the todos run by the current thread while recording is recorded.
+     * @return the started BoxEvaluation event, or null if not recording or not sampled
+     */
+    static Object beginEvaluation() {
+        return AVAILABLE ? Events.beginEvaluation() : null;
+    }
+
+    static void commitEvaluation(Object event, Reaction reaction) {
+        if(event != null) Events.commitEvaluation(event, reaction.box(), reaction.delay().duration());
+    }
+
+    /**
+     * @return the started WireFanOut event, or null if not recording or if listeners is below FAN_OUT_THRESHOLD
+     */
+    static Object beginFanOut(int listeners) {
+        return AVAILABLE && listeners >= FAN_OUT_THRESHOLD ? Events.beginFanOut() : null;
+    }
+
+    static void commitFanOut(Object event, int listeners) {
+        if(event != null) Events.commitFanOut(event, listeners);
+    }
+
+    //The only code that links to jdk.jfr, so that it is only loaded (and verified) if jdk.jfr is available.
+    private static final class Events {
+        //Checked before allocating an event, so that nothing is allocated when not recording.
+        private static final EventType
+            TICK = EventType.getEventType(TickEvent.class),
+            EVALUATION = EventType.getEventType(BoxEvaluationEvent.class),
+            FAN_OUT = EventType.getEventType(WireFanOutEvent.class);
+        //The todos run by each thread while recording, ParallelTick workers included.
+        private static final ThreadLocal<int[]> EVALUATIONS = ThreadLocal.withInitial(() -> new int[1]);
+
+        private static Object beginTick() {
+            return TICK.isEnabled() ? begin(new TickEvent()) : null;
+        }
+
+        private static void commitTick(Object event, long tick, int executed) {
+            TickEvent e = (TickEvent) event;
+            e.tick = tick;
+            e.executed = executed;
+            e.commit();
+        }
+
+        private static Object beginEvaluation() {
+            if(!EVALUATION.isEnabled()) return null;
+            //Wraps around after 2^32 todos, a multiple of EVALUATION_SAMPLING: the period stays the same.
+            return EVALUATIONS.get()[0]++ % EVALUATION_SAMPLING == 0 ? begin(new BoxEvaluationEvent()) : null;
+        }
+
+        private static void commitEvaluation(Object event, Class<? extends Box> box, int delay) {
+            BoxEvaluationEvent e = (BoxEvaluationEvent) event;
+            e.box = box;
+            e.delay = delay;
+            e.commit();
+        }
+
+        private static Object beginFanOut() {
+            return FAN_OUT.isEnabled() ? begin(new WireFanOutEvent()) : null;
+        }
+
+        private static void commitFanOut(Object event, int listeners) {
+            WireFanOutEvent e = (WireFanOutEvent) event;
+            e.listeners = listeners;
+            e.commit();
+        }
+
+        private static Event begin(Event event) {
+            event.begin();
+            return event;
+        }
+    }
+
+
+
+    @Name("fr.cla.wires.Tick")
+    @Label("Tick")
+    @Description("The todos of a Tick of a Clock")
+    @Category("Wires")
+    @StackTrace(false)
+    static final class TickEvent extends Event {
+        @Label("Tick") long tick;
+        @Label("Todos run") int executed;
+    }
+
+    @Name("fr.cla.wires.BoxEvaluation")
+    @Label("Box Evaluation")
+    @Description("A callback registered by a Box, 1 in every " + EVALUATION_SAMPLING + " todos run by a thread, whatever their Ticks")
+    @Category("Wires")
+    @StackTrace(false)
+    static final class BoxEvaluationEvent extends Event {
+        @Label("Box") Class<?> box;
+        @Label("Delay") int delay;
+    }
+
+    @Name("fr.cla.wires.WireFanOut")
+    @Label("Wire Fan-Out")
+    @Description("A Signal change notified to many listeners")
+    @Category("Wires")
+    static final class WireFanOutEvent extends Event {
+        @Label("Listeners") int listeners;
+    }
+
+}
+//@formatter:on
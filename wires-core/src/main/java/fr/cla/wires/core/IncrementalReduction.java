@@ -0,0 +1,171 @@
+package fr.cla.wires.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * A reduction of N homogeneous inputs that can be updated in O(1) when one input changes,
+ *  instead of being computed again from all N inputs (see Box::reduceIncrementally).
+ * This requires the accumulator to form a commutative group:
+ *  -it must be associative and commutative, and identity must be its neutral element,
+ *  -inverse must undo it: inverse(accumulator(a, w), w) must equal a.
+ * Eg. sums, xors, or counts (AND is true iff there are 0 false inputs, OR iff there are more than 0 true inputs).
+ * Beware that floating-point sums are not exactly associative:
+ *  the rounding errors of a running sum can then drift away from those of a sum of all inputs.
+ * @param <O> The type of Signal that transits on observed Wires, same as in Box
+ * @param <A> The type of the running aggregate
+ * @param <T> The type of Signal that transits on the target Wire, same as in Box
+ */
+public final class IncrementalReduction<O, A, T> {
+
+    private final A identity;
+    private final Function<O, A> weight;
+    private final BinaryOperator<A> accumulator;
+    private final BinaryOperator<A> inverse;
+    private final Function<A, T> finisher;
+
+    private IncrementalReduction(
+        A identity,
+        Function<O, A> weight,
+        BinaryOperator<A> accumulator,
+        BinaryOperator<A> inverse,
+        Function<A, T> finisher
+    ) {
+        this.identity = requireNonNull(identity);
+        this.weight = requireNonNull(weight);
+        this.accumulator = requireNonNull(accumulator);
+        this.inverse = requireNonNull(inverse);
+        this.finisher = requireNonNull(finisher);
+    }
+
+    public static <O, A, T> Builder<O, A, T> identity(A identity) {
+        return new Builder<>(requireNonNull(identity));
+    }
+
+    /**
+     * @return a running aggregate of the current Signals of inputs
+     */
+    Running<O, A, T> start(List<Wire<O>> inputs) {
+        return new Running<>(this, inputs);
+    }
+
+
+
+
+    /**
+     * The running aggregate of the inputs of 1 Box.
+     * When an input changes, Wire::setSignal marks it as dirty right away,
+     *  then the reaction of the Box after its Delay folds all the dirty inputs into the aggregate:
+     *  so the result is exactly the same as that of reducing the current Signals of all inputs, as Wire::mapAndReduce does.
+     * The marks are synchronized since, with a parallel Clock,
+     *  2 inputs of a Box can be set concurrently by reactions of different Boxes.
+     */
+    static final class Running<O, A, T> {
+        private final IncrementalReduction<O, A, T> reduction;
+        private final List<Wire<O>> inputs;
+        //The weight of the Signal of each input, as of the last fold (null iff that Signal was none)
+        private final List<A> weights;
+        private final boolean[] dirty;
+        private final int[] dirtyIndexes;
+        private int dirtyCount;
+        private int noneCount;
+        private A aggregate;
+
+        private Running(IncrementalReduction<O, A, T> reduction, List<Wire<O>> inputs) {
+            this.reduction = requireNonNull(reduction);
+            this.inputs = List.copyOf(inputs);
+            this.weights = new ArrayList<>(inputs.size());
+            this.dirty = new boolean[inputs.size()];
+            this.dirtyIndexes = new int[inputs.size()];
+            this.aggregate = reduction.identity;
+
+            for(Wire<O> input : this.inputs) {
+                Signal<O> signal = input.getSignal();
+                if(signal.isNone()) {
+                    weights.add(null);
+                    noneCount++;
+                } else {
+                    A w = reduction.weight.apply(signal.value().get());
+                    weights.add(w);
+                    aggregate = reduction.accumulator.apply(aggregate, w);
+                }
+            }
+        }
+
+        synchronized void markDirty(int index) {
+            if(dirty[index]) return;
+            dirty[index] = true;
+            dirtyIndexes[dirtyCount++] = index;
+        }
+
+        /**
+         * @return the reduction of the current Signals of all inputs (none if any of them is none, as for Wire::mapAndReduce)
+         */
+        synchronized Signal<T> fold() {
+            for(int d = 0; d < dirtyCount; d++) {
+                int index = dirtyIndexes[d];
+                dirty[index] = false;
+                fold(index, inputs.get(index).getSignal());
+            }
+            dirtyCount = 0;
+
+            if(noneCount > 0 || inputs.isEmpty()) return Signal.none();
+            return Signal.of(reduction.finisher.apply(aggregate));
+        }
+
+        private void fold(int index, Signal<O> signal) {
+            A old = weights.get(index);
+            if(old == null) noneCount--;
+            else aggregate = reduction.inverse.apply(aggregate, old);
+
+            if(signal.isNone()) {
+                weights.set(index, null);
+                noneCount++;
+            } else {
+                A w = reduction.weight.apply(signal.value().get());
+                weights.set(index, w);
+                aggregate = reduction.accumulator.apply(aggregate, w);
+            }
+        }
+    }
+
+
+
+
+    public static class Builder<O, A, T> {
+        private final A identity;
+        private Function<O, A> weight;
+        private BinaryOperator<A> accumulator;
+        private BinaryOperator<A> inverse;
+
+        private Builder(A identity) {
+            this.identity = requireNonNull(identity);
+        }
+
+        public Builder<O, A, T> weight(Function<O, A> weight) {
+            this.weight = requireNonNull(weight);
+            return this;
+        }
+
+        public Builder<O, A, T> accumulator(BinaryOperator<A> accumulator) {
+            this.accumulator = requireNonNull(accumulator);
+            return this;
+        }
+
+        public Builder<O, A, T> inverse(BinaryOperator<A> inverse) {
+            this.inverse = requireNonNull(inverse);
+            return this;
+        }
+
+        public IncrementalReduction<O, A, T> finisher(Function<A, T> finisher) {
+            return new IncrementalReduction<>(identity, weight, accumulator, inverse, requireNonNull(finisher));
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,114 @@
+package fr.cla.wires.core;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * The counterpart of Wire<Long> which holds a primitive long plus a none bit rather than a Signal<Long>,
+ *  so that setting it, comparing its old and new values, and notifying its listeners doesn't allocate.
+ * Use toWire() and following() to connect it with Boxes that work on Wire<Long>.
+ */
+public final class LongWire {
+
+    private static final OnLongSignalChanged[] NO_LISTENERS = {};
+
+    private boolean isNone = true;
+    private long value = 0L;
+    //An array rather than a Set, so that notifying doesn't allocate an Iterator.
+    //Copied on write (listeners are registered once, when building the circuit, and notified many times).
+    private OnLongSignalChanged[] listeners = NO_LISTENERS;
+
+    public boolean isNone() {
+        return isNone;
+    }
+
+    /**
+     * @throws NoSuchElementException if the Signal is none
+     */
+    public long getAsLong() {
+        if(isNone) throw new NoSuchElementException("Signal is none");
+        return value;
+    }
+
+    /**
+     * Allocates, prefer isNone() and getAsLong() on hot paths.
+     * @return the current non-null Signal
+     */
+    public Signal<Long> getSignal() {
+        return isNone ? Signal.none() : Signal.of(value);
+    }
+
+    public void set(long newValue) {
+        if(!isNone && value == newValue) return;
+
+        this.isNone = false;
+        this.value = newValue;
+        notifyListeners();
+    }
+
+    public void setNone() {
+        if(isNone) return;
+
+        this.isNone = true;
+        this.value = 0L;
+        notifyListeners();
+    }
+
+    /**
+     * @param signal A non-null signal
+     * @throws NullPointerException if signal is null
+     */
+    public void setSignal(Signal<Long> signal) {
+        signal.value().ifPresentOrElse(this::set, this::setNone);
+    }
+
+    private void notifyListeners() {
+        for(OnLongSignalChanged callback : listeners) callback.accept(isNone, value);
+    }
+
+    void onSignalChanged(OnLongSignalChanged callback) {
+        var cb = requireNonNull(callback);
+        for(OnLongSignalChanged listener : listeners) {
+            if(listener.equals(cb)) return;
+        }
+
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = cb;
+    }
+
+    /**
+     * @return a new Wire<Long> whose Signal follows that of this LongWire (with no Delay)
+     */
+    public Wire<Long> toWire() {
+        Wire<Long> wire = Wire.make();
+        wire.setSignal(getSignal());
+        onSignalChanged((isNone, newValue) -> wire.setSignal(isNone ? Signal.none() : Signal.of(newValue)));
+        return wire;
+    }
+
+    /**
+     * @return a new LongWire whose value follows the Signal of wire (with no Delay)
+     */
+    public static LongWire following(Wire<Long> wire) {
+        LongWire following = make();
+        following.setSignal(wire.getSignal());
+        wire.onSignalChanged(following::setSignal);
+        return following;
+    }
+
+    public static LongWire make() {
+        return new LongWire();
+    }
+
+    private LongWire() {}
+
+    @Override
+    public String toString() {
+        return isNone ? "null" : String.valueOf(value);
+    }
+
+}
+//@formatter:on
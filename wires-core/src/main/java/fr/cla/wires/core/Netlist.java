@@ -0,0 +1,1620 @@
+package fr.cla.wires.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * A circuit compiled into a dense netlist, which simulates it without going through its Boxes and Wires:
+ *  -Wires become int ids, and their Signals live in primitive arrays.
+ *  -The reactions registered by the Boxes become records of opcodes and operands (again in primitive arrays),
+ *   which a single interpreter loop evaluates.
+ * Since each reaction is evaluated with the same inputs, and appointed in the same FIFO order, as by the Clock,
+ *  the Netlist goes through exactly the same Signals, Tick after Tick.
+ * The Signals of the original Wires are updated after each Tick (and after each setSignal),
+ *  but their listeners are not notified: the Netlist simulates what they would do.
+ */
+public final class Netlist {
+
+    /**
+     * What observe() does with the Wires outside the cone of influence of the observed ones.
+     */
+    public enum OutOfCone {
+        /**
+         * They are no longer simulated at all, and can't be read until restore() (Wire::getSignal throws an IllegalStateException),
+         *  so nothing is kept to catch up with them. Setting them is ignored, since nothing in the cone reads them.
+         */
+        UNREADABLE,
+        /**
+         * They are simulated again when read, by replaying the whole circuit since they were last caught up with,
+         *  so they go through exactly the same Signals as if they hadn't been suspended.
+         */
+        REPLAYED
+    }
+
+    /**
+     * The functions that a Netlist can apply to 1 Boolean Signal.
+     */
+    public enum Unary {
+        IDENTITY, NOT
+    }
+
+    /**
+     * The functions that a Netlist can apply to 2 Boolean Signals.
+     * Only FIRST and SECOND support Signal.WhenCombining.PRESENT_WINS, since the others would be passed null.
+     */
+    public enum Binary {
+        AND, OR, XOR, FIRST, SECOND
+    }
+
+    //The kinds of reactions
+    private static final byte
+        MAP = 0,            //function(new Signal of the observed Wire)
+        COMBINE_LEFT = 1,   //function(new Signal of the observed Wire, current Signal of the operand)
+        COMBINE_RIGHT = 2,  //function(current Signal of the operand, new Signal of the observed Wire)
+        ALL_TRUE = 3,       //AND of the current Signals of the inputs
+        THRESHOLD = 4       //weighted sum of the current Signals of the inputs > threshold ? 1.0 : 0.0
+    ;
+
+    //The ring has 1 slot of appointments per Tick up to the longest Delay (rounded up to a power of 2), allocated upfront:
+    // unlike the TimingWheel of a Clock, it has no overflow for far appointments, so Delays are bounded instead.
+    static final int MAX_DELAY = 1 << 12;
+
+    //The Signals set while observe() suspends Wires to be REPLAYED are logged until their copy catches up (see Suspended):
+    // it catches up as soon as there are that many, so that the log stays under 1.5 MB (21 bytes per Signal).
+    static final int MAX_LOGGED_SETS = 1 << 16;
+
+    //"WCKP", then the version of the layout written by checkpoint()
+    private static final int CHECKPOINT_MAGIC = 0x57434B50, CHECKPOINT_VERSION = 1;
+    //"WNET", then the version of the layout written by save()
+    private static final int NETLIST_MAGIC = 0x574E4554, NETLIST_VERSION = 1;
+
+    //Wires, by id. The value of a Boolean Wire is 0 or 1, that of a Double Wire is its Double::doubleToLongBits
+    // (so that comparing values compares Signals like Signal::equals). Values of none are 0.
+    private final Wire<?>[] wires;
+    private final Map<Wire<?>, Integer> ids;
+    private final boolean[] doubles;
+    private final boolean[] nones;
+    private final long[] values;
+    //The reactions to Wire w are reactionsByWire[firstReactions[w]] to reactionsByWire[firstReactions[w + 1] - 1],
+    // in the order in which they were registered.
+    private final int[] firstReactions;
+    private final int[] reactionsByWire;
+
+    //Reactions, by id.
+    private final byte[] kinds;
+    private final byte[] functions;
+    private final boolean[] presentWins;
+    private final int[] delays;
+    private final int[] targets;
+    //For COMBINE_LEFT and COMBINE_RIGHT, the other Wire. For ALL_TRUE and THRESHOLD, the first of their inputs.
+    private final int[] operands;
+    //For ALL_TRUE and THRESHOLD, their inputs are inputs[operands[r]] to inputs[operandEnds[r] - 1].
+    private final int[] operandEnds;
+    private final int[] inputs;
+    //For THRESHOLD, parallel to inputs.
+    private final double[] weights;
+    private final double[] thresholds;
+
+    //Appointments less than ring.length ticks ahead, which is all of them since ring.length > the longest Delay.
+    private final Appointments[] ring;
+    private final int mask;
+    private long now;
+    private long pending;
+
+    //The Wires changed since the Signals of the original Wires were last updated.
+    private final int[] changed;
+    private final boolean[] isChanged;
+    private int changedCount;
+
+    //The reactions that write() appoints, like firstReactions and reactionsByWire:
+    // the same arrays, unless observe() suspended the reactions outside the cone of influence of the observed Wires.
+    private int[] firstAppointed;
+    private int[] appointedByWire;
+    //null iff observe() suspended nothing.
+    private Suspended suspended;
+    //The probes of each Wire (see probe), null iff there are none.
+    private OnSignalChanged<Object>[][] probes;
+
+    //observed[r] is the Wire that reaction r reacts to. The other arrays are as the fields of the same name.
+    private Netlist(
+        Wire<?>[] wires, Map<Wire<?>, Integer> ids, boolean[] doubles,
+        byte[] kinds, byte[] functions, boolean[] presentWins, int[] delays, int[] observed, int[] targets,
+        int[] operands, int[] operandEnds, int[] inputs, double[] weights, double[] thresholds,
+        long now
+    ) {
+        int wireCount = wires.length;
+        this.wires = wires;
+        this.ids = ids;
+        this.doubles = doubles;
+        this.nones = new boolean[wireCount];
+        this.values = new long[wireCount];
+        for(int w = 0; w < wireCount; w++) {
+            Signal<?> signal = wires[w].getSignal();
+            nones[w] = signal.isNone();
+            values[w] = nones[w] ? 0L : encode(signal.valueOrNull(), doubles[w]);
+        }
+
+        int reactionCount = kinds.length;
+        this.kinds = kinds;
+        this.functions = functions;
+        this.presentWins = presentWins;
+        this.delays = delays;
+        this.targets = targets;
+        this.operands = operands;
+        this.operandEnds = operandEnds;
+        this.inputs = inputs;
+        this.weights = weights;
+        this.thresholds = thresholds;
+
+        int[] reactionCounts = new int[wireCount];
+        int longestDelay = 1;
+        for(int r = 0; r < reactionCount; r++) {
+            reactionCounts[observed[r]]++;
+            longestDelay = Math.max(longestDelay, delays[r]);
+        }
+        this.firstReactions = new int[wireCount + 1];
+        for(int w = 0; w < wireCount; w++) firstReactions[w + 1] = firstReactions[w] + reactionCounts[w];
+        this.reactionsByWire = new int[reactionCount];
+        int[] next = Arrays.copyOf(firstReactions, wireCount);
+        for(int r = 0; r < reactionCount; r++) reactionsByWire[next[observed[r]]++] = r;
+
+        int slots = Integer.highestOneBit(longestDelay) << 1;
+        this.ring = new Appointments[slots];
+        for(int s = 0; s < slots; s++) ring[s] = new Appointments();
+        this.mask = slots - 1;
+        this.now = now;
+
+        this.changed = new int[wireCount];
+        this.isChanged = new boolean[wireCount];
+        this.firstAppointed = firstReactions;
+        this.appointedByWire = reactionsByWire;
+    }
+
+    //A copy of the compiled circuit and of its current state, that doesn't update the original Wires (see Suspended).
+    private Netlist(Netlist original) {
+        this.wires = original.wires;
+        this.ids = original.ids;
+        this.doubles = original.doubles;
+        this.nones = original.nones.clone();
+        this.values = original.values.clone();
+        this.firstReactions = original.firstReactions;
+        this.reactionsByWire = original.reactionsByWire;
+        this.kinds = original.kinds;
+        this.functions = original.functions;
+        this.presentWins = original.presentWins;
+        this.delays = original.delays;
+        this.targets = original.targets;
+        this.operands = original.operands;
+        this.operandEnds = original.operandEnds;
+        this.inputs = original.inputs;
+        this.weights = original.weights;
+        this.thresholds = original.thresholds;
+        this.ring = new Appointments[original.ring.length];
+        for(int s = 0; s < ring.length; s++) ring[s] = original.ring[s].copy();
+        this.mask = original.mask;
+        this.now = original.now;
+        this.pending = original.pending;
+        this.changed = new int[wires.length];
+        this.isChanged = new boolean[wires.length];
+        this.firstAppointed = firstReactions;
+        this.appointedByWire = reactionsByWire;
+    }
+
+    /**
+     * Compiles all the Boxes of clock (see Box::compile), in the order in which they registered their reactions.
+     * The circuit must then be simulated by the returned Netlist rather than by clock:
+     *  in particular, its inputs must be set through Netlist::setSignal.
+     * @throws IllegalStateException if clock has appointments, since they would be lost
+     * @throws UnsupportedOperationException if any Box of clock can't be compiled, or has a Delay longer than MAX_DELAY
+     */
+    public static Netlist compile(Clock clock) {
+        Clock.Agenda agenda = clock.agenda();
+        if(!agenda.isEmpty()) throw new IllegalStateException(
+            "Can only compile a circuit whose Clock has no appointments, now: " + agenda.now()
+        );
+
+        Compiler compiler = new Compiler();
+        for(Box box : agenda.boxes()) compiler.compile(box);
+        return compiler.netlist(agenda.nowNumber());
+    }
+
+    public Tick now() {
+        return Tick.number(now);
+    }
+
+    long nowNumber() {
+        return now;
+    }
+
+    /**
+     * Same as Clock::tick, for the compiled circuit.
+     */
+    public void tick() {
+        if(suspended != null) suspended.invalidate();
+        advance();
+        updateOriginalWires();
+    }
+
+    private void advance() {
+        if(now == Long.MAX_VALUE) throw new Tick.OverflowException(now(), Delay.of(1), new ArithmeticException());
+        Appointments todo = ring[(int)(++now & mask)];
+        //Delays are >= 1, so reacting never appoints anything in todo itself.
+        for(int i = 0; i < todo.size; i++) react(todo.reactions[i], todo.nones[i], todo.values[i]);
+        pending -= todo.size;
+        todo.size = 0;
+    }
+
+    /**
+     * Same as Clock::runUntilQuiescent, for the compiled circuit
+     *  (only for the cone of influence of the observed Wires, if observe() suspended the rest):
+     *  skips the Ticks without appointments, and if false, now is that of the last event run.
+     * @throws IllegalArgumentException if maxTicks is negative
+     */
+    public boolean runUntilQuiescent(long maxTicks) {
+        if(maxTicks < 0L) throw new IllegalArgumentException("maxTicks must be >= 0, was: " + maxTicks);
+        //Saturate rather than overflow, like Clock::runUntilQuiescent.
+        long deadline = maxTicks > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + maxTicks;
+        while(pending > 0L) {
+            int next = nextAppointment();
+            if(next > deadline - now) break;
+            //tick() runs the Tick after now, and the skipped ones have nothing to run.
+            now += next - 1;
+            tick();
+        }
+        return pending == 0L;
+    }
+
+    //All appointments are less than ring.length Ticks ahead, so the first non-empty slot after now is the next one.
+    //Only called when there are pending appointments.
+    private int nextAppointment() {
+        for(int ahead = 1; ahead < ring.length; ahead++) {
+            if(ring[(int)((now + ahead) & mask)].size > 0) return ahead;
+        }
+        throw new AssertionError("Pending appointments should be less than " + ring.length + " Ticks ahead");
+    }
+
+    /**
+     * @return a simulation of 64 copies of the compiled circuit at once (see BitParallel),
+     *  all starting from the current Signals of this Netlist
+     * @throws UnsupportedOperationException if the circuit has Wires that are not Wire<Boolean>
+     * @throws IllegalStateException if observe() suspended some reactions
+     */
+    public BitParallel bitParallel() {
+        checkNotSuspended();
+        return new BitParallel(this);
+    }
+
+    /**
+     * Same as Wire::setSignal, for a Wire of the compiled circuit.
+     * @throws IllegalArgumentException if wire is not part of the compiled circuit
+     */
+    public <T> void setSignal(Wire<T> wire, Signal<T> signal) {
+        int id = id(wire);
+        boolean none = signal.isNone();
+        long value = none ? 0L : encode(signal.valueOrNull(), doubles[id]);
+        if(suspended != null && suspended.set(id, none, value)) return;
+
+        write(id, none, value);
+        updateOriginalWires();
+    }
+
+    /**
+     * Same as observe(observed, OutOfCone.UNREADABLE): what a test bench that only checks a few outputs needs.
+     */
+    public Observation observe(Collection<? extends Wire<?>> observed) {
+        return observe(observed, OutOfCone.UNREADABLE);
+    }
+
+    /**
+     * Only simulates the cone of influence of observed from now on:
+     *  the reactions that can change their Signals, directly or through other Wires, and the Wires that these reactions read.
+     * The other reactions, and the other Wires, are suspended (in test benches that only observe a few outputs, most of them):
+     *  the pending appointments of suspended reactions are dropped, and their Signals are no longer computed.
+     * What happens to the suspended Wires then depends on outOfCone:
+     *  -UNREADABLE: nothing, until restore() restores all of them, and simulates the whole circuit again.
+     *   This costs nothing but the cone, however long the run.
+     *  -REPLAYED: when a suspended Wire is read through Wire::getSignal, this Netlist catches up with all of them,
+     *   by simulating the whole circuit again from where it was suspended (or last caught up), with the same Signals set in between.
+     *   It keeps a copy of the whole circuit for that, and each Signal set in between (21 bytes each, in or out of the cone).
+     *   To bound that memory, it also catches up after every MAX_LOGGED_SETS Signals set, read or not:
+     *   so REPLAYED only saves the simulation of the suspended reactions in runs that set fewer Signals than that between reads,
+     *   and otherwise simulates the whole circuit on top of the cone. It is for reading suspended Wires now and then, not for speed.
+     *   Setting a suspended Wire through Wire::setSignal is the same as through setSignal.
+     * Replaces what was observed before, if anything (see observeAll()).
+     * The suspended Wires reference this Netlist until it stops suspending them: if dropped, it is only collected with them.
+     * @return what to close (eg. with try-with-resources) to observeAll() again
+     * @throws IllegalArgumentException if any Wire of observed is not part of the compiled circuit
+     * @throws IllegalStateException if what was observed before made Wires UNREADABLE
+     */
+    public Observation observe(Collection<? extends Wire<?>> observed, OutOfCone outOfCone) {
+        int[] observedIds = observed.stream().mapToInt(this::id).toArray();
+        requireNonNull(outOfCone);
+        observeAll();
+        //The probed Wires are observed too, since suspended Wires are only assigned when caught up with.
+        if(probes != null) {
+            int[] probed = IntStream.range(0, wires.length).filter(w -> probes[w] != null).toArray();
+            observedIds = IntStream.concat(Arrays.stream(observedIds), Arrays.stream(probed)).toArray();
+        }
+
+        boolean[] inCone = new boolean[wires.length], active = new boolean[kinds.length];
+        cone(observedIds, inCone, active);
+        int activeCount = 0;
+        for(boolean a : active) if(a) activeCount++;
+        if(activeCount == kinds.length) return new Observation(null);
+
+        Netlist copy = outOfCone == OutOfCone.REPLAYED ? new Netlist(this) : null;
+        for(Appointments appointments : ring) pending -= appointments.retain(active);
+        this.firstAppointed = new int[wires.length + 1];
+        this.appointedByWire = new int[activeCount];
+        for(int w = 0; w < wires.length; w++) {
+            int next = firstAppointed[w];
+            for(int i = firstReactions[w]; i < firstReactions[w + 1]; i++) {
+                if(active[reactionsByWire[i]]) appointedByWire[next++] = reactionsByWire[i];
+            }
+            firstAppointed[w + 1] = next;
+        }
+        this.suspended = new Suspended(copy, inCone);
+        return new Observation(suspended);
+    }
+
+    /**
+     * Stops suspending what observe() suspended, after catching up with it: simulates the whole circuit again from now on.
+     * Does nothing if nothing is suspended.
+     * @throws IllegalStateException if observe() made the suspended Wires UNREADABLE, since they are out of date:
+     *  restore() a checkpoint instead
+     */
+    public void observeAll() {
+        if(suspended == null) return;
+        checkReplayed();
+        catchUp();
+        Netlist copy = suspended.copy;
+        System.arraycopy(copy.nones, 0, nones, 0, nones.length);
+        System.arraycopy(copy.values, 0, values, 0, values.length);
+        System.arraycopy(copy.ring, 0, ring, 0, ring.length);
+        this.pending = copy.pending;
+        for(int w : suspended.wires) assign(wires[w], signal(w));
+        this.firstAppointed = firstReactions;
+        this.appointedByWire = reactionsByWire;
+        this.suspended = null;
+    }
+
+    //Backward from the observed Wires: a reaction is in the cone iff it writes a Wire of the cone,
+    // and then so are the Wire it reacts to and the Wires it reads.
+    private void cone(int[] observedIds, boolean[] inCone, boolean[] active) {
+        int[] firstByTarget = new int[wires.length + 1];
+        for(int r = 0; r < kinds.length; r++) firstByTarget[targets[r] + 1]++;
+        for(int w = 0; w < wires.length; w++) firstByTarget[w + 1] += firstByTarget[w];
+        int[] byTarget = new int[kinds.length];
+        int[] next = Arrays.copyOf(firstByTarget, wires.length);
+        for(int r = 0; r < kinds.length; r++) byTarget[next[targets[r]]++] = r;
+        int[] observedByReaction = observed();
+
+        int[] toVisit = new int[wires.length];
+        int toVisitCount = 0;
+        for(int w : observedIds) {
+            if(!inCone[w]) { inCone[w] = true; toVisit[toVisitCount++] = w; }
+        }
+        while(toVisitCount > 0) {
+            int w = toVisit[--toVisitCount];
+            for(int i = firstByTarget[w]; i < firstByTarget[w + 1]; i++) {
+                int r = byTarget[i];
+                if(active[r]) continue;
+                active[r] = true;
+                int[] reads = reads(r);
+                for(int j = -1; j < reads.length; j++) {
+                    int read = j < 0 ? observedByReaction[r] : reads[j];
+                    if(!inCone[read]) { inCone[read] = true; toVisit[toVisitCount++] = read; }
+                }
+            }
+        }
+    }
+
+    //The Wires that reaction r reads, besides the new Signal of the Wire it reacts to.
+    private int[] reads(int r) {
+        switch(kinds[r]) {
+            case MAP: return new int[0];
+            case COMBINE_LEFT: case COMBINE_RIGHT: return new int[]{operands[r]};
+            case ALL_TRUE: case THRESHOLD: return Arrays.copyOfRange(inputs, operands[r], operandEnds[r]);
+            default: throw new AssertionError("Unknown kind of reaction: " + kinds[r]);
+        }
+    }
+
+    //observed[r] is the Wire that reaction r reacts to.
+    private int[] observed() {
+        int[] observed = new int[kinds.length];
+        for(int w = 0; w < wires.length; w++) {
+            for(int i = firstReactions[w]; i < firstReactions[w + 1]; i++) observed[reactionsByWire[i]] = w;
+        }
+        return observed;
+    }
+
+    /**
+     * Called by Wire::getSignal when the Signal of wire is null, which happens iff this Netlist suspends it
+     *  (Wire::setSignal then calls setSignal, since only this Netlist can set it).
+     * @return the Signal of wire, once this Netlist caught up with it
+     */
+    @SuppressWarnings("unchecked") //The Signals of the copy are those of the Wires of the same ids
+    <T> Signal<T> caughtUp(Wire<T> wire) {
+        checkReplayed();
+        catchUp();
+        return (Signal<T>) suspended.copy.signal(id(wire));
+    }
+
+    /**
+     * @return the Signals set since the suspended Wires were last caught up with, 0 if observe() suspended nothing
+     */
+    int loggedSets() {
+        return suspended == null ? 0 : suspended.setCount;
+    }
+
+    private void catchUp() {
+        if(!suspended.caughtUp) suspended.catchUp(now);
+    }
+
+    private void checkReplayed() {
+        if(suspended.copy == null) throw new IllegalStateException(
+            "The Wires outside the observed cone are UNREADABLE: restore a checkpoint first"
+        );
+    }
+
+    private void checkNotSuspended() {
+        if(suspended != null) throw new IllegalStateException("Some reactions are suspended: call observeAll() first");
+    }
+
+    /**
+     * @return the id of wire, which is also the id of the same Wire in a Netlist loaded from what this one saved
+     * @throws IllegalArgumentException if wire is not part of the compiled circuit
+     */
+    public int id(Wire<?> wire) {
+        Integer id = ids.get(requireNonNull(wire));
+        if(id == null) throw new IllegalArgumentException("Not a Wire of this Netlist: " + wire);
+        return id;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the Wire of this id was compiled as a Wire<Double>
+     */
+    public Wire<Boolean> booleanWire(int id) {
+        return wire(id, false);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the Wire of this id was compiled as a Wire<Boolean>
+     */
+    public Wire<Double> doubleWire(int id) {
+        return wire(id, true);
+    }
+
+    //Safe since the type of a Wire is the type it was compiled as (see Compiler::id), which isDouble checks.
+    @SuppressWarnings("unchecked")
+    private <T> Wire<T> wire(int id, boolean isDouble) {
+        if(doubles[Objects.checkIndex(id, wires.length)] != isDouble) throw new IllegalArgumentException(
+            "Wire " + id + " is a Wire<" + (doubles[id] ? "Double" : "Boolean") + ">"
+        );
+        return (Wire<T>) wires[id];
+    }
+
+    /**
+     * Writes the state of the simulation to file (created, or overwritten), through a MappedByteBuffer:
+     *  the current Tick, the Signals of all Wires, and the pending appointments,
+     *  as ids of reactions and Signal values rather than as callbacks.
+     * A Clock can't be checkpointed since its appointments are opaque callbacks: compile its circuit into a Netlist first.
+     * Can't checkpoint while observe() suspends reactions (IllegalStateException), since suspended Signals are out of date.
+     * Layout (big-endian): magic, version, fingerprint of the circuit, counts of Wires, reactions and ring slots, now, pending,
+     *  then the nones of the Wires (1 bit each) and their values,
+     *  then for each of the next ring slots - 1 Ticks: the number of appointments, their reactions, nones (1 bit each) and values.
+     * @throws UncheckedIOException if file can't be written
+     */
+    public void checkpoint(Path file) {
+        checkNotSuspended();
+        long size = 4 + 4 + 8 + 4 + 4 + 4 + 8 + 8 + bitsBytes(wires.length) + (long) Long.BYTES * wires.length;
+        for(int d = 1; d < ring.length; d++) {
+            int appointments = ring[(int)((now + d) & mask)].size;
+            size += 4 + (long) Integer.BYTES * appointments + bitsBytes(appointments) + (long) Long.BYTES * appointments;
+        }
+
+        try(FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+            buffer.putInt(CHECKPOINT_MAGIC).putInt(CHECKPOINT_VERSION).putLong(fingerprint());
+            buffer.putInt(wires.length).putInt(kinds.length).putInt(ring.length).putLong(now).putLong(pending);
+            putBits(buffer, nones, wires.length);
+            putLongs(buffer, values, wires.length);
+            for(int d = 1; d < ring.length; d++) {
+                Appointments appointments = ring[(int)((now + d) & mask)];
+                buffer.putInt(appointments.size);
+                putInts(buffer, appointments.reactions, appointments.size);
+                putBits(buffer, appointments.nones, appointments.size);
+                putLongs(buffer, appointments.values, appointments.size);
+            }
+            if(buffer.hasRemaining()) throw new AssertionError("Wrote " + buffer.position() + " bytes out of " + size);
+            buffer.force();
+        } catch(IOException e) {
+            throw new UncheckedIOException("Couldn't write the checkpoint: " + file, e);
+        }
+    }
+
+    /**
+     * Restores the state written by checkpoint(), so that this Netlist goes on exactly as the checkpointed one would have,
+     *  without replaying the Ticks before it. The Signals of the original Wires are updated to the restored ones.
+     * This Netlist must be compiled from a circuit built the same way as the checkpointed one (the same Boxes, in the same order),
+     *  which is checked against a fingerprint of the compiled reactions.
+     * If observe() made Wires UNREADABLE, they are restored too, and this Netlist simulates the whole circuit again.
+     * @throws IllegalArgumentException if file is not a checkpoint of this circuit, in which case this Netlist is left unchanged
+     * @throws IllegalStateException if observe() suspended some reactions to be REPLAYED, since they would go on being suspended
+     * @throws UncheckedIOException if file can't be read
+     */
+    public void restore(Path file) {
+        if(suspended != null && suspended.copy != null) throw new IllegalStateException(
+            "Some reactions are suspended to be REPLAYED: call observeAll() first"
+        );
+        try(FileChannel channel = FileChannel.open(file, READ)) {
+            restore(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()), file);
+        } catch(IOException e) {
+            throw new UncheckedIOException("Couldn't read the checkpoint: " + file, e);
+        }
+    }
+
+    private void restore(ByteBuffer buffer, Path file) {
+        //Read everything before changing anything, so that a bad file leaves this Netlist as it was.
+        long restoredNow, restoredPending;
+        boolean[] restoredNones = new boolean[wires.length];
+        long[] restoredValues = new long[wires.length];
+        Appointments[] restoredRing = new Appointments[ring.length];
+        try {
+            if(buffer.getInt() != CHECKPOINT_MAGIC || buffer.getInt() != CHECKPOINT_VERSION) throw new IllegalArgumentException(
+                "Not a checkpoint: " + file
+            );
+            if(buffer.getLong() != fingerprint()
+            || buffer.getInt() != wires.length || buffer.getInt() != kinds.length || buffer.getInt() != ring.length) {
+                throw new IllegalArgumentException("Not a checkpoint of this circuit: " + file);
+            }
+            restoredNow = buffer.getLong();
+            restoredPending = buffer.getLong();
+            if(restoredNow < 0L) throw new IllegalArgumentException("Negative now " + restoredNow + " in: " + file);
+            getBits(buffer, restoredNones, wires.length);
+            getLongs(buffer, restoredValues, wires.length);
+            for(int w = 0; w < wires.length; w++) {
+                if(!isValue(restoredNones[w], restoredValues[w], doubles[w])) throw new IllegalArgumentException(
+                    "Invalid value " + restoredValues[w] + " of Wire " + w + " in: " + file
+                );
+            }
+            int[] observedByReaction = observed();
+            long appointmentCount = 0L;
+            for(int d = 1; d < ring.length; d++) {
+                int size = buffer.getInt();
+                if(size < 0 || (long) Integer.BYTES * size > buffer.remaining()) throw new IllegalArgumentException(
+                    "Truncated checkpoint: " + file
+                );
+                Appointments appointments = new Appointments(size);
+                getInts(buffer, appointments.reactions, appointments.size);
+                getBits(buffer, appointments.nones, appointments.size);
+                getLongs(buffer, appointments.values, appointments.size);
+                for(int i = 0; i < appointments.size; i++) {
+                    int r = appointments.reactions[i];
+                    if(r < 0 || r >= kinds.length) throw new IllegalArgumentException("Unknown reaction " + r + " in: " + file);
+                    //The new Signal of the Wire that r reacts to
+                    if(!isValue(appointments.nones[i], appointments.values[i], doubles[observedByReaction[r]])) {
+                        throw new IllegalArgumentException("Invalid value " + appointments.values[i] + " for reaction " + r + " in: " + file);
+                    }
+                }
+                appointmentCount += size;
+                restoredRing[(int)((restoredNow + d) & mask)] = appointments;
+            }
+            restoredRing[(int)(restoredNow & mask)] = new Appointments(0);
+            if(restoredPending != appointmentCount) throw new IllegalArgumentException(
+                "Pending " + restoredPending + " instead of " + appointmentCount + " appointments in: " + file
+            );
+            if(buffer.hasRemaining()) throw new IllegalArgumentException("Trailing bytes in: " + file);
+        } catch(BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated checkpoint: " + file, e);
+        }
+
+        System.arraycopy(restoredNones, 0, nones, 0, wires.length);
+        System.arraycopy(restoredValues, 0, values, 0, wires.length);
+        System.arraycopy(restoredRing, 0, ring, 0, ring.length);
+        this.now = restoredNow;
+        this.pending = restoredPending;
+        //assign() below stops suspending the UNREADABLE Wires, if any.
+        this.firstAppointed = firstReactions;
+        this.appointedByWire = reactionsByWire;
+        this.suspended = null;
+        for(int c = 0; c < changedCount; c++) isChanged[changed[c]] = false;
+        changedCount = 0;
+        for(int w = 0; w < wires.length; w++) assign(wires[w], signal(w));
+    }
+
+    /**
+     * Writes the compiled circuit to file (created, or overwritten) through a MappedByteBuffer, so that load() can rebuild it
+     *  in bulk, without running the builders of its Boxes: the kinds, functions, Delays, Wire ids, weights and thresholds
+     *  of its reactions, and the current Tick and Signals of its Wires.
+     * Layout (big-endian): magic, version, counts of Wires, reactions and inputs of reductions, now,
+     *  then which Wires are Wire<Double>s and which are none (1 bit each), and their values,
+     *  then the kinds and functions of the reactions, their presentWins (1 bit each),
+     *  their delays, observed Wires, targets, operands and operandEnds,
+     *  then the inputs of the reductions, their weights, and the thresholds of the reactions.
+     * The file can be no larger than 2GB, the most that a MappedByteBuffer maps.
+     * @throws IllegalStateException if this Netlist has appointments, since they would be lost (checkpoint them instead),
+     *  or if observe() suspended some reactions
+     * @throws UncheckedIOException if file can't be written
+     */
+    public void save(Path file) {
+        checkNotSuspended();
+        if(pending != 0L) throw new IllegalStateException(
+            "Can only save a Netlist that has no appointments, now: " + now() + ", pending: " + pending
+        );
+        int wireCount = wires.length, reactionCount = kinds.length, inputCount = inputs.length;
+        long size = 4 + 4 + 4 + 4 + 4 + 8
+            + 2 * bitsBytes(wireCount) + (long) Long.BYTES * wireCount
+            + 2L * reactionCount + bitsBytes(reactionCount) + 5L * Integer.BYTES * reactionCount
+            + (long) (Integer.BYTES + Double.BYTES) * inputCount + (long) Double.BYTES * reactionCount;
+
+        int[] observed = observed();
+        try(FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+            buffer.putInt(NETLIST_MAGIC).putInt(NETLIST_VERSION);
+            buffer.putInt(wireCount).putInt(reactionCount).putInt(inputCount).putLong(now);
+            putBits(buffer, doubles, wireCount);
+            putBits(buffer, nones, wireCount);
+            putLongs(buffer, values, wireCount);
+            buffer.put(kinds).put(functions);
+            putBits(buffer, presentWins, reactionCount);
+            for(int[] ints : List.of(delays, observed, targets, operands, operandEnds)) putInts(buffer, ints, reactionCount);
+            putInts(buffer, inputs, inputCount);
+            putDoubles(buffer, weights, inputCount);
+            putDoubles(buffer, thresholds, reactionCount);
+            if(buffer.hasRemaining()) throw new AssertionError("Wrote " + buffer.position() + " bytes out of " + size);
+            buffer.force();
+        } catch(IOException e) {
+            throw new UncheckedIOException("Couldn't write the netlist: " + file, e);
+        }
+    }
+
+    /**
+     * Rebuilds a circuit saved by save(): new Wires, with the Signals that the saved ones had, and a Netlist that simulates them
+     *  from the saved Tick, without any Box or Clock. Get the Wires by their ids (see id) with booleanWire and doubleWire.
+     * @throws IllegalArgumentException if file is not a valid netlist
+     * @throws UncheckedIOException if file can't be read
+     */
+    public static Netlist load(Path file) {
+        try(FileChannel channel = FileChannel.open(file, READ)) {
+            return load(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()), file);
+        } catch(IOException e) {
+            throw new UncheckedIOException("Couldn't read the netlist: " + file, e);
+        }
+    }
+
+    private static Netlist load(ByteBuffer buffer, Path file) {
+        try {
+            if(buffer.getInt() != NETLIST_MAGIC || buffer.getInt() != NETLIST_VERSION) throw new IllegalArgumentException(
+                "Not a netlist: " + file
+            );
+            int wireCount = buffer.getInt(), reactionCount = buffer.getInt(), inputCount = buffer.getInt();
+            long now = buffer.getLong();
+            //Don't allocate arrays for counts that the file is too small to hold (at least 1 byte each).
+            if(wireCount < 0 || reactionCount < 0 || inputCount < 0
+            || (long) wireCount + reactionCount + inputCount > buffer.remaining()) {
+                throw new IllegalArgumentException("Truncated netlist: " + file);
+            }
+
+            boolean[] doubles = new boolean[wireCount], nones = new boolean[wireCount];
+            long[] values = new long[wireCount];
+            getBits(buffer, doubles, wireCount);
+            getBits(buffer, nones, wireCount);
+            getLongs(buffer, values, wireCount);
+            byte[] kinds = new byte[reactionCount], functions = new byte[reactionCount];
+            boolean[] presentWins = new boolean[reactionCount];
+            buffer.get(kinds).get(functions);
+            getBits(buffer, presentWins, reactionCount);
+            int[] delays = new int[reactionCount], observed = new int[reactionCount], targets = new int[reactionCount];
+            int[] operands = new int[reactionCount], operandEnds = new int[reactionCount];
+            for(int[] ints : List.of(delays, observed, targets, operands, operandEnds)) getInts(buffer, ints, reactionCount);
+            int[] inputs = new int[inputCount];
+            double[] weights = new double[inputCount], thresholds = new double[reactionCount];
+            getInts(buffer, inputs, inputCount);
+            getDoubles(buffer, weights, inputCount);
+            getDoubles(buffer, thresholds, reactionCount);
+            if(buffer.hasRemaining()) throw new IllegalArgumentException("Trailing bytes in: " + file);
+            validate(now, doubles, nones, values, kinds, functions, presentWins, delays, observed, targets, operands, operandEnds, inputs, file);
+
+            Wire<?>[] wires = new Wire<?>[wireCount];
+            Map<Wire<?>, Integer> ids = new IdentityHashMap<>(wireCount);
+            for(int w = 0; w < wireCount; w++) {
+                wires[w] = Wire.make();
+                assign(wires[w], decode(nones[w], values[w], doubles[w]));
+                ids.put(wires[w], w);
+            }
+            return new Netlist(
+                wires, ids, doubles,
+                kinds, functions, presentWins, delays, observed, targets,
+                operands, operandEnds, inputs, weights, thresholds,
+                now
+            );
+        } catch(BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated netlist: " + file, e);
+        }
+    }
+
+    //So that a corrupt file fails to load, rather than the simulation failing later on, or reading the wrong Signals.
+    private static void validate(
+        long now, boolean[] doubles, boolean[] nones, long[] values,
+        byte[] kinds, byte[] functions, boolean[] presentWins, int[] delays, int[] observed, int[] targets,
+        int[] operands, int[] operandEnds, int[] inputs, Path file
+    ) {
+        if(now < 0L) throw new IllegalArgumentException("Negative now " + now + " in: " + file);
+        int wireCount = doubles.length;
+        for(int w = 0; w < wireCount; w++) {
+            if(!isValue(nones[w], values[w], doubles[w])) throw new IllegalArgumentException(
+                "Invalid value " + values[w] + " of Wire " + w + " in: " + file
+            );
+        }
+        for(int r = 0; r < kinds.length; r++) {
+            boolean isDouble = kinds[r] == THRESHOLD;
+            boolean valid = 1 <= delays[r] && delays[r] <= MAX_DELAY
+                && isWire(observed[r], wireCount) && doubles[observed[r]] == isDouble
+                && isWire(targets[r], wireCount) && doubles[targets[r]] == isDouble;
+            switch(kinds[r]) {
+                case MAP: {
+                    valid &= 0 <= functions[r] && functions[r] < Unary.values().length && !presentWins[r];
+                    break;
+                }
+                case COMBINE_LEFT: case COMBINE_RIGHT: {
+                    valid &= 0 <= functions[r] && functions[r] < Binary.values().length
+                        && (!presentWins[r] || functions[r] == Binary.FIRST.ordinal() || functions[r] == Binary.SECOND.ordinal())
+                        && isWire(operands[r], wireCount) && !doubles[operands[r]];
+                    break;
+                }
+                case ALL_TRUE: case THRESHOLD: {
+                    valid &= 0 <= operands[r] && operands[r] <= operandEnds[r] && operandEnds[r] <= inputs.length;
+                    for(int i = operands[r]; valid && i < operandEnds[r]; i++) {
+                        valid = isWire(inputs[i], wireCount) && doubles[inputs[i]] == isDouble;
+                    }
+                    break;
+                }
+                default: valid = false;
+            }
+            if(!valid) throw new IllegalArgumentException("Corrupt reaction " + r + " in: " + file);
+        }
+    }
+
+    private static boolean isWire(int id, int wireCount) {
+        return 0 <= id && id < wireCount;
+    }
+
+    //Changes if any Box, Wire or Delay of the compiled circuit does, or if they were compiled in another order.
+    private long fingerprint() {
+        long h = 1L;
+        h = 31L * h + Arrays.hashCode(doubles);
+        h = 31L * h + Arrays.hashCode(firstReactions);
+        h = 31L * h + Arrays.hashCode(reactionsByWire);
+        h = 31L * h + Arrays.hashCode(kinds);
+        h = 31L * h + Arrays.hashCode(functions);
+        h = 31L * h + Arrays.hashCode(presentWins);
+        h = 31L * h + Arrays.hashCode(delays);
+        h = 31L * h + Arrays.hashCode(targets);
+        h = 31L * h + Arrays.hashCode(operands);
+        h = 31L * h + Arrays.hashCode(operandEnds);
+        h = 31L * h + Arrays.hashCode(inputs);
+        h = 31L * h + Arrays.hashCode(weights);
+        h = 31L * h + Arrays.hashCode(thresholds);
+        return h;
+    }
+
+    private void react(int r, boolean none, long value) {
+        switch(kinds[r]) {
+            case MAP: {
+                if(none) write(targets[r], true, 0L);
+                else write(targets[r], false, functions[r] == Unary.NOT.ordinal() ? value ^ 1L : value);
+                return;
+            }
+            case COMBINE_LEFT: {
+                int right = operands[r];
+                combine(r, none, value, nones[right], values[right]);
+                return;
+            }
+            case COMBINE_RIGHT: {
+                int left = operands[r];
+                combine(r, nones[left], values[left], none, value);
+                return;
+            }
+            case ALL_TRUE: {
+                long all = 1L;
+                for(int i = operands[r]; i < operandEnds[r]; i++) {
+                    int in = inputs[i];
+                    if(nones[in]) { write(targets[r], true, 0L); return; }
+                    all &= values[in];
+                }
+                write(targets[r], false, all);
+                return;
+            }
+            case THRESHOLD: {
+                //Same order of floating-point operations as Neuron: weight each input, then sum them from the first.
+                double potential = 0.0;
+                for(int i = operands[r]; i < operandEnds[r]; i++) {
+                    int in = inputs[i];
+                    if(nones[in]) { write(targets[r], true, 0L); return; }
+                    double weighted = Double.longBitsToDouble(values[in]) * weights[i];
+                    potential = i == operands[r] ? weighted : potential + weighted;
+                }
+                write(targets[r], false, Double.doubleToLongBits(potential > thresholds[r] ? 1.0 : 0.0));
+                return;
+            }
+            default: throw new AssertionError("Unknown kind of reaction: " + kinds[r]);
+        }
+    }
+
+    //Same as Signal.WhenCombining::combine, for Boolean values.
+    private void combine(int r, boolean none1, long value1, boolean none2, long value2) {
+        int function = functions[r];
+        if(presentWins[r]) {
+            //Only FIRST and SECOND, which answer none iff their answer is none.
+            if(function == Binary.FIRST.ordinal()) write(targets[r], none1, value1);
+            else write(targets[r], none2, value2);
+            return;
+        }
+        if(none1 || none2) {
+            write(targets[r], true, 0L);
+            return;
+        }
+        switch(Binary.values()[function]) {
+            case AND: write(targets[r], false, value1 & value2); return;
+            case OR: write(targets[r], false, value1 | value2); return;
+            case XOR: write(targets[r], false, value1 ^ value2); return;
+            case FIRST: write(targets[r], false, value1); return;
+            case SECOND: write(targets[r], false, value2); return;
+            default: throw new AssertionError("Unknown function: " + function);
+        }
+    }
+
+    //Same as Wire::setSignal: only notify changes.
+    private void write(int w, boolean none, long value) {
+        if(nones[w] == none && values[w] == value) return;
+
+        nones[w] = none;
+        values[w] = value;
+        if(!isChanged[w]) {
+            isChanged[w] = true;
+            changed[changedCount++] = w;
+        }
+        int[] firstAppointed = this.firstAppointed, appointedByWire = this.appointedByWire;
+        for(int i = firstAppointed[w]; i < firstAppointed[w + 1]; i++) {
+            int r = appointedByWire[i];
+            ring[(int)((now + delays[r]) & mask)].add(r, none, value);
+        }
+        pending += firstAppointed[w + 1] - firstAppointed[w];
+    }
+
+    private void updateOriginalWires() {
+        for(int c = 0; c < changedCount; c++) {
+            int w = changed[c];
+            isChanged[w] = false;
+            Signal<?> signal = signal(w);
+            assign(wires[w], signal);
+            if(probes != null && probes[w] != null) probe(w, signal);
+        }
+        changedCount = 0;
+    }
+
+    //Safe since probe(Wire<T>, OnSignalChanged<T>) only registers probes of the type of their Wire.
+    @SuppressWarnings("unchecked")
+    private void probe(int w, Signal<?> signal) {
+        for(OnSignalChanged<Object> probe : probes[w]) probe.accept((Signal<Object>) signal);
+    }
+
+    /**
+     * Like a listener of wire, that this Netlist notifies when it updates wire, since it never notifies its listeners:
+     *  once per Tick (or per setSignal) at which wire changed, with its last Signal at that Tick.
+     * Probed Wires are never suspended by observe(). Restoring a checkpoint doesn't notify the probes.
+     * @throws IllegalArgumentException if wire is not part of the compiled circuit
+     * @throws IllegalStateException if observe() suspended wire
+     */
+    @SuppressWarnings("unchecked") //An array of the erased type, which only holds probes of the type of wire
+    <T> void probe(Wire<T> wire, OnSignalChanged<T> probe) {
+        int w = checkProbeable(wire);
+        requireNonNull(probe);
+        if(probes == null) probes = (OnSignalChanged<Object>[][]) new OnSignalChanged<?>[wires.length][];
+        OnSignalChanged<Object>[] of = probes[w] == null ? (OnSignalChanged<Object>[]) new OnSignalChanged<?>[0] : probes[w];
+        of = Arrays.copyOf(of, of.length + 1);
+        of[of.length - 1] = (OnSignalChanged<Object>) (OnSignalChanged<?>) probe;
+        probes[w] = of;
+    }
+
+    /**
+     * @return the id of wire
+     * @throws IllegalArgumentException if wire is not part of the compiled circuit
+     * @throws IllegalStateException if observe() suspended wire
+     */
+    int checkProbeable(Wire<?> wire) {
+        int w = id(wire);
+        if(suspended != null && suspended.isSuspended[w]) throw new IllegalStateException(
+            "Wire " + w + " is suspended: call observeAll() first"
+        );
+        return w;
+    }
+
+    /**
+     * Stops notifying probe. Does nothing if it doesn't probe wire.
+     */
+    <T> void removeProbe(Wire<T> wire, OnSignalChanged<T> probe) {
+        int w = id(wire);
+        if(probes == null || probes[w] == null) return;
+        OnSignalChanged<Object>[] of = probes[w];
+        for(int i = 0; i < of.length; i++) {
+            if(!of[i].equals(probe)) continue;
+            OnSignalChanged<Object>[] removed = Arrays.copyOf(of, of.length - 1);
+            System.arraycopy(of, i + 1, removed, i, of.length - i - 1);
+            probes[w] = removed.length == 0 ? null : removed;
+            return;
+        }
+    }
+
+    private Signal<?> signal(int w) {
+        return decode(nones[w], values[w], doubles[w]);
+    }
+
+    private static Signal<?> decode(boolean none, long value, boolean isDouble) {
+        if(none) return Signal.none();
+        if(isDouble) return Signal.of(Double.longBitsToDouble(value));
+        return Signal.of(value != 0L);
+    }
+
+    //Safe since signal(w) decodes the Signal of w as the type of value w was compiled as (see Compiler::id).
+    @SuppressWarnings("unchecked")
+    private static void assign(Wire<?> wire, Signal<?> signal) {
+        ((Wire<Object>) wire).assign((Signal<Object>) signal);
+    }
+
+    //Whether value can be that of a Wire (see values): 0 or 1 for a Boolean Wire, 0 for none.
+    private static boolean isValue(boolean none, long value, boolean isDouble) {
+        if(none) return value == 0L;
+        return isDouble || value == 0L || value == 1L;
+    }
+
+    private static long encode(Object value, boolean isDouble) {
+        if(isDouble) return Double.doubleToLongBits((Double) value);
+        return (Boolean) value ? 1L : 0L;
+    }
+
+    private static long bitsBytes(int bits) {
+        return (long) Long.BYTES * ((bits + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    private static void putBits(ByteBuffer buffer, boolean[] bits, int length) {
+        for(int from = 0; from < length; from += Long.SIZE) {
+            long word = 0L;
+            for(int i = from; i < Math.min(length, from + Long.SIZE); i++) {
+                if(bits[i]) word |= 1L << (i - from);
+            }
+            buffer.putLong(word);
+        }
+    }
+
+    private static void getBits(ByteBuffer buffer, boolean[] bits, int length) {
+        for(int from = 0; from < length; from += Long.SIZE) {
+            long word = buffer.getLong();
+            for(int i = from; i < Math.min(length, from + Long.SIZE); i++) bits[i] = (word >>> (i - from) & 1L) != 0L;
+        }
+    }
+
+    //The bulk transfers of the views are much faster than 1 putLong per value, but don't move the position of the buffer.
+    private static void putLongs(ByteBuffer buffer, long[] longs, int length) {
+        buffer.asLongBuffer().put(longs, 0, length);
+        buffer.position(buffer.position() + Long.BYTES * length);
+    }
+
+    private static void getLongs(ByteBuffer buffer, long[] longs, int length) {
+        buffer.asLongBuffer().get(longs, 0, length);
+        buffer.position(buffer.position() + Long.BYTES * length);
+    }
+
+    private static void putDoubles(ByteBuffer buffer, double[] doubles, int length) {
+        buffer.asDoubleBuffer().put(doubles, 0, length);
+        buffer.position(buffer.position() + Double.BYTES * length);
+    }
+
+    private static void getDoubles(ByteBuffer buffer, double[] doubles, int length) {
+        buffer.asDoubleBuffer().get(doubles, 0, length);
+        buffer.position(buffer.position() + Double.BYTES * length);
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] ints, int length) {
+        buffer.asIntBuffer().put(ints, 0, length);
+        buffer.position(buffer.position() + Integer.BYTES * length);
+    }
+
+    private static void getInts(ByteBuffer buffer, int[] ints, int length) {
+        buffer.asIntBuffer().get(ints, 0, length);
+        buffer.position(buffer.position() + Integer.BYTES * length);
+    }
+
+
+
+
+    /**
+     * 64 copies of a compiled circuit of Boolean Wires, simulated at once: 1 lane per copy, 1 bit per lane.
+     * Each Wire holds a long of values and a long of nones (1 bit per lane each), so that the reactions evaluate 64 lanes
+     *  with a few bitwise operations. This is meant for regression runs over many test vectors: 64 vectors per evaluation.
+     * Each lane goes through exactly the same Signals, Tick after Tick, as a Netlist of its own (and thus as the Clock) would:
+     *  appointments carry the lanes where the observed Wire changed, and only write the target in these lanes,
+     *  since the other lanes would not have appointed this reaction at all.
+     * The Signals of the original Wires are not updated, since they can't hold 64 lanes: read them with values and nones.
+     */
+    public static final class BitParallel {
+        private final Netlist netlist;
+        private final long[] values;
+        private final long[] nones;
+        private final LaneAppointments[] ring;
+        private long now;
+        private long pending;
+
+        private BitParallel(Netlist netlist) {
+            for(int w = 0; w < netlist.wires.length; w++) {
+                if(netlist.doubles[w]) throw new UnsupportedOperationException(
+                    "Only circuits of Wire<Boolean> can be simulated bit-parallel, not: " + netlist.wires[w]
+                );
+            }
+            this.netlist = netlist;
+            this.values = new long[netlist.values.length];
+            this.nones = new long[netlist.nones.length];
+            for(int w = 0; w < values.length; w++) {
+                nones[w] = netlist.nones[w] ? -1L : 0L;
+                values[w] = netlist.values[w] != 0L ? -1L : 0L;
+            }
+            this.ring = new LaneAppointments[netlist.ring.length];
+            for(int s = 0; s < ring.length; s++) ring[s] = new LaneAppointments();
+            this.now = netlist.now;
+        }
+
+        public Tick now() {
+            return Tick.number(now);
+        }
+
+        /**
+         * Same as Netlist::tick, in all lanes.
+         */
+        public void tick() {
+            if(now == Long.MAX_VALUE) throw new Tick.OverflowException(now(), Delay.of(1), new ArithmeticException());
+            LaneAppointments todo = ring[(int)(++now & netlist.mask)];
+            for(int i = 0; i < todo.size; i++) react(todo.reactions[i], todo.values[i], todo.nones[i], todo.lanes[i]);
+            pending -= todo.size;
+            todo.size = 0;
+        }
+
+        /**
+         * Same as Netlist::runUntilQuiescent, until all lanes are quiescent.
+         * @throws IllegalArgumentException if maxTicks is negative
+         */
+        public boolean runUntilQuiescent(long maxTicks) {
+            if(maxTicks < 0L) throw new IllegalArgumentException("maxTicks must be >= 0, was: " + maxTicks);
+            long deadline = maxTicks > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + maxTicks;
+            while(pending > 0L) {
+                int next = nextAppointment();
+                if(next > deadline - now) break;
+                now += next - 1;
+                tick();
+            }
+            return pending == 0L;
+        }
+
+        //Same as Netlist::nextAppointment.
+        private int nextAppointment() {
+            for(int ahead = 1; ahead < ring.length; ahead++) {
+                if(ring[(int)((now + ahead) & netlist.mask)].size > 0) return ahead;
+            }
+            throw new AssertionError("Pending appointments should be less than " + ring.length + " Ticks ahead");
+        }
+
+        /**
+         * Same as Netlist::setSignal, in each lane: bit i of values is the value of lane i, unless bit i of nones is set.
+         * @throws IllegalArgumentException if wire is not part of the compiled circuit
+         */
+        public void set(Wire<Boolean> wire, long values, long nones) {
+            write(id(wire), values & ~nones, nones, -1L);
+        }
+
+        /**
+         * @return the values of wire in each lane (bit i for lane i), 0 in the lanes where it is none
+         */
+        public long values(Wire<Boolean> wire) {
+            return values[id(wire)];
+        }
+
+        /**
+         * @return the lanes where wire is none (bit i for lane i)
+         */
+        public long nones(Wire<Boolean> wire) {
+            return nones[id(wire)];
+        }
+
+        public Signal<Boolean> getSignal(Wire<Boolean> wire, int lane) {
+            int w = id(wire);
+            long bit = 1L << Objects.checkIndex(lane, Long.SIZE);
+            return (nones[w] & bit) != 0L ? Signal.none() : Signal.of((values[w] & bit) != 0L);
+        }
+
+        private int id(Wire<Boolean> wire) {
+            return netlist.id(wire);
+        }
+
+        //Same as Netlist::react, in the given lanes. The values of none lanes are always 0.
+        private void react(int r, long value, long none, long lanes) {
+            Netlist n = netlist;
+            int target = n.targets[r];
+            switch(n.kinds[r]) {
+                case MAP: {
+                    if(n.functions[r] == Unary.NOT.ordinal()) write(target, ~value & ~none, none, lanes);
+                    else write(target, value, none, lanes);
+                    return;
+                }
+                case COMBINE_LEFT: {
+                    int right = n.operands[r];
+                    combine(r, value, none, values[right], nones[right], lanes);
+                    return;
+                }
+                case COMBINE_RIGHT: {
+                    int left = n.operands[r];
+                    combine(r, values[left], nones[left], value, none, lanes);
+                    return;
+                }
+                case ALL_TRUE: {
+                    long all = -1L, anyNone = 0L;
+                    for(int i = n.operands[r]; i < n.operandEnds[r]; i++) {
+                        int in = n.inputs[i];
+                        all &= values[in];
+                        anyNone |= nones[in];
+                    }
+                    write(target, all & ~anyNone, anyNone, lanes);
+                    return;
+                }
+                default: throw new AssertionError("Not a reaction to Wire<Boolean>s: " + n.kinds[r]);
+            }
+        }
+
+        //Same as Netlist::combine, in the given lanes.
+        private void combine(int r, long value1, long none1, long value2, long none2, long lanes) {
+            Netlist n = netlist;
+            int target = n.targets[r];
+            int function = n.functions[r];
+            if(n.presentWins[r]) {
+                if(function == Binary.FIRST.ordinal()) write(target, value1, none1, lanes);
+                else write(target, value2, none2, lanes);
+                return;
+            }
+            long none = none1 | none2;
+            long value;
+            switch(Binary.values()[function]) {
+                case AND: value = value1 & value2; break;
+                case OR: value = value1 | value2; break;
+                case XOR: value = value1 ^ value2; break;
+                case FIRST: value = value1; break;
+                case SECOND: value = value2; break;
+                default: throw new AssertionError("Unknown function: " + function);
+            }
+            write(target, value & ~none, none, lanes);
+        }
+
+        //Same as Netlist::write, in the given lanes: only appoints the reactions in the lanes that changed.
+        private void write(int w, long value, long none, long lanes) {
+            long newValues = (values[w] & ~lanes) | (value & lanes);
+            long newNones = (nones[w] & ~lanes) | (none & lanes);
+            long changedLanes = (newValues ^ values[w]) | (newNones ^ nones[w]);
+            if(changedLanes == 0L) return;
+
+            values[w] = newValues;
+            nones[w] = newNones;
+            Netlist n = netlist;
+            for(int i = n.firstReactions[w]; i < n.firstReactions[w + 1]; i++) {
+                int r = n.reactionsByWire[i];
+                ring[(int)((now + n.delays[r]) & n.mask)].add(r, newValues, newNones, changedLanes);
+            }
+            pending += n.firstReactions[w + 1] - n.firstReactions[w];
+        }
+    }
+
+    /**
+     * Like Appointments, with the lanes where the observed Wire changed.
+     */
+    private static final class LaneAppointments {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] reactions = new int[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private long[] nones = new long[INITIAL_CAPACITY];
+        private long[] lanes = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        void add(int reaction, long value, long none, long changedLanes) {
+            if(size == reactions.length) {
+                reactions = Arrays.copyOf(reactions, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+                nones = Arrays.copyOf(nones, 2 * size);
+                lanes = Arrays.copyOf(lanes, 2 * size);
+            }
+            reactions[size] = reaction;
+            values[size] = value;
+            nones[size] = none;
+            lanes[size] = changedLanes;
+            size++;
+        }
+    }
+
+    /**
+     * The reactions appointed at 1 Tick, in FIFO order, like a Tick.Queue.
+     */
+    private static final class Appointments {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] reactions;
+        private boolean[] nones;
+        private long[] values;
+        private int size;
+
+        Appointments() {
+            this.reactions = new int[INITIAL_CAPACITY];
+            this.nones = new boolean[INITIAL_CAPACITY];
+            this.values = new long[INITIAL_CAPACITY];
+            this.size = 0;
+        }
+
+        //size appointments, to be filled in (see Netlist::restore).
+        Appointments(int size) {
+            int capacity = Math.max(INITIAL_CAPACITY, size);
+            this.reactions = new int[capacity];
+            this.nones = new boolean[capacity];
+            this.values = new long[capacity];
+            this.size = size;
+        }
+
+        Appointments copy() {
+            Appointments copy = new Appointments(size);
+            System.arraycopy(reactions, 0, copy.reactions, 0, size);
+            System.arraycopy(nones, 0, copy.nones, 0, size);
+            System.arraycopy(values, 0, copy.values, 0, size);
+            return copy;
+        }
+
+        /**
+         * Removes the appointments of the reactions that are not active, keeping the others in FIFO order.
+         * @return the number of appointments removed
+         */
+        int retain(boolean[] active) {
+            int kept = 0;
+            for(int i = 0; i < size; i++) {
+                if(!active[reactions[i]]) continue;
+                reactions[kept] = reactions[i];
+                nones[kept] = nones[i];
+                values[kept] = values[i];
+                kept++;
+            }
+            int removed = size - kept;
+            size = kept;
+            return removed;
+        }
+
+        void add(int reaction, boolean none, long value) {
+            if(size == reactions.length) {
+                reactions = Arrays.copyOf(reactions, 2 * size);
+                nones = Arrays.copyOf(nones, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            reactions[size] = reaction;
+            nones[size] = none;
+            values[size] = value;
+            size++;
+        }
+    }
+
+
+
+
+    /**
+     * What observe() returns: closing it is the same as observeAll(), unless this Netlist observed something else since.
+     */
+    public final class Observation implements AutoCloseable {
+        //null if observe() suspended nothing.
+        private final Suspended observed;
+
+        private Observation(Suspended observed) {
+            this.observed = observed;
+        }
+
+        @Override
+        public void close() {
+            if(observed != null && suspended == observed) observeAll();
+        }
+    }
+
+    /**
+     * What observe() suspended: the Wires outside the cone of influence of the observed Wires,
+     *  and if they are REPLAYED, what it takes to catch up with them, which is a copy of the Netlist that simulates the whole circuit,
+     *  lagging behind since the last catch-up, and the Signals set since then.
+     * The suspended Wires are set to null until observeAll() (or restore()), so that reading them through Wire::getSignal
+     *  (which already checks for null) gets their Signal from the copy, after catching up if need be,
+     *  and setting them through Wire::setSignal sets them through the Netlist, since they are not up to date.
+     */
+    private final class Suspended {
+        //null iff the suspended Wires are UNREADABLE.
+        private final Netlist copy;
+        private final boolean[] isSuspended;
+        private final int[] wires;
+        //Whether the copy is up to date, which it is when observe() suspends the Wires, until the next tick or setSignal.
+        private boolean caughtUp = true;
+        //The Signals set since the last catch-up, at which Tick, in order.
+        private long[] setTicks = new long[16];
+        private int[] setIds = new int[16];
+        private boolean[] setNones = new boolean[16];
+        private long[] setValues = new long[16];
+        private int setCount = 0;
+
+        private Suspended(Netlist copy, boolean[] inCone) {
+            this.copy = copy;
+            this.isSuspended = new boolean[inCone.length];
+            int count = 0;
+            for(int w = 0; w < inCone.length; w++) {
+                isSuspended[w] = !inCone[w];
+                if(isSuspended[w]) count++;
+            }
+            this.wires = new int[count];
+            for(int w = 0, next = 0; w < inCone.length; w++) if(isSuspended[w]) wires[next++] = w;
+            for(int w : wires) Netlist.this.wires[w].suspend(Netlist.this);
+        }
+
+        /**
+         * @return true iff wire w is suspended, in which case only the copy is to be written
+         */
+        private boolean set(int w, boolean none, long value) {
+            if(copy == null) return isSuspended[w];
+            if(setCount == MAX_LOGGED_SETS) catchUp(now);
+            invalidate();
+            if(setCount == setIds.length) {
+                setTicks = Arrays.copyOf(setTicks, 2 * setCount);
+                setIds = Arrays.copyOf(setIds, 2 * setCount);
+                setNones = Arrays.copyOf(setNones, 2 * setCount);
+                setValues = Arrays.copyOf(setValues, 2 * setCount);
+            }
+            setTicks[setCount] = now;
+            setIds[setCount] = w;
+            setNones[setCount] = none;
+            setValues[setCount] = value;
+            setCount++;
+            return isSuspended[w];
+        }
+
+        private void catchUp(long now) {
+            for(int i = 0; i < setCount; i++) {
+                while(copy.now < setTicks[i]) copy.advance();
+                copy.write(setIds[i], setNones[i], setValues[i]);
+            }
+            setCount = 0;
+            while(copy.now < now) copy.advance();
+            //The copy never updates the original Wires: the suspended ones read it, and observeAll() assigns them.
+            for(int c = 0; c < copy.changedCount; c++) copy.isChanged[copy.changed[c]] = false;
+            copy.changedCount = 0;
+            caughtUp = true;
+        }
+
+        private void invalidate() {
+            caughtUp = false;
+        }
+    }
+
+    /**
+     * What a reaction of a Box was described as, before the Netlist flattens all of them into arrays.
+     */
+    private static final class Described {
+        private byte kind;
+        private byte function;
+        private boolean presentWins;
+        private int delay;
+        private int observed;
+        private int target;
+        private int operand;
+        private int[] inputs;
+        private double[] weights;
+        private double threshold;
+    }
+
+    /**
+     * What Box::compile describes its reactions to.
+     * Each method describes 1 reaction, with the same semantics as the "Staged Builder" method of Box of the same name.
+     */
+    public static final class Compiler {
+        private final List<Wire<?>> wires = new ArrayList<>();
+        private final Map<Wire<?>, Integer> ids = new IdentityHashMap<>();
+        private final List<Boolean> doubles = new ArrayList<>();
+        private final List<Described> described = new ArrayList<>();
+        private Box compiling;
+        //Reactions that fan out to several targets are described as 1 record per target (in order), but count as 1.
+        private int describedReactions;
+
+        private Compiler() {}
+
+        private Netlist netlist(long now) {
+            int reactionCount = described.size();
+            byte[] kinds = new byte[reactionCount], functions = new byte[reactionCount];
+            boolean[] presentWins = new boolean[reactionCount];
+            int[] delays = new int[reactionCount], observed = new int[reactionCount], targets = new int[reactionCount];
+            int[] operands = new int[reactionCount], operandEnds = new int[reactionCount];
+            double[] thresholds = new double[reactionCount];
+            List<Integer> allInputs = new ArrayList<>();
+            List<Double> allWeights = new ArrayList<>();
+            for(int r = 0; r < reactionCount; r++) {
+                Described d = described.get(r);
+                kinds[r] = d.kind;
+                functions[r] = d.function;
+                presentWins[r] = d.presentWins;
+                delays[r] = d.delay;
+                observed[r] = d.observed;
+                targets[r] = d.target;
+                thresholds[r] = d.threshold;
+                if(d.inputs == null) {
+                    operands[r] = d.operand;
+                } else {
+                    operands[r] = allInputs.size();
+                    for(int i = 0; i < d.inputs.length; i++) {
+                        allInputs.add(d.inputs[i]);
+                        allWeights.add(d.weights == null ? 0.0 : d.weights[i]);
+                    }
+                    operandEnds[r] = allInputs.size();
+                }
+            }
+            boolean[] isDouble = new boolean[wires.size()];
+            for(int w = 0; w < isDouble.length; w++) isDouble[w] = doubles.get(w);
+
+            return new Netlist(
+                wires.toArray(new Wire<?>[0]), ids, isDouble,
+                kinds, functions, presentWins, delays, observed, targets,
+                operands, operandEnds,
+                allInputs.stream().mapToInt(Integer::intValue).toArray(),
+                allWeights.stream().mapToDouble(Double::doubleValue).toArray(),
+                thresholds,
+                now
+            );
+        }
+
+        private void compile(Box box) {
+            describedReactions = 0;
+            compiling = box;
+            box.compile(this);
+            compiling = null;
+
+            if(describedReactions != box.reactions()) throw new IllegalStateException(String.format(
+                "%s registered %s reactions but described %s", box.getClass().getName(), box.reactions(), describedReactions
+            ));
+        }
+
+        public void signalValueTransformation(Wire<Boolean> observed, Wire<Boolean> target, Unary function) {
+            Described d = describe(MAP, observed, target);
+            d.function = (byte) function.ordinal();
+        }
+
+        public void signalValuesCombinator(
+            Wire<Boolean> observed,
+            Wire<Boolean> target,
+            Binary function,
+            Wire<Boolean> rightWire,
+            Signal.WhenCombining combiningPolicy
+        ) {
+            Described d = describe(COMBINE_LEFT, observed, target);
+            combinator(d, function, rightWire, combiningPolicy);
+        }
+
+        public void signalValuesCombinator(
+            Wire<Boolean> observed,
+            Wire<Boolean> target,
+            Wire<Boolean> leftWire,
+            Binary function,
+            Signal.WhenCombining combiningPolicy
+        ) {
+            Described d = describe(COMBINE_RIGHT, observed, target);
+            combinator(d, function, leftWire, combiningPolicy);
+        }
+
+        private void combinator(Described d, Binary function, Wire<Boolean> other, Signal.WhenCombining combiningPolicy) {
+            boolean presentWins = requireNonNull(combiningPolicy) == Signal.WhenCombining.PRESENT_WINS;
+            if(presentWins && function != Binary.FIRST && function != Binary.SECOND) throw new IllegalArgumentException(
+                "Only FIRST and SECOND support PRESENT_WINS, not: " + function
+            );
+            d.function = (byte) function.ordinal();
+            d.presentWins = presentWins;
+            d.operand = id(other, false);
+        }
+
+        /**
+         * A reduction to the AND of the current Signals of inputs (none if any of them is none).
+         */
+        public void allTrue(Wire<Boolean> observed, List<Wire<Boolean>> inputs, Wire<Boolean> target) {
+            Described d = describe(ALL_TRUE, observed, target);
+            d.inputs = ids(inputs, false);
+        }
+
+        /**
+         * A reduction to 1.0 if the sum of the current Signals of inputs weighted by weights is > threshold, else to 0.0
+         *  (none if any of them is none), like Neuron, fanned out to each of targets (see Box::collectIndexedToAll).
+         */
+        public void threshold(
+            Wire<Double> observed,
+            List<Wire<Double>> inputs,
+            List<Double> weights,
+            double threshold,
+            List<Wire<Double>> targets
+        ) {
+            if(inputs.isEmpty() || weights.size() < inputs.size()) throw new IllegalArgumentException(
+                "Expected at least 1 input, and a weight for each, got: " + inputs.size() + " and " + weights.size()
+            );
+            if(targets.isEmpty()) throw new IllegalArgumentException("Expected at least 1 target");
+            int[] inputIds = ids(inputs, true);
+            double[] inputWeights = weights.subList(0, inputs.size()).stream().mapToDouble(Double::doubleValue).toArray();
+            for(Wire<Double> target : targets) {
+                Described d = describe(THRESHOLD, observed, target, true);
+                d.inputs = inputIds;
+                d.weights = inputWeights;
+                d.threshold = threshold;
+            }
+            describedReactions -= targets.size() - 1;
+        }
+
+        private Described describe(byte kind, Wire<Boolean> observed, Wire<Boolean> target) {
+            return describe(kind, observed, target, false);
+        }
+
+        private Described describe(byte kind, Wire<?> observed, Wire<?> target, boolean isDouble) {
+            if(compiling == null) throw new IllegalStateException("Only Box::compile can describe reactions");
+
+            if(compiling.delay.duration() > MAX_DELAY) throw new UnsupportedOperationException(String.format(
+                "Can't compile %s: its Delay of %s Ticks is longer than %s", compiling.getClass(), compiling.delay.duration(), MAX_DELAY
+            ));
+
+            Described d = new Described();
+            d.kind = kind;
+            d.delay = compiling.delay.duration();
+            d.observed = id(observed, isDouble);
+            d.target = id(target, isDouble);
+            described.add(d);
+            describedReactions++;
+            return d;
+        }
+
+        private int[] ids(List<? extends Wire<?>> inputs, boolean isDouble) {
+            int[] ids = new int[inputs.size()];
+            for(int i = 0; i < ids.length; i++) ids[i] = id(inputs.get(i), isDouble);
+            return ids;
+        }
+
+        private int id(Wire<?> wire, boolean isDouble) {
+            Integer id = ids.get(requireNonNull(wire));
+            if(id != null) {
+                if(doubles.get(id) != isDouble) throw new IllegalArgumentException(
+                    "Wire described both as a Wire<Boolean> and a Wire<Double>: " + wire
+                );
+                return id;
+            }
+
+            ids.put(wire, wires.size());
+            wires.add(wire);
+            doubles.add(isDouble);
+            return wires.size() - 1;
+        }
+    }
+
+}
+//@formatter:on
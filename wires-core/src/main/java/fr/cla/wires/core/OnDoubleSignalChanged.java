@@ -0,0 +1,18 @@
+package fr.cla.wires.core;
+
+//@formatter:off
+/**
+ * The counterpart of OnSignalChanged for DoubleWire, which is passed the new value without boxing it into a Signal.
+ */
+//Don't make package-private as this is what Box::onSignalChanged takes for primitive wires
+@FunctionalInterface
+public interface OnDoubleSignalChanged {
+
+    /**
+     * @param isNone true iff the new Signal is none
+     * @param newValue The new value, meaningless if isNone
+     */
+    void accept(boolean isNone, double newValue);
+
+}
+//@formatter:on
@@ -0,0 +1,264 @@
+package fr.cla.wires.core;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * Runs the todos of a Tick.Queue on a ForkJoinPool, with exactly the same results as Tick.Queue::runAll.
+ *
+ * The todos are partitioned into groups that can't observe each other:
+ *  -todos that write the same Wire are in the same group,
+ *  -todos that read a Wire written by another todo of the Tick are in the same group as that todo.
+ * Each group runs its todos in FIFO order, so that the reads which depend on a write of the same Tick still see it
+ *  (or don't see it, if the read came first), exactly as if the whole Tick.Queue had run sequentially.
+ *
+ * The appointments made while running a todo (by the listeners of the Wire it writes) are not made right away,
+ *  since the TimingWheel is not thread-safe and since their FIFO order matters for the next Ticks:
+ *  they are deferred, then replayed on the calling thread in the order of the todos that made them.
+ *
+ * Falls back to Tick.Queue::runAll when parallelism can't pay off (too few todos, a single group),
+ *  or can't be proven safe (some todo was registered without declaring which Wires it reads and writes).
+ */
+final class ParallelTick {
+
+    private final ForkJoinPool pool;
+    private final int minTodos;
+    //The appointments deferred by the todo currently running on each worker thread, null when none is.
+    private final ThreadLocal<List<Deferred>> deferring = new ThreadLocal<>();
+
+    /**
+     * @param minTodos Tick.Queues with less todos than that are run sequentially
+     */
+    ParallelTick(ForkJoinPool pool, int minTodos) {
+        this.pool = requireNonNull(pool);
+        if(minTodos < 2) throw new IllegalArgumentException("minTodos must be >= 2, was: " + minTodos);
+        this.minTodos = minTodos;
+    }
+
+    void run(Tick.Queue todo, Clock.Agenda agenda) {
+        SimulationMetrics metrics = agenda.metrics();
+        int n = todo.size();
+        if(n < minTodos) {
+            todo.runAll(metrics);
+            return;
+        }
+
+        List<int[]> groups = groups(todo);
+        if(groups.size() < 2) {
+            todo.runAll(metrics);
+            return;
+        }
+
+        List<Deferred>[] deferred = newDeferred(n);
+        Throwable[] failures = new Throwable[n];
+        pool.invoke(new RunGroups(todo, metrics, groups, 0, groups.size(), groupsPerTask(groups.size()), deferred, failures));
+        replay(deferred, failures, agenda);
+    }
+
+    /**
+     * @return true iff the appointment was deferred, which it is iff a todo of a parallel Tick is running on this thread
+     */
+    boolean defer(Reaction reaction, Object payload, long bits) {
+        List<Deferred> deferred = deferring.get();
+        if(deferred == null) return false;
+
+        deferred.add(new Deferred(reaction, payload, bits));
+        return true;
+    }
+
+    /**
+     * @return the indexes of the todos of each group, in FIFO order,
+     *  or a single group if some todo was registered without declaring which Wires it reads and writes.
+     */
+    private static List<int[]> groups(Tick.Queue todo) {
+        int n = todo.size();
+        UnionFind groups = new UnionFind(n);
+
+        Map<Wire<?>, Integer> writers = new IdentityHashMap<>();
+        for(int i = 0; i < n; i++) {
+            Reaction reaction = todo.reaction(i);
+            if(!reaction.isKnown()) return List.of(everyTodo(n));
+
+            for(Wire<?> target : reaction.targets()) {
+                Integer previousWriter = writers.putIfAbsent(target, i);
+                if(previousWriter != null) groups.union(i, previousWriter);
+            }
+        }
+        for(int i = 0; i < n; i++) {
+            for(Wire<?> read : todo.reaction(i).reads()) {
+                Integer writer = writers.get(read);
+                if(writer != null) groups.union(i, writer);
+            }
+        }
+
+        return groups.toLists();
+    }
+
+    private static int[] everyTodo(int n) {
+        int[] every = new int[n];
+        for(int i = 0; i < n; i++) every[i] = i;
+        return every;
+    }
+
+    private int groupsPerTask(int groups) {
+        //A few tasks per worker thread, so that work stealing can even out groups of unequal sizes.
+        return Math.max(1, groups / (4 * pool.getParallelism()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Deferred>[] newDeferred(int n) {
+        return (List<Deferred>[]) new List<?>[n];
+    }
+
+    /**
+     * Replays the deferred appointments in the order of the todos that made them.
+     * If todos failed, replays only up to the first one (included) and rethrows its failure,
+     *  like Tick.Queue::runAll would have.
+     * The Wires written by the todos that came after it in other groups can't be unwritten though.
+     */
+    private static void replay(List<Deferred>[] deferred, Throwable[] failures, Clock.Agenda agenda) {
+        for(int i = 0; i < deferred.length; i++) {
+            if(deferred[i] != null) deferred[i].forEach(d -> d.replay(agenda));
+            if(failures[i] != null) rethrow(failures[i]);
+        }
+    }
+
+    private static void rethrow(Throwable failure) {
+        if(failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if(failure instanceof Error) throw (Error) failure;
+        throw new AssertionError("OnSignalChanged callbacks can't throw checked exceptions", failure);
+    }
+
+
+
+
+    private final class RunGroups extends RecursiveAction {
+        private final Tick.Queue todo;
+        private final SimulationMetrics metrics;
+        private final List<int[]> groups;
+        private final int from, to, groupsPerTask;
+        private final List<Deferred>[] deferred;
+        private final Throwable[] failures;
+
+        private RunGroups(
+            Tick.Queue todo,
+            SimulationMetrics metrics,
+            List<int[]> groups,
+            int from, int to, int groupsPerTask,
+            List<Deferred>[] deferred,
+            Throwable[] failures
+        ) {
+            this.todo = todo;
+            this.metrics = metrics;
+            this.groups = groups;
+            this.from = from;
+            this.to = to;
+            this.groupsPerTask = groupsPerTask;
+            this.deferred = deferred;
+            this.failures = failures;
+        }
+
+        @Override protected void compute() {
+            if(to - from <= groupsPerTask) {
+                for(int g = from; g < to; g++) runGroup(groups.get(g));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                new RunGroups(todo, metrics, groups, from, middle, groupsPerTask, deferred, failures),
+                new RunGroups(todo, metrics, groups, middle, to, groupsPerTask, deferred, failures)
+            );
+        }
+
+        private void runGroup(int[] group) {
+            for(int i : group) {
+                List<Deferred> deferredByI = new ArrayList<>();
+                deferred[i] = deferredByI;
+                deferring.set(deferredByI);
+                try {
+                    todo.run(i, metrics);
+                } catch(RuntimeException | Error failure) {
+                    //Later todos of the group may depend on this one, and wouldn't have run sequentially anyway.
+                    failures[i] = failure;
+                    return;
+                } finally {
+                    deferring.remove();
+                }
+            }
+        }
+    }
+
+
+
+
+    /**
+     * An appointment made while running a todo of a parallel Tick.
+     */
+    private static final class Deferred {
+        private final Reaction reaction;
+        private final Object payload;
+        private final long bits;
+
+        private Deferred(Reaction reaction, Object payload, long bits) {
+            this.reaction = requireNonNull(reaction);
+            this.payload = payload;
+            this.bits = bits;
+        }
+
+        private void replay(Clock.Agenda agenda) {
+            agenda.schedule(reaction, payload, bits);
+        }
+    }
+
+
+
+
+    private static final class UnionFind {
+        private final int[] parents;
+
+        private UnionFind(int n) {
+            this.parents = everyTodo(n);
+        }
+
+        private int find(int i) {
+            while(parents[i] != i) {
+                parents[i] = parents[parents[i]];
+                i = parents[i];
+            }
+            return i;
+        }
+
+        private void union(int i, int j) {
+            int ri = find(i), rj = find(j);
+            //Keep the smallest index as root, so that groups come out in the order of their first todo.
+            if(ri < rj) parents[rj] = ri;
+            else if(rj < ri) parents[ri] = rj;
+        }
+
+        /**
+         * @return the indexes in each set, in increasing order
+         */
+        private List<int[]> toLists() {
+            Map<Integer, List<Integer>> sets = new LinkedHashMap<>();
+            for(int i = 0; i < parents.length; i++) {
+                sets.computeIfAbsent(find(i), root -> new ArrayList<>()).add(i);
+            }
+
+            List<int[]> lists = new ArrayList<>(sets.size());
+            for(List<Integer> set : sets.values()) {
+                lists.add(set.stream().mapToInt(Integer::intValue).toArray());
+            }
+            return lists;
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,270 @@
+package fr.cla.wires.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * A circuit partitioned into sub-circuits which each have their own Clock, and run on their own thread.
+ *
+ * Each sub-circuit is built as usual on the Clock returned by partition(), and must not share any Wire with the others:
+ *  a Wire of a partition can only be propagated to a Wire of another one through connect(),
+ *  which creates a timestamped channel between them, with a Delay, like a Box would.
+ *
+ * The partitions are synchronized conservatively (Chandy-Misra-Bryant style):
+ *  a partition only runs a Tick once every partition that sends it Signals has advanced far enough
+ *  that it can no longer send anything due at or before that Tick.
+ * The Delay of a channel is its lookahead: a sender at Tick t can't send anything due before t + delay + 1.
+ * Since Delays are > 0, this can't deadlock.
+ *
+ * The Signals received through channels are set on their target Wires at the beginning of the Tick they are due at,
+ *  before the todos appointed at that Tick (and in the order in which the channels were connected).
+ * So the results are exactly those of the same circuit on a single Clock, with each channel replaced by a Box
+ *  that forwards its input after the same Delay, as long as that Box's callbacks would also run first in their Ticks
+ *  (eg. when the channel Delays exceed the Delays of the Boxes that read their target Wires).
+ */
+public final class PartitionedSimulation {
+
+    private final List<Partition> partitions = new ArrayList<>();
+    //Held to wait for, and to notify, the progress of the partitions.
+    private final Object progress = new Object();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private boolean started = false;
+
+    private PartitionedSimulation() {}
+
+    public static PartitionedSimulation create() {
+        return new PartitionedSimulation();
+    }
+
+    /**
+     * Don't tick the returned Clock directly: only runUntil() may advance it, in sync with the other partitions.
+     * @return the Clock of a new partition
+     * @throws IllegalStateException if the simulation has already run, since the new partition would lag behind
+     */
+    public Clock partition() {
+        if(started) throw new IllegalStateException("Can't add partitions once the simulation has run");
+
+        Partition partition = new Partition(Clock.createTime());
+        partitions.add(partition);
+        return partition.clock;
+    }
+
+    /**
+     * From now on, when the Signal of {@code from} changes, the new Signal is set on {@code to} after {@code delay}.
+     * @throws IllegalArgumentException if the Clocks are not distinct partitions of this simulation
+     */
+    public <T> void connect(Wire<T> from, Clock fromClock, Wire<T> to, Clock toClock, Delay delay) {
+        Partition sender = partitionOf(requireNonNull(fromClock)), receiver = partitionOf(requireNonNull(toClock));
+        if(sender == receiver) throw new IllegalArgumentException(
+            "Can't connect a partition to itself, use a Box instead"
+        );
+
+        Channel<T> channel = new Channel<>(sender, requireNonNull(to), requireNonNull(delay));
+        receiver.incoming.add(channel);
+        requireNonNull(from).onSignalChanged(channel::send);
+    }
+
+    /**
+     * Runs every partition until its Clock is at {@code end}.
+     * @throws IllegalArgumentException if the partitions are already past end
+     * @throws RuntimeException or Error the failure of the first partition that failed, if any:
+     *  the partitions are then left at different Ticks, and the simulation should not be run anymore.
+     */
+    public void runUntil(Tick end) {
+        long e = requireNonNull(end).longValue();
+        started = true;
+        if(partitions.isEmpty()) return;
+        long now = partitions.get(0).now;
+        if(e < now) throw new IllegalArgumentException("Can't run back to: " + end + ", now: " + now);
+
+        List<Thread> threads = new ArrayList<>(partitions.size());
+        for(int i = 0; i < partitions.size(); i++) {
+            Partition partition = partitions.get(i);
+            Thread thread = new Thread(() -> partition.runUntil(e), "partition-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        joinAll(threads);
+
+        Throwable failed = failure.get();
+        if(failed instanceof RuntimeException) throw (RuntimeException) failed;
+        if(failed instanceof Error) throw (Error) failed;
+        if(failed != null) throw new AssertionError("Partitions can't throw checked exceptions", failed);
+    }
+
+    private void joinAll(List<Thread> threads) {
+        for(Thread thread : threads) {
+            try {
+                thread.join();
+            } catch(InterruptedException interrupted) {
+                threads.forEach(Thread::interrupt);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running the partitions", interrupted);
+            }
+        }
+    }
+
+    private Partition partitionOf(Clock clock) {
+        for(Partition partition : partitions) {
+            if(partition.clock == clock) return partition;
+        }
+        throw new IllegalArgumentException("Not a partition of this simulation: " + clock);
+    }
+
+    private void notifyProgress() {
+        if(waiting.get() == 0) return;
+        synchronized(progress) {
+            progress.notifyAll();
+        }
+    }
+
+
+
+
+    private final class Partition {
+        private final Clock clock;
+        private final Clock.Agenda agenda;
+        private final List<Channel<?>> incoming = new ArrayList<>();
+        //The last Tick that this partition has fully run, published for the partitions it sends Signals to.
+        private volatile long now;
+
+        private Partition(Clock clock) {
+            this.clock = clock;
+            this.agenda = clock.agenda();
+            this.now = agenda.nowNumber();
+        }
+
+        private void runUntil(long end) {
+            try {
+                while(now < end) {
+                    long safe = Math.min(end, awaitSafeTick());
+                    while(now < safe) {
+                        long next = now + 1;
+                        agenda.tick(() -> incoming.forEach(channel -> channel.deliver(next)));
+                        now = next;
+                        notifyProgress();
+                    }
+                }
+            } catch(Aborted aborted) {
+                //Another partition failed, which is the failure to report.
+            } catch(RuntimeException | Error failed) {
+                failure.compareAndSet(null, failed);
+                synchronized(progress) {
+                    progress.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * @return the last Tick which this partition can run without missing Signals from other partitions, > now
+         * @throws Aborted if another partition failed in the meantime
+         */
+        private long awaitSafeTick() {
+            long safe = safeTick();
+            if(safe > now) return safe;
+
+            synchronized(progress) {
+                waiting.incrementAndGet();
+                try {
+                    while((safe = safeTick()) <= now) {
+                        if(failure.get() != null) throw new Aborted();
+                        progress.wait();
+                    }
+                } catch(InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the other partitions", interrupted);
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+            return safe;
+        }
+
+        private long safeTick() {
+            long safe = Long.MAX_VALUE;
+            for(Channel<?> channel : incoming) safe = Math.min(safe, channel.horizon());
+            return safe;
+        }
+    }
+
+
+
+
+    private static final class Channel<T> {
+        private final Partition sender;
+        private final Wire<T> to;
+        private final int delay;
+        //In the order they were sent, so by increasing Tick.
+        private final Queue<Message<T>> messages = new ConcurrentLinkedQueue<>();
+
+        private Channel(Partition sender, Wire<T> to, Delay delay) {
+            this.sender = sender;
+            this.to = to;
+            this.delay = delay.duration();
+        }
+
+        /**
+         * Called on the thread of the sender (or on the thread calling runUntil(), between 2 runs).
+         */
+        private void send(Signal<T> newSignal) {
+            long due;
+            try {
+                due = Math.addExact(sender.agenda.nowNumber(), (long)delay);
+            } catch(ArithmeticException overflow) {
+                throw new Tick.OverflowException(sender.agenda.now(), Delay.of(delay), overflow);
+            }
+            messages.add(new Message<>(due, newSignal));
+        }
+
+        /**
+         * @return the last Tick for which every Signal has been sent:
+         *  anything sent later will be sent at a Tick > sender.now, so due after sender.now + delay.
+         */
+        private long horizon() {
+            long now = sender.now;
+            //Saturate rather than overflow: nothing can be due after Long.MAX_VALUE anyway.
+            return now > Long.MAX_VALUE - delay ? Long.MAX_VALUE : now + delay;
+        }
+
+        /**
+         * Called on the thread of the receiver, at the beginning of Tick {@code tick}.
+         */
+        private void deliver(long tick) {
+            for(Message<T> message; (message = messages.peek()) != null && message.due <= tick; messages.poll()) {
+                if(message.due < tick) throw new AssertionError(
+                    "Missed a Signal due at: " + message.due + ", now: " + tick
+                );
+                to.setSignal(message.signal);
+            }
+        }
+    }
+
+    private static final class Message<T> {
+        private final long due;
+        private final Signal<T> signal;
+
+        private Message(long due, Signal<T> signal) {
+            this.due = due;
+            this.signal = signal;
+        }
+    }
+
+    /**
+     * Thrown in a partition which waits for another partition that failed.
+     */
+    private static final class Aborted extends RuntimeException {
+        private Aborted() {
+            super(null, null, false, false);
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,166 @@
+package fr.cla.wires.core;
+
+import java.util.Collection;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * What is to be done, after some Delay, when the Signal of an observed Wire (or primitive wire) changes.
+ * Tick.Queue appoints Reactions rather than bare callbacks,
+ *  so that the Agenda knows which Wires each of its todos reads and writes,
+ *  and so that the new values of primitive wires can be appointed without boxing them into Signals.
+ */
+abstract class Reaction {
+
+    /**
+     * The payload passed to the Reactions to a primitive wire, when its new value is none.
+     */
+    static final Object NONE = new Object();
+
+    private final Delay delay;
+    //The class of the Box that registered the callback (see SimulationMetrics), or null if it wasn't a Box.
+    private final Class<? extends Box> box;
+    //Both null when unknown, as for callbacks registered through the raw Box::onSignalChanged:
+    // the callback could then read or write any Wire.
+    private final List<Wire<?>> targets;
+    private final List<Wire<?>> reads;
+
+    private Reaction(Delay delay, Class<? extends Box> box, List<Wire<?>> targets, List<Wire<?>> reads) {
+        this.delay = requireNonNull(delay);
+        this.box = box;
+        this.targets = targets;
+        this.reads = reads;
+    }
+
+    /**
+     * @param targets The only Wires that the callback writes (usually 1, several when it fans out the same result)
+     * @param reads The Wires that the callback reads, besides the new Signal of the observed Wire which it is passed.
+     *  Not copied if already unmodifiable (see List::copyOf), so the reactions of a Box to each of its N inputs share them.
+     */
+    static <V> Reaction known(
+        OnSignalChanged<V> callback,
+        Delay delay,
+        Class<? extends Box> box,
+        Collection<? extends Wire<?>> targets,
+        Collection<? extends Wire<?>> reads
+    ) {
+        return new ToSignal<>(callback, delay, box, List.copyOf(targets), List.copyOf(reads));
+    }
+
+    static <V> Reaction unknown(OnSignalChanged<V> callback, Delay delay, Class<? extends Box> box) {
+        return new ToSignal<>(callback, delay, box, null, null);
+    }
+
+    //Primitive wires have no "Staged Builder" (yet), so the Reactions to them are always unknown.
+    static Reaction toBoolean(OnBooleanSignalChanged callback, Delay delay, Class<? extends Box> box) {
+        return new ToBoolean(callback, delay, box);
+    }
+
+    static Reaction toLong(OnLongSignalChanged callback, Delay delay, Class<? extends Box> box) {
+        return new ToLong(callback, delay, box);
+    }
+
+    static Reaction toDouble(OnDoubleSignalChanged callback, Delay delay, Class<? extends Box> box) {
+        return new ToDouble(callback, delay, box);
+    }
+
+    /**
+     * @param payload For a Reaction to a Wire, the new Signal.
+     *  For a Reaction to a primitive wire, NONE iff the new value is none, else null.
+     * @param bits For a Reaction to a primitive wire, the new value encoded as a long (ignored if none).
+     */
+    abstract void run(Object payload, long bits);
+
+    Delay delay() {
+        return delay;
+    }
+
+    /**
+     * @return the class of the Box that registered the callback, or null if it wasn't a Box
+     */
+    Class<? extends Box> box() {
+        return box;
+    }
+
+    boolean isKnown() {
+        return targets != null;
+    }
+
+    /**
+     * @return the only Wires that the callback writes, or null if unknown
+     */
+    List<Wire<?>> targets() {
+        return targets;
+    }
+
+    /**
+     * @return the Wires that the callback reads, or null if unknown
+     */
+    List<Wire<?>> reads() {
+        return reads;
+    }
+
+
+
+
+    private static final class ToSignal<V> extends Reaction {
+        private final OnSignalChanged<V> callback;
+
+        private ToSignal(
+            OnSignalChanged<V> callback, Delay delay, Class<? extends Box> box, List<Wire<?>> targets, List<Wire<?>> reads
+        ) {
+            super(delay, box, targets, reads);
+            this.callback = requireNonNull(callback);
+        }
+
+        @Override void run(Object payload, long bits) {
+            //Safe since the OnSignalChanged<V> returned by Agenda::afterDelay only ever appoints Signal<V>s
+            @SuppressWarnings("unchecked")
+            Signal<V> newSignal = (Signal<V>) requireNonNull(payload);
+            callback.accept(newSignal);
+        }
+    }
+
+    private static final class ToBoolean extends Reaction {
+        private final OnBooleanSignalChanged callback;
+
+        private ToBoolean(OnBooleanSignalChanged callback, Delay delay, Class<? extends Box> box) {
+            super(delay, box, null, null);
+            this.callback = requireNonNull(callback);
+        }
+
+        @Override void run(Object payload, long bits) {
+            callback.accept(payload == NONE, bits != 0L);
+        }
+    }
+
+    private static final class ToLong extends Reaction {
+        private final OnLongSignalChanged callback;
+
+        private ToLong(OnLongSignalChanged callback, Delay delay, Class<? extends Box> box) {
+            super(delay, box, null, null);
+            this.callback = requireNonNull(callback);
+        }
+
+        @Override void run(Object payload, long bits) {
+            callback.accept(payload == NONE, bits);
+        }
+    }
+
+    private static final class ToDouble extends Reaction {
+        private final OnDoubleSignalChanged callback;
+
+        private ToDouble(OnDoubleSignalChanged callback, Delay delay, Class<? extends Box> box) {
+            super(delay, box, null, null);
+            this.callback = requireNonNull(callback);
+        }
+
+        @Override void run(Object payload, long bits) {
+            callback.accept(payload == NONE, Double.longBitsToDouble(bits));
+        }
+    }
+
+}
+//@formatter:on
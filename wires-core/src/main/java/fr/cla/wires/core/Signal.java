@@ -6,9 +6,12 @@ import fr.cla.wires.support.oo.AbstractValueObject;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.LongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 
@@ -21,19 +24,84 @@ import static java.util.Objects.requireNonNull;
  * A signal each transiting on a Wire.
  */
 public final class Signal<V> extends AbstractValueObject<Signal<V>> {
+
+    //Canonical instances, so that the most frequent Signals (those of boolean circuits first) are not allocated again and again.
+    private static final Signal<?> NONE = new Signal<>(null, true, true);
+    private static final Signal<Boolean> TRUE = new Signal<>(true, false, true), FALSE = new Signal<>(false, false, true);
+    //Bounded caches for small integral values, like Integer::valueOf but for Long and integral Double.
+    private static final long MIN_CACHED = -128L, MAX_CACHED = 1023L;
+    private static final Signal<?>[] LONGS = cache(Long::valueOf), DOUBLES = cache(Double::valueOf);
+    private static final long NEGATIVE_ZERO = Double.doubleToRawLongBits(-0.0);
+
     private final V value;
+    //There is only 1 canonical instance for each value, so 2 canonical Signals are equal iff they are the same instance.
+    private final boolean canonical;
 
-    private Signal(V v, boolean acceptNull) {
+    private Signal(V v, boolean acceptNull, boolean canonical) {
         super(signalOfV());
         this.value = acceptNull ? v : requireNonNull(v);
+        this.canonical = canonical;
     }
 
+    /**
+     * @return the canonical Signal for v, if it is a Boolean, or a Long or an integral Double within a small range,
+     *  else a new Signal.
+     */
     public static <V> Signal<V> of(V v) {
-        return new Signal<>(v, false);
+        Signal<?> canonical = canonical(requireNonNull(v));
+        if(canonical == null) return new Signal<>(v, false, false);
+
+        //Safe since canonical holds v itself (or a value equal to it, of the same class).
+        @SuppressWarnings("unchecked")
+        Signal<V> signalOfV = (Signal<V>) canonical;
+        return signalOfV;
     }
 
+    /**
+     * @return the canonical none Signal
+     */
     public static <V> Signal<V> none() {
-        return new Signal<>(null, true);
+        //Safe since none holds no value, of any type.
+        @SuppressWarnings("unchecked")
+        Signal<V> none = (Signal<V>) NONE;
+        return none;
+    }
+
+    private static Signal<?> canonical(Object v) {
+        if(v instanceof Boolean) return (Boolean) v ? TRUE : FALSE;
+        if(v instanceof Long) {
+            long l = (Long) v;
+            return isCached(l) ? LONGS[(int)(l - MIN_CACHED)] : null;
+        }
+        if(v instanceof Double) {
+            double d = (Double) v;
+            long l = (long) d;
+            //-0.0 is not Double::equals to 0.0, so it is not cached (it would then need its own canonical instance).
+            boolean isCachedIntegral = l == d && isCached(l) && Double.doubleToRawLongBits(d) != NEGATIVE_ZERO;
+            return isCachedIntegral ? DOUBLES[(int)(l - MIN_CACHED)] : null;
+        }
+        return null;
+    }
+
+    private static boolean isCached(long l) {
+        return MIN_CACHED <= l && l <= MAX_CACHED;
+    }
+
+    private static Signal<?>[] cache(LongFunction<?> box) {
+        Signal<?>[] cache = new Signal<?>[(int)(MAX_CACHED - MIN_CACHED + 1)];
+        for(long l = MIN_CACHED; l <= MAX_CACHED; l++) {
+            cache[(int)(l - MIN_CACHED)] = new Signal<>(box.apply(l), false, true);
+        }
+        return cache;
+    }
+
+    boolean isNone() {
+        return value == null;
+    }
+
+    //Same as value().orElse(null), without allocating an Optional.
+    V valueOrNull() {
+        return value;
     }
 
     @Override
@@ -43,6 +111,18 @@ public final class Signal<V> extends AbstractValueObject<Signal<V>> {
         return singletonList(value);
     }
 
+    //Wire::setSignal compares the old and new Signals on every propagation, so spare allocating the equalityCriteria() Lists.
+    @Override
+    protected boolean sameEqualityCriteria(Signal<V> that) {
+        if(this.canonical && that.canonical) return this == that;
+        return Objects.equals(this.value, that.value);
+    }
+
+    @Override
+    protected int equalityCriteriaHashCode() {
+        return 31 + (31 + Objects.hashCode(value));
+    }
+
     public Optional<V> value() {
         return Optional.ofNullable(value);
     }
@@ -68,7 +148,10 @@ public final class Signal<V> extends AbstractValueObject<Signal<V>> {
 
     //----------Functional methods to transform and/or aggregate Signals//----------VVVVVVVVVV
     <W> Signal<W> map(Function<V, W> mapper) {
-        return value().map(mapper).map(Signal::of).orElse(Signal.none());
+        //Same as value().map(mapper).map(Signal::of).orElse(Signal.none()), without allocating Optionals.
+        if(isNone()) return Signal.none();
+        W w = mapper.apply(value);
+        return w == null ? Signal.none() : Signal.of(w);
     }
 
     static <V> Signal<V> combine(
@@ -110,21 +193,27 @@ public final class Signal<V> extends AbstractValueObject<Signal<V>> {
         ;
     }
 
+    /**
+     * Same as mapAndReduce, but weight is passed the index of each input along with its value.
+     * Indexes the inputs with a plain loop rather than by zipping a Stream of indices, as it is called on each evaluation.
+     */
     static <O, T> Signal<T> mapAndReduceIndexed(
-        Collection<Signal<O>> inputs,
+        List<Signal<O>> inputs,
         Function<Indexed<O>, T> weight,
         BinaryOperator<T> accumulator
     ) {
         //Not supporting the other option at least yet
         if (WhenCombining.ABSENT_WINS.returnNoneIfAnySignalIsFloating(inputs)) return Signal.none();
-
-        return indexPresentSignals(inputs)
-            .map(weight)
-            .reduce(accumulator)
-            .map(Signal::of)
-            .orElseGet(Signal::none)
-        ;
-
+        if (inputs.isEmpty()) return Signal.none();
+
+        //Same as Stream::reduce(accumulator): the first weight is the initial value of the reduction
+        T reduced = null;
+        int index = 0;
+        for(Signal<O> input : inputs) {
+            T weighted = weight.apply(Indexed.index(index, input.value));
+            reduced = index++ == 0 ? weighted : accumulator.apply(reduced, weighted);
+        }
+        return Signal.of(reduced);
     }
 
     /**
@@ -155,32 +244,37 @@ public final class Signal<V> extends AbstractValueObject<Signal<V>> {
         );
     }
 
+    /**
+     * Same as collect, but collector is passed the index of each input along with its value.
+     * Indexes the inputs with a plain loop rather than by zipping a Stream of indices, as it is called on each evaluation.
+     */
     static <O, T> Signal<T> collectIndexed(
-        Collection<Signal<O>> inputs,
+        List<Signal<O>> inputs,
         Collector<Indexed<O>, ?, T> collector
     ) {
         //Not supporting the other option at least yet
         if (WhenCombining.ABSENT_WINS.returnNoneIfAnySignalIsFloating(inputs)) return Signal.none();
 
-        return Signal.of(
-            indexPresentSignals(inputs).collect(collector)
-        );
+        return Signal.of(collectIndexedValues(inputs, collector));
     }
 
-    private static <O> Stream<Indexed<O>> indexPresentSignals(Collection<Signal<O>> inputs) {
-        return Streams.index(
-            inputs.stream()
-            .map(Signal::value)
-            .flatMap(Optional::stream)
-        );
+    //Same as a sequential Stream::collect.
+    private static <O, A, T> T collectIndexedValues(List<Signal<O>> inputs, Collector<Indexed<O>, A, T> collector) {
+        A container = collector.supplier().get();
+        BiConsumer<A, Indexed<O>> accumulator = collector.accumulator();
+        Streams.forEachIndexed(inputs, (index, input) -> accumulator.accept(container, Indexed.index(index, input.value)));
+        return collector.finisher().apply(container);
     }
 
     private static <T> boolean anySignalIsFloating(Collection<Signal<T>> inputs) {
-        return inputs.stream().anyMatch(Signal.none()::equals);
+        for(Signal<T> input : inputs) {
+            if(input.isNone()) return true;
+        }
+        return false;
     }
 
     private static <V1, V2> boolean anySignalIsFloating(Signal<V1> v1, Signal<V2> v2) {
-        return v1.equals(Signal.none()) || v2.equals(Signal.none());
+        return v1.isNone() || v2.isNone();
     }
 
     //----------Functional methods to transform and/or aggregate Signals//----------^^^^^^^^^^
@@ -206,13 +300,12 @@ public final class Signal<V> extends AbstractValueObject<Signal<V>> {
 
             @Override
             public <V> Signal<V> combine(Signal<V> s1, Signal<V> s2, BinaryOperator<V> combiner) {
-                Optional<V> v1 = s1.value();
-                Optional<V> v2 = s2.value();
+                //Read the values directly rather than through Signal::value, to not allocate Optionals.
+                V v1 = s1.value;
+                V v2 = s2.value;
 
-                if (v1.isPresent() || v2.isPresent()) {
-                    V v = combiner.apply(
-                        v1.orElse(null), v2.orElse(null)
-                    );
+                if (v1 != null || v2 != null) {
+                    V v = combiner.apply(v1, v2);
                     return v==null ? Signal.none() : Signal.of(v);
                 } else {
                     return Signal.none();
@@ -235,15 +328,16 @@ public final class Signal<V> extends AbstractValueObject<Signal<V>> {
 
             @Override
             public <V> Signal<V> combine(Signal<V> s1, Signal<V> s2, BinaryOperator<V> combiner) {
-                Optional<V> v1 = s1.value();
-                Optional<V> v2 = s2.value();
-
-                if (v1.isPresent() && v2.isPresent()) {
-                    return Signal.of(combiner.apply(v1.get(), v2.get()));
-                } else if (v1.isPresent()) {
-                    return Signal.of(v1.get());
-                } else if (v2.isPresent()) {
-                    return Signal.of(v2.get());
+                //Read the values directly rather than through Signal::value, to not allocate Optionals.
+                V v1 = s1.value;
+                V v2 = s2.value;
+
+                if (v1 != null && v2 != null) {
+                    return Signal.of(combiner.apply(v1, v2));
+                } else if (v1 != null) {
+                    return s1;
+                } else if (v2 != null) {
+                    return s2;
                 } else {
                     return Signal.none();
                 }
@@ -0,0 +1,262 @@
+package fr.cla.wires.core;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * What the Agenda of a Clock does, counted while metrics are enabled on it (see Clock::enableMetrics):
+ *  -the appointments made, and the todos run, in total and for each Tick,
+ *  -the depth of the Tick.Queue of each Tick (the number of todos due at it),
+ *  -the number of distinct future Ticks that have appointments,
+ *  -the number of callbacks run and the time spent in them, by class of the Box that registered them,
+ *  -the calls to Wire::setSignal, and those that were suppressed since they didn't change the Signal:
+ *   by the callbacks run at its Ticks (on whatever thread runs them), and separately between its Ticks.
+ * A Wire doesn't know its Clock, so its setSignal counts against the Clock whose callback is running on the current thread,
+ *  or between Ticks, against the Clock that last enabled metrics or ticked with metrics on the current thread
+ *  (the inputs of a circuit are set from outside any of its Ticks, usually by the thread that ticks it).
+ * Read either as a Snapshot, or streamed to listeners as TickMetrics after each Tick.
+ *
+ * Except for the Box metrics, the counters are only ever written by the thread that ticks the Clock:
+ *  a Snapshot taken from another thread is a best-effort view, not necessarily a consistent one.
+ */
+public final class SimulationMetrics {
+
+    private final Clock.Agenda agenda;
+    private final Map<Class<? extends Box>, BoxCounters> boxes = new ConcurrentHashMap<>();
+    private final List<Consumer<? super TickMetrics>> listeners = new CopyOnWriteArrayList<>();
+    private final SetSignals duringTicks = new SetSignals(), betweenTicks = new SetSignals();
+    private long ticks, scheduled, executed, maxQueueDepth;
+    //Since the last TickMetrics.
+    private long scheduledSinceLastTick, executedSinceLastTick;
+
+    SimulationMetrics(Clock.Agenda agenda) {
+        this.agenda = requireNonNull(agenda);
+    }
+
+    /**
+     * @param listener Is passed the TickMetrics of each Tick, on the thread that ticks the Clock, right after the Tick
+     */
+    public void onTick(Consumer<? super TickMetrics> listener) {
+        listeners.add(requireNonNull(listener));
+    }
+
+    public Snapshot snapshot() {
+        Map<Class<? extends Box>, BoxMetrics> byBox = new LinkedHashMap<>();
+        boxes.forEach((box, counters) -> byBox.put(box, counters.snapshot()));
+        return new Snapshot(
+            ticks, scheduled, executed, maxQueueDepth, agenda.pendingTicks(),
+            duringTicks.sets.sum(), duringTicks.suppressed.sum(), betweenTicks.sets.sum(), betweenTicks.suppressed.sum(),
+            byBox
+        );
+    }
+
+    void scheduled() {
+        scheduled++;
+        scheduledSinceLastTick++;
+    }
+
+    void running(Tick.Queue todo) {
+        int depth = todo.size();
+        executed += depth;
+        executedSinceLastTick += depth;
+        if(depth > maxQueueDepth) maxQueueDepth = depth;
+    }
+
+    /**
+     * @param box The class of the Box that registered the callback, or null if it wasn't registered by a Box
+     */
+    void ran(Class<? extends Box> box, long nanos) {
+        boxes.computeIfAbsent(box == null ? Box.class : box, b -> new BoxCounters()).add(nanos);
+    }
+
+    void ticked(long tick, long pendingTicks) {
+        countBetweenTicks();
+        ticks++;
+        TickMetrics metrics = new TickMetrics(tick, scheduledSinceLastTick, executedSinceLastTick, pendingTicks);
+        scheduledSinceLastTick = 0L;
+        executedSinceLastTick = 0L;
+        listeners.forEach(listener -> listener.accept(metrics));
+    }
+
+
+
+
+    //The counters that the calls to Wire::setSignal on each thread go to, if any.
+    //Only the counters are bound to a thread, so a Clock dropped without disabling its metrics is still collected.
+    private static final ThreadLocal<SetSignals> SET_SIGNALS = new ThreadLocal<>();
+
+    /**
+     * Called by each Wire::setSignal: a ThreadLocal lookup if no metrics count on this thread.
+     */
+    static void setSignal(boolean suppressed) {
+        SetSignals counting = SET_SIGNALS.get();
+        if(counting != null) counting.add(suppressed);
+    }
+
+    /**
+     * Counts the calls to Wire::setSignal on this thread as made at a Tick, until countSetSignals(previous).
+     * @return what they counted as before
+     */
+    SetSignals countDuringTick() {
+        SetSignals previous = SET_SIGNALS.get();
+        SET_SIGNALS.set(duringTicks);
+        return previous;
+    }
+
+    static void countSetSignals(SetSignals previous) {
+        if(previous == null) SET_SIGNALS.remove();
+        else SET_SIGNALS.set(previous);
+    }
+
+    /**
+     * Counts the calls to Wire::setSignal on this thread as made between the Ticks of this Clock.
+     */
+    void countBetweenTicks() {
+        SET_SIGNALS.set(betweenTicks);
+    }
+
+    /**
+     * Stops counting the calls to Wire::setSignal on this thread, if they counted against this Clock.
+     */
+    void stopCounting() {
+        if(SET_SIGNALS.get() == betweenTicks) SET_SIGNALS.remove();
+    }
+
+
+
+
+    /**
+     * What happened at 1 Tick.
+     */
+    public static final class TickMetrics {
+        private final long tick, scheduled, executed, pendingTicks;
+
+        private TickMetrics(long tick, long scheduled, long executed, long pendingTicks) {
+            this.tick = tick;
+            this.scheduled = scheduled;
+            this.executed = executed;
+            this.pendingTicks = pendingTicks;
+        }
+
+        public Tick tick() { return Tick.number(tick); }
+        /** @return the appointments made since the previous Tick (by its todos, or by Wire::setSignal between Ticks) */
+        public long scheduled() { return scheduled; }
+        /** @return the todos run at this Tick, which is also the depth of its Tick.Queue */
+        public long executed() { return executed; }
+        /** @return the number of distinct future Ticks that have appointments, after this Tick */
+        public long pendingTicks() { return pendingTicks; }
+
+        @Override public String toString() {
+            return String.format(
+                "{tick: %s, scheduled: %s, executed: %s, pendingTicks: %s}",
+                tick, scheduled, executed, pendingTicks
+            );
+        }
+    }
+
+    /**
+     * The totals since metrics were enabled.
+     */
+    public static final class Snapshot {
+        private final long ticks, scheduled, executed, maxQueueDepth, pendingTicks;
+        private final long setSignals, suppressedSetSignals, setSignalsBetweenTicks, suppressedSetSignalsBetweenTicks;
+        private final Map<Class<? extends Box>, BoxMetrics> boxes;
+
+        private Snapshot(
+            long ticks, long scheduled, long executed, long maxQueueDepth, long pendingTicks,
+            long setSignals, long suppressedSetSignals, long setSignalsBetweenTicks, long suppressedSetSignalsBetweenTicks,
+            Map<Class<? extends Box>, BoxMetrics> boxes
+        ) {
+            this.ticks = ticks;
+            this.scheduled = scheduled;
+            this.executed = executed;
+            this.maxQueueDepth = maxQueueDepth;
+            this.pendingTicks = pendingTicks;
+            this.setSignals = setSignals;
+            this.suppressedSetSignals = suppressedSetSignals;
+            this.setSignalsBetweenTicks = setSignalsBetweenTicks;
+            this.suppressedSetSignalsBetweenTicks = suppressedSetSignalsBetweenTicks;
+            this.boxes = Map.copyOf(boxes);
+        }
+
+        public long ticks() { return ticks; }
+        public long scheduled() { return scheduled; }
+        public long executed() { return executed; }
+        /** @return the depth of the deepest Tick.Queue run */
+        public long maxQueueDepth() { return maxQueueDepth; }
+        /** @return the number of distinct future Ticks that have appointments */
+        public long pendingTicks() { return pendingTicks; }
+        /** @return the calls to Wire::setSignal by the callbacks run at the Ticks of this Clock, including the suppressed ones */
+        public long setSignals() { return setSignals; }
+        /** @return the calls to Wire::setSignal that didn't notify the listeners since the Signal didn't change, same scope */
+        public long suppressedSetSignals() { return suppressedSetSignals; }
+        /** @return the calls to Wire::setSignal between the Ticks of this Clock, on the thread that ticks it, including the suppressed ones */
+        public long setSignalsBetweenTicks() { return setSignalsBetweenTicks; }
+        /** @return the calls to Wire::setSignal that didn't notify the listeners since the Signal didn't change, same scope */
+        public long suppressedSetSignalsBetweenTicks() { return suppressedSetSignalsBetweenTicks; }
+        /** @return the metrics of the callbacks, by class of the Box that registered them (Box.class if none did) */
+        public Map<Class<? extends Box>, BoxMetrics> boxes() { return boxes; }
+
+        @Override public String toString() {
+            return String.format(
+                "{ticks: %s, scheduled: %s, executed: %s, maxQueueDepth: %s, pendingTicks: %s, " +
+                "setSignals: %s, suppressedSetSignals: %s, " +
+                "setSignalsBetweenTicks: %s, suppressedSetSignalsBetweenTicks: %s, boxes: %s}",
+                ticks, scheduled, executed, maxQueueDepth, pendingTicks,
+                setSignals, suppressedSetSignals, setSignalsBetweenTicks, suppressedSetSignalsBetweenTicks, boxes
+            );
+        }
+    }
+
+    public static final class BoxMetrics {
+        private final long evaluations, nanos;
+
+        private BoxMetrics(long evaluations, long nanos) {
+            this.evaluations = evaluations;
+            this.nanos = nanos;
+        }
+
+        /** @return the callbacks run */
+        public long evaluations() { return evaluations; }
+        /** @return the time spent in them, including that spent by the listeners of the Wires they write */
+        public long nanos() { return nanos; }
+
+        @Override public String toString() {
+            return String.format("{evaluations: %s, nanos: %s}", evaluations, nanos);
+        }
+    }
+
+    //LongAdders since a parallel Clock runs the callbacks of a Tick on several threads.
+    static final class SetSignals {
+        private final LongAdder sets = new LongAdder(), suppressed = new LongAdder();
+
+        private void add(boolean suppressed) {
+            this.sets.increment();
+            if(suppressed) this.suppressed.increment();
+        }
+    }
+
+    //LongAdders since a parallel Clock runs the callbacks of a Tick on several threads.
+    private static final class BoxCounters {
+        private final LongAdder evaluations = new LongAdder(), nanos = new LongAdder();
+
+        private void add(long nanos) {
+            this.evaluations.increment();
+            this.nanos.add(nanos);
+        }
+
+        private BoxMetrics snapshot() {
+            return new BoxMetrics(evaluations.sum(), nanos.sum());
+        }
+    }
+
+}
+//@formatter:on
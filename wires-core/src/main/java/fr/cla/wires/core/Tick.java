@@ -2,7 +2,7 @@ package fr.cla.wires.core;
 
 import fr.cla.wires.support.oo.AbstractValueObject;
 
-import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.List;
 
 import static java.util.Collections.singletonList;
@@ -30,6 +30,16 @@ public final class Tick extends AbstractValueObject<Tick> {
         return singletonList(tick);
     }
 
+    @Override
+    protected boolean sameEqualityCriteria(Tick that) {
+        return this.tick == that.tick;
+    }
+
+    @Override
+    protected int equalityCriteriaHashCode() {
+        return 31 + (31 + Long.hashCode(tick));
+    }
+
     /**
      * @throws Tick.OverflowException if the addition overflows long //TODO test
      */
@@ -50,6 +60,13 @@ public final class Tick extends AbstractValueObject<Tick> {
         return new Tick(number);
     }
 
+    /**
+     * @return the >=0 number of this Tick
+     */
+    long longValue() {
+        return tick;
+    }
+
     @Override
     public String toString() {
         return String.valueOf(tick);
@@ -98,30 +115,87 @@ public final class Tick extends AbstractValueObject<Tick> {
      * Remembers the callbacks to call at a given Tick.
      */
     static final class Queue {
-        private final Tick tick;
-        //Run callbacks in FIFO order
-        private final java.util.Queue<Runnable> todos;
-
-        Queue(Tick tick) {
-            this.tick = requireNonNull(tick);
-            this.todos = new ArrayDeque<>();
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final long tick;
+        //Run callbacks in FIFO order: the i-th todo is reactions[i] reacting to payloads[i] and bits[i].
+        //Parallel arrays rather than a collection of todo objects, so that appointing a todo doesn't allocate
+        // (except when growing), and so that the new values of primitive wires don't need boxing.
+        private Reaction[] reactions = new Reaction[INITIAL_CAPACITY];
+        private Object[] payloads = new Object[INITIAL_CAPACITY];
+        private long[] bits = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        Queue(long tick) {
+            this.tick = tick;
         }
 
-        <V> void thenCall(OnSignalChanged<V> callback, Signal<V> signal) {
-            var cb = requireNonNull(callback);
-            var s = requireNonNull(signal);
+        /**
+         * @param payload See Reaction::run
+         * @param bits See Reaction::run
+         */
+        void thenCall(Reaction reaction, Object payload, long bits) {
+            if(size == reactions.length) grow();
+            this.reactions[size] = requireNonNull(reaction);
+            this.payloads[size] = payload;
+            this.bits[size] = bits;
+            size++;
+        }
 
-            todos.add(() -> cb.accept(s));
+        private void grow() {
+            int capacity = 2 * reactions.length;
+            reactions = Arrays.copyOf(reactions, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            bits = Arrays.copyOf(bits, capacity);
         }
 
         void runAll() {
-            todos.forEach(Runnable::run);
+            for(int i = 0; i < size; i++) run(i);
+        }
+
+        /**
+         * Like runAll(), but also times each todo if metrics is not null (and samples them for FlightRecording).
+         */
+        void runAll(SimulationMetrics metrics) {
+            for(int i = 0; i < size; i++) run(i, metrics);
+        }
+
+        int size() {
+            return size;
+        }
+
+        Reaction reaction(int i) {
+            return reactions[i];
+        }
+
+        void run(int i) {
+            reactions[i].run(payloads[i], bits[i]);
+        }
+
+        /**
+         * Like run(i), but also times the todo (and counts its calls to Wire::setSignal) if metrics is not null,
+         *  and records it if FlightRecording samples it.
+         */
+        void run(int i, SimulationMetrics metrics) {
+            Object event = FlightRecording.beginEvaluation();
+            if(metrics == null) run(i);
+            else {
+                SimulationMetrics.SetSignals previous = metrics.countDuringTick();
+                long start = System.nanoTime();
+                try {
+                    run(i);
+                } finally {
+                    metrics.ran(reactions[i].box(), System.nanoTime() - start);
+                    SimulationMetrics.countSetSignals(previous);
+                }
+            }
+            FlightRecording.commitEvaluation(event, reactions[i]);
         }
 
         @Override public String toString() {
             return String.format(
                 "{tick: %s, todos:%s}",
-                tick, todos
+                tick, size
             );
         }
     }
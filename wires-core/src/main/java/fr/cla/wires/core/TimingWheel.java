@@ -0,0 +1,148 @@
+package fr.cla.wires.core;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+//@formatter:off
+/**
+ * The appointments of an Agenda, keyed on raw long ticks instead of Tick instances.
+ *
+ * Appointments less than {@code slots} ticks ahead (which is all of them for the small Delays circuits actually use)
+ *  live in a ring of buckets indexed by {@code tick & mask}, so scheduling them neither allocates a Tick nor hashes one.
+ * Appointments further ahead go to an overflow tier,
+ *  and cascade down into the ring as soon as they come within its horizon.
+ * Since they were necessarily scheduled before anything that can land directly in the ring for the same tick,
+ *  this keeps the FIFO order of each Tick.Queue.
+ */
+final class TimingWheel {
+
+    static final int DEFAULT_SLOTS = 64;
+
+    private final Tick.Queue[] ring;
+    private final int mask;
+    private final NavigableMap<Long, Tick.Queue> overflow = new TreeMap<>();
+    private int occupiedSlots = 0;
+    private long now = 0L;
+
+    TimingWheel() {
+        this(DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param slots The number of ring buckets, must be a power of 2.
+     *              Appointments less than that many ticks ahead never go to the overflow tier.
+     */
+    TimingWheel(int slots) {
+        if(slots <= 0 || Integer.bitCount(slots) != 1) throw new IllegalArgumentException(
+            "slots must be a power of 2, was: " + slots
+        );
+        this.ring = new Tick.Queue[slots];
+        this.mask = slots - 1;
+    }
+
+    long now() {
+        return now;
+    }
+
+    /**
+     * @return the Tick.Queue of todos to run at {@code tick}, created if it didn't exist yet
+     */
+    Tick.Queue queueAt(long tick) {
+        if(tick <= now) throw new AssertionError(
+            "Can only make appointments in the future, now: " + now + ", tick: " + tick
+        );
+        if(isWithinRing(tick)) {
+            int slot = slot(tick);
+            Tick.Queue queue = ring[slot];
+            if(queue == null) {
+                ring[slot] = queue = new Tick.Queue(tick);
+                occupiedSlots++;
+            }
+            return queue;
+        }
+        return overflow.computeIfAbsent(tick, Tick.Queue::new);
+    }
+
+    /**
+     * @return true iff there is no appointment at all
+     */
+    boolean isEmpty() {
+        return occupiedSlots == 0 && overflow.isEmpty();
+    }
+
+    /**
+     * @return the number of distinct ticks which have appointments
+     */
+    int pendingTicks() {
+        return occupiedSlots + overflow.size();
+    }
+
+    /**
+     * @return the earliest tick which has appointments
+     * @throws AssertionError if there is no appointment at all
+     */
+    long nextTick() {
+        if(isEmpty()) throw new AssertionError("No appointment, now: " + now);
+        if(occupiedSlots == 0) return overflow.firstKey();
+
+        for(long tick = now + 1; ; tick++) {
+            if(ring[slot(tick)] != null) return tick;
+        }
+    }
+
+    /**
+     * Moves now 1 tick forward.
+     * @return the Tick.Queue due at the new now, which is no longer part of the appointments, or null if there was none.
+     * @throws ArithmeticException if now would overflow long
+     */
+    Tick.Queue advance() {
+        return advanceTo(Math.addExact(now, 1L));
+    }
+
+    /**
+     * Moves now forward to {@code tick}, which must not skip any appointment
+     *  (so it must be at most nextTick(), if there is any appointment).
+     * @return the Tick.Queue due at the new now, which is no longer part of the appointments, or null if there was none.
+     */
+    Tick.Queue advanceTo(long tick) {
+        if(tick <= now) throw new AssertionError(
+            "Can only move forward, now: " + now + ", tick: " + tick
+        );
+        //Moving 1 tick forward can't skip anything, so spare scanning the ring for the next appointment in that case.
+        if(tick > now + 1 && !isEmpty() && tick > nextTick()) throw new AssertionError(
+            "Would skip the appointments at: " + nextTick() + ", tick: " + tick
+        );
+        now = tick;
+        cascade();
+
+        int slot = slot(now);
+        Tick.Queue due = ring[slot];
+        ring[slot] = null;
+        if(due != null) occupiedSlots--;
+        return due;
+    }
+
+    /**
+     * Moves the overflow appointments that are now within the horizon of the ring into it.
+     * Their slots are free, since they are the slots of the ticks which were just left behind.
+     * (this includes the appointment due now, if it was still in the overflow tier)
+     */
+    private void cascade() {
+        while(!overflow.isEmpty() && isWithinRing(overflow.firstKey())) {
+            Map.Entry<Long, Tick.Queue> nowWithinRing = overflow.pollFirstEntry();
+            ring[slot(nowWithinRing.getKey())] = nowWithinRing.getValue();
+            occupiedSlots++;
+        }
+    }
+
+    private boolean isWithinRing(long tick) {
+        return tick - now < ring.length;
+    }
+
+    private int slot(long tick) {
+        return (int) (tick & mask);
+    }
+
+}
+//@formatter:on
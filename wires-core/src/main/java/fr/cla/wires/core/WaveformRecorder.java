@@ -0,0 +1,346 @@
+package fr.cla.wires.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.LongSupplier;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * Records the changes of the Signals of chosen Wires, with their Tick, to a Value Change Dump (VCD) file,
+ *  which waveform viewers (eg. GTKWave) display.
+ * Only changes are recorded (that is what listeners are notified of), so a long run costs what happens in it, not its length.
+ *
+ * The listeners encode each change into a pooled ByteBuffer on the simulation thread, without allocating
+ *  (except for Wires of Doubles, which are printed by Double::toString).
+ * Full buffers are written to the FileChannel by a background thread, then given back to the pool.
+ * If the writer falls behind by the whole pool, the simulation waits for it rather than buffering without bounds.
+ *
+ * On a parallel Clock, the Wires of a Tick may change on several threads at once: their changes are encoded one at a time,
+ *  under a lock (in no particular order within their Tick, which VCD allows).
+ * The Wires of a circuit compiled into a Netlist don't notify their listeners (see Netlist::compile):
+ *  to record them, time the recorder with the Netlist rather than with the Clock (see Builder::time(Netlist)),
+ *  which then records their Signals after each Tick (or setSignal) at which they changed.
+ *  A recorder timed with the Clock of a compiled circuit would only write the header.
+ *
+ * This is to be closed from the thread that runs the Clock (or the Netlist), between Ticks:
+ *  closing it unregisters its listeners, so that the Wires, which may outlive it, don't keep it (and its buffers) reachable.
+ */
+public final class WaveformRecorder implements AutoCloseable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024, BUFFERS = 4;
+    //More than the longest record: "#" + 19 digits + "\n" + "b" + 64 bits + " " + id + "\n", or a real.
+    private static final int MAX_RECORD = 128;
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    //The current Tick of the Clock or Netlist that times this.
+    private final LongSupplier now;
+    //null iff timed by a Clock.
+    private final Netlist netlist;
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> free, full;
+    private final Thread writer;
+    //Unregister the listeners of the traced Wires.
+    private final List<Runnable> unlisteners = new ArrayList<>();
+    //Guards buffer, lastTick and closed, since the listeners may run on the workers of a parallel Clock.
+    private final Object lock = new Object();
+    private volatile IOException failure;
+    private ByteBuffer buffer;
+    private long lastTick = -1L;
+    private boolean closed = false;
+
+    private WaveformRecorder(Path file, List<Trace<?>> traces, LongSupplier now, Netlist netlist, int bufferSize) throws IOException {
+        this.now = now;
+        this.netlist = netlist;
+        this.channel = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING);
+        this.free = new ArrayBlockingQueue<>(BUFFERS);
+        this.full = new ArrayBlockingQueue<>(BUFFERS + 1);
+        for(int i = 0; i < BUFFERS; i++) free.add(ByteBuffer.allocateDirect(bufferSize));
+        this.buffer = free.remove();
+        this.writer = new Thread(this::write, "wires-waveform-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        header(traces);
+        traces.forEach(trace -> unlisteners.add(listen(trace)));
+    }
+
+    private <T> Runnable listen(Trace<T> trace) {
+        OnSignalChanged<T> listener = newSignal -> changed(trace, newSignal);
+        if(netlist == null) {
+            trace.wire.onSignalChanged(listener);
+            return () -> trace.wire.removeSignalChanged(listener);
+        }
+        netlist.probe(trace.wire, listener);
+        return () -> netlist.removeProbe(trace.wire, listener);
+    }
+
+    public static Builder to(Path file) {
+        return new Builder(file);
+    }
+
+    private void header(List<Trace<?>> traces) {
+        ascii("$timescale 1 ns $end\n$scope module wires $end\n");
+        for(Trace<?> trace : traces) {
+            ascii("$var ");
+            ascii(trace.type.var);
+            ascii(" ");
+            ascii(trace.id);
+            ascii(" ");
+            ascii(trace.name);
+            ascii(" $end\n");
+        }
+        ascii("$upscope $end\n$enddefinitions $end\n");
+        time(now.getAsLong());
+        ascii("$dumpvars\n");
+        for(Trace<?> trace : traces) value(trace, trace.wire.getSignal());
+        ascii("$end\n");
+    }
+
+    private void changed(Trace<?> trace, Signal<?> newSignal) {
+        synchronized(lock) {
+            if(closed) return;
+            if(buffer.remaining() < MAX_RECORD) flush();
+            long tick = now.getAsLong();
+            if(tick != lastTick) time(tick);
+            value(trace, newSignal);
+        }
+    }
+
+    private void time(long tick) {
+        lastTick = tick;
+        put('#');
+        digits(tick);
+        put('\n');
+    }
+
+    private void value(Trace<?> trace, Signal<?> signal) {
+        Object value = signal.valueOrNull();
+        switch(trace.type) {
+            case BIT: {
+                put(value == null ? 'x' : (Boolean) value ? '1' : '0');
+                break;
+            }
+            case INTEGER: {
+                put('b');
+                if(value == null) put('x');
+                else bits((Long) value);
+                put(' ');
+                break;
+            }
+            case REAL: {
+                //VCD has no x for reals: NaN is what viewers show as undefined.
+                put('r');
+                ascii(value == null ? "NaN" : value.toString());
+                put(' ');
+                break;
+            }
+            default: throw new AssertionError("Unknown type: " + trace.type);
+        }
+        ascii(trace.id);
+        put('\n');
+    }
+
+    private void digits(long n) {
+        if(n >= 10L) digits(n / 10L);
+        put((char)('0' + n % 10L));
+    }
+
+    private void bits(long n) {
+        //VCD vectors are printed without leading zeros.
+        int highest = n == 0L ? 0 : 63 - Long.numberOfLeadingZeros(n);
+        for(int i = highest; i >= 0; i--) put((n >>> i & 1L) == 0L ? '0' : '1');
+    }
+
+    private void ascii(String s) {
+        for(int i = 0; i < s.length(); i++) put(s.charAt(i));
+    }
+
+    private void put(char c) {
+        if(!buffer.hasRemaining()) flush();
+        buffer.put((byte) c);
+    }
+
+    //Hands the current buffer to the writer, and takes a free one (waiting for the writer if there is none).
+    private void flush() {
+        checkFailure();
+        buffer.flip();
+        full.add(buffer);
+        try {
+            buffer = free.take();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the waveform writer", e);
+        }
+    }
+
+    private void write() {
+        try {
+            for(ByteBuffer b = full.take(); b != END; b = full.take()) {
+                try {
+                    while(b.hasRemaining()) channel.write(b);
+                } catch(IOException e) {
+                    if(failure == null) failure = e;
+                }
+                b.clear();
+                free.add(b);
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() {
+        IOException f = failure;
+        if(f != null) throw new UncheckedIOException("Couldn't write the waveform", f);
+    }
+
+    /**
+     * Stops recording, writes what is left, and closes the file.
+     * @throws UncheckedIOException if the file couldn't be written
+     */
+    @Override
+    public void close() {
+        synchronized(lock) {
+            if(closed) return;
+            closed = true;
+        }
+        unlisteners.forEach(Runnable::run);
+        unlisteners.clear();
+        try {
+            buffer.flip();
+            full.add(buffer);
+            full.add(END);
+            writer.join();
+            channel.close();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the waveform writer", e);
+        } catch(IOException e) {
+            throw new UncheckedIOException("Couldn't close the waveform", e);
+        }
+        checkFailure();
+    }
+
+
+
+
+    private enum Type {
+        BIT("wire 1"), INTEGER("integer 64"), REAL("real 64");
+
+        private final String var;
+
+        Type(String var) {
+            this.var = var;
+        }
+    }
+
+    private static final class Trace<T> {
+        private final String name;
+        private final String id;
+        private final Wire<T> wire;
+        private final Type type;
+
+        private Trace(String name, String id, Wire<T> wire, Type type) {
+            this.name = name;
+            this.id = id;
+            this.wire = wire;
+            this.type = type;
+        }
+    }
+
+    public static final class Builder {
+        private final Path file;
+        private final List<Trace<?>> traces = new ArrayList<>();
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        private Builder(Path file) {
+            this.file = requireNonNull(file);
+        }
+
+        public Builder bit(String name, Wire<Boolean> wire) {
+            return trace(name, wire, Type.BIT);
+        }
+
+        public Builder integer(String name, Wire<Long> wire) {
+            return trace(name, wire, Type.INTEGER);
+        }
+
+        public Builder real(String name, Wire<Double> wire) {
+            return trace(name, wire, Type.REAL);
+        }
+
+        /**
+         * @param bytes The size of each of the pooled buffers, must be at least 256
+         */
+        public Builder bufferSize(int bytes) {
+            if(bytes < 2 * MAX_RECORD) throw new IllegalArgumentException(
+                "bufferSize must be >= " + 2 * MAX_RECORD + ", was: " + bytes
+            );
+            this.bufferSize = bytes;
+            return this;
+        }
+
+        /**
+         * Starts recording: writes the VCD header, with the current Signals of the Wires at the current Tick.
+         * @throws UncheckedIOException if the file can't be opened
+         */
+        public WaveformRecorder time(Clock clock) {
+            Clock.Agenda agenda = clock.agenda();
+            return open(agenda::nowNumber, null);
+        }
+
+        /**
+         * Same as time(Clock), for a circuit compiled into netlist: records the Signals that it updates the Wires with.
+         * @throws UncheckedIOException if the file can't be opened
+         * @throws IllegalArgumentException if any Wire is not part of the circuit compiled into netlist
+         * @throws IllegalStateException if netlist suspends any Wire (see Netlist::observe)
+         */
+        public WaveformRecorder time(Netlist netlist) {
+            //Before opening the file, so that nothing is left open if they can't be probed.
+            for(Trace<?> trace : traces) netlist.checkProbeable(trace.wire);
+            return open(netlist::nowNumber, netlist);
+        }
+
+        private WaveformRecorder open(LongSupplier now, Netlist netlist) {
+            try {
+                return new WaveformRecorder(file, traces, now, netlist, bufferSize);
+            } catch(IOException e) {
+                throw new UncheckedIOException("Couldn't open the waveform: " + file, e);
+            }
+        }
+
+        private <T> Builder trace(String name, Wire<T> wire, Type type) {
+            if(name.isEmpty() || !StandardCharsets.US_ASCII.newEncoder().canEncode(name) || name.chars().anyMatch(Character::isWhitespace)) {
+                throw new IllegalArgumentException("VCD names must be non-empty ASCII without whitespace, was: " + name);
+            }
+            traces.add(new Trace<>(name, id(traces.size()), requireNonNull(wire), type));
+            return this;
+        }
+
+        //VCD identifiers are made of the printable ASCII characters from '!' to '~'.
+        private static String id(int index) {
+            StringBuilder id = new StringBuilder();
+            int i = index;
+            do {
+                id.append((char)('!' + i % 94));
+                i = i / 94 - 1;
+            } while(i >= 0);
+            return id.toString();
+        }
+    }
+
+}
+//@formatter:on
@@ -3,6 +3,7 @@ package fr.cla.wires.core;
 import fr.cla.wires.support.functional.Indexed;
 import fr.cla.wires.support.oo.Accumulable;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -23,6 +24,8 @@ import static java.util.stream.Collectors.*;
 public final class Wire<T> {
 
     private Signal<T> signal = Signal.none();
+    //The Netlist that suspends this Wire (see Netlist::observe), iff signal is null.
+    private Netlist suspendedBy;
 
     //In the publish-subscribe pattern, the order in which listeners are notified should not matter.
     //-->change from Set to something else _iff_ we should not exactly use the publish-subscribe pattern (maybe re-read SICP).
@@ -34,14 +37,32 @@ public final class Wire<T> {
     //      -continue to inherit equals/hashCode from Object,
     //      -become a MutableValue (requires refactoring MutableValue)
     //      -become a DDD Entity with a specific ID
-    private final Set<OnSignalChanged<T>> listeners = new HashSet<>();
+    //
+    //Still, notify them in a deterministic order (that of registration): each listener makes an appointment,
+    // and the FIFO order of the appointments of a Tick decides what the callbacks that read other Wires see.
+    // With a HashSet, 2 identical circuits could then diverge, eg. a sequential and a parallel one (see Clock::createParallelTime).
+    //
+    //An array rather than a LinkedHashSet, like in BooleanWire: most Wires have 1 or 2 listeners,
+    // which a LinkedHashSet stores in a HashMap (a table of 16 slots plus 1 entry per listener),
+    // and notifying is then an indexed loop that doesn't allocate an Iterator.
+    //Unlike in BooleanWire, grown by doubling rather than copied on write,
+    // since the Wires of a large reduction have 1 listener per target (eg. each input of a Layer, 1 per Neuron).
+    private OnSignalChanged<T>[] listeners = noListeners();
+    private int listenerCount = 0;
+    //Their unicity is checked by a linear scan up to SCANNED_LISTENERS, then by this Set of the same listeners,
+    // so that registering the L listeners of a large fan-out stays O(L) rather than O(L^2).
+    private Set<OnSignalChanged<T>> registered;
+
+    static final int SCANNED_LISTENERS = 8;
 
     /**
      * @return the current non-null Signal
      */
     public Signal<T> getSignal() {
-        if(signal == null) throw new AssertionError();
-        return signal;
+        Signal<T> s = signal;
+        //Only null while a Netlist suspends this Wire (see Netlist::observe), which then knows its Signal.
+        if(s == null) s = suspendedBy.caughtUp(this);
+        return s;
     }
 
     /**
@@ -49,14 +70,91 @@ public final class Wire<T> {
      * @throws NullPointerException if signal is null
      */
     public void setSignal(Signal<T> signal) {
-        if(signal.equals(this.signal)) return;
+        if(this.signal == null) {
+            //Suspended by a Netlist (see Netlist::observe), which simulates what the listeners would do.
+            suspendedBy.setSignal(this, requireNonNull(signal));
+            return;
+        }
+        if(signal.equals(this.signal)) {
+            SimulationMetrics.setSignal(true);
+            return;
+        }
+        SimulationMetrics.setSignal(false);
 
         this.signal = signal;
-        listeners.forEach(callback -> callback.accept(signal));
+        //Listeners registered by the callbacks themselves (if any) are only notified of the next changes.
+        OnSignalChanged<T>[] listeners = this.listeners;
+        int count = listenerCount;
+        Object fanOut = FlightRecording.beginFanOut(count);
+        for(int i = 0; i < count; i++) listeners[i].accept(signal);
+        FlightRecording.commitFanOut(fanOut, count);
+    }
+
+    /**
+     * Like setSignal, but without notifying the listeners:
+     *  for a Netlist, which simulates what they would do itself.
+     */
+    void assign(Signal<T> signal) {
+        this.signal = requireNonNull(signal);
+        this.suspendedBy = null;
+    }
+
+    /**
+     * For a Netlist that suspends this Wire: until it assigns it again, getSignal and setSignal go through it.
+     */
+    void suspend(Netlist owner) {
+        this.suspendedBy = requireNonNull(owner);
+        this.signal = null;
     }
 
     void onSignalChanged(OnSignalChanged<T> callback) {
-        listeners.add(requireNonNull(callback));
+        var cb = requireNonNull(callback);
+        if(registered != null) {
+            if(!registered.add(cb)) return;
+        } else {
+            for(int i = 0; i < listenerCount; i++) {
+                if(listeners[i].equals(cb)) return;
+            }
+            if(listenerCount == SCANNED_LISTENERS) {
+                registered = new HashSet<>(Arrays.asList(listeners).subList(0, listenerCount));
+                registered.add(cb);
+            }
+        }
+
+        if(listenerCount == listeners.length) listeners = Arrays.copyOf(listeners, Math.max(1, 2 * listenerCount));
+        listeners[listenerCount++] = cb;
+    }
+
+    /**
+     * Stops notifying callback, for listeners that don't live as long as the circuit (eg. a WaveformRecorder).
+     * Does nothing if callback is not registered.
+     */
+    void removeSignalChanged(OnSignalChanged<T> callback) {
+        var cb = requireNonNull(callback);
+        if(registered != null && !registered.remove(cb)) return;
+        for(int i = 0; i < listenerCount; i++) {
+            if(!listeners[i].equals(cb)) continue;
+            //Copied rather than shifted in place, since a notification in progress may still be looping over listeners.
+            OnSignalChanged<T>[] removed = Arrays.copyOf(listeners, listeners.length);
+            System.arraycopy(listeners, i + 1, removed, i, listenerCount - i - 1);
+            removed[--listenerCount] = null;
+            listeners = removed;
+            if(registered != null && listenerCount <= SCANNED_LISTENERS) registered = null;
+            return;
+        }
+    }
+
+    int listenerCount() {
+        return listenerCount;
+    }
+
+    //Shared by all the Wires that have no listeners: the first registration replaces it by an array of 1.
+    private static final OnSignalChanged<?>[] NO_LISTENERS = {};
+
+    //Safe since NO_LISTENERS is empty, so nothing is ever read from or written to it.
+    @SuppressWarnings("unchecked")
+    private static <T> OnSignalChanged<T>[] noListeners() {
+        return (OnSignalChanged<T>[]) NO_LISTENERS;
     }
 
     public static <T> Wire<T> make() {
@@ -84,7 +84,12 @@ extends Box {
         ;
     }
 
-    private Collector<O, ?, T> collector() {
+    /**
+     * Override with a primitive collector (eg. DoubleAccumulable::collector or LongAccumulable::collector),
+     *  to not box the weight of each input, which must give exactly the same results.
+     * @return by default, a collector of weight(), accumulator() and finisher()
+     */
+    protected Collector<O, ?, T> collector() {
         return Accumulable.collector(
             weight(), accumulator(), finisher()
         );
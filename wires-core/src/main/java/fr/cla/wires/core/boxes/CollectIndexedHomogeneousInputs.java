@@ -3,6 +3,7 @@ package fr.cla.wires.core.boxes;
 import fr.cla.wires.core.Box;
 import fr.cla.wires.core.Clock;
 import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.Signal;
 import fr.cla.wires.core.Wire;
 import fr.cla.wires.support.functional.Indexed;
 import fr.cla.wires.support.oo.Accumulable;
@@ -56,29 +57,40 @@ extends Box {
      */
     @Override
     protected CollectIndexedHomogeneousInputs<O, T, I> startup() {
-        ins.forEach(this::startup);
+        //All outs get the same result: evaluate it once per change rather than once per out.
+        evaluateToAll(ins, outs, evaluation());
         return this;
     }
 
-    private CollectIndexedHomogeneousInputs<O, T, I> startup(Wire<O> in) {
-        outs.forEach(out -> startup(in, out));
-        return this;
-    }
-
-    private void startup(Wire<O> in, Wire<T> out) {
-        this.<O, T>onSignalChanged(in)
-            .set(out)
-            .from(ins)
-            .collectIndexed(collector())
-        ;
+    /**
+     * Override with a faster equivalent when there is one (eg. a kernel on primitive arrays, see Neuron),
+     *  which must give exactly the same results.
+     * @return the evaluation of the Signals of ins, by default collecting them with weight(), accumulator() and finisher()
+     */
+    protected Function<List<Wire<O>>, Signal<T>> evaluation() {
+        var collector = collector();
+        return inputs -> Wire.collectIndexed(inputs, collector);
     }
 
-    private Collector<Indexed<O>, ?, T> collector() {
+    /**
+     * The Collector that evaluation() uses by default.
+     * Override with a primitive one (eg. DoubleAccumulable::collector) to not box the weight of each input.
+     * @return by default, a collector of weight(), accumulator() and finisher()
+     */
+    protected Collector<Indexed<O>, ?, T> collector() {
         return Accumulable.collector(
            weight(), accumulator(), finisher()
         );
     }
 
+    //For Box::compile
+    protected final List<Wire<O>> ins() {
+        return ins;
+    }
+    protected final List<Wire<T>> outs() {
+        return outs;
+    }
+
     protected abstract Function<Indexed<O>, T> weight();
     protected abstract BinaryOperator<T> accumulator();
     protected abstract UnaryOperator<T> finisher();
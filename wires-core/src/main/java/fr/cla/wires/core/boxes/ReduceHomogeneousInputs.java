@@ -3,9 +3,11 @@ package fr.cla.wires.core.boxes;
 import fr.cla.wires.core.Box;
 import fr.cla.wires.core.Clock;
 import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.IncrementalReduction;
 import fr.cla.wires.core.Wire;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 
@@ -48,7 +50,9 @@ extends Box {
      */
     @Override
     protected ReduceHomogeneousInputs<O, T> startup() {
-        ins.forEach(this::startup);
+        Optional<IncrementalReduction<O, ?, T>> incrementalReduction = incrementalReduction();
+        if(incrementalReduction.isPresent()) reduceIncrementally(ins, out, incrementalReduction.get());
+        else ins.forEach(this::startup);
         return this;
     }
 
@@ -80,8 +84,26 @@ extends Box {
         ;
     }
 
+    //For Box::compile
+    protected final List<Wire<O>> ins() {
+        return ins;
+    }
+    protected final Wire<T> out() {
+        return out;
+    }
+
     protected abstract Function<O,T> weight();
     protected abstract BinaryOperator<T> accumulator();
 
+    /**
+     * Override when accumulator() can be inverted (eg. sums, xors, or ANDs and ORs as counts),
+     *  so that a change of 1 input costs O(1) instead of O(ins): see Box::reduceIncrementally.
+     * @return the IncrementalReduction equivalent to weight() and accumulator(),
+     *  or empty (the default) to reduce all inputs again on each change.
+     */
+    protected Optional<IncrementalReduction<O, ?, T>> incrementalReduction() {
+        return Optional.empty();
+    }
+
 }
 //@formatter:on
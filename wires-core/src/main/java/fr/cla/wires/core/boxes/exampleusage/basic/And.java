@@ -65,6 +65,12 @@ public final class And extends Box {
         return this;
     }
 
+    @Override
+    protected void compile(Netlist.Compiler compiler) {
+        compiler.signalValuesCombinator(in1, out, Netlist.Binary.AND, in2, Signal.WhenCombining.ABSENT_WINS);
+        compiler.signalValuesCombinator(in2, out, in1, Netlist.Binary.AND, Signal.WhenCombining.ABSENT_WINS);
+    }
+
     public static Builder in1(Wire<Boolean> in1) {
         return new Builder(requireNonNull(in1));
     }
@@ -62,6 +62,12 @@ public final class AnswerFirst extends Box {
         return this;
     }
 
+    @Override
+    protected void compile(Netlist.Compiler compiler) {
+        compiler.signalValuesCombinator(in1, out, Netlist.Binary.FIRST, in2, Signal.WhenCombining.PRESENT_WINS);
+        compiler.signalValuesCombinator(in2, out, in1, Netlist.Binary.FIRST, Signal.WhenCombining.PRESENT_WINS);
+    }
+
     /**
      * Both b1 and b2 are nullable
      * @param b1 The only used parameter
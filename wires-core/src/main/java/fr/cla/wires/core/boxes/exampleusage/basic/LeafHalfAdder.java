@@ -61,6 +61,14 @@ public final class LeafHalfAdder extends Box {
         return this;
     }
 
+    @Override
+    protected void compile(Netlist.Compiler compiler) {
+        compiler.signalValuesCombinator(inA, sum, Netlist.Binary.XOR, inB, Signal.WhenCombining.ABSENT_WINS);
+        compiler.signalValuesCombinator(inB, sum, inA, Netlist.Binary.XOR, Signal.WhenCombining.ABSENT_WINS);
+        compiler.signalValuesCombinator(inA, carry, Netlist.Binary.AND, inB, Signal.WhenCombining.ABSENT_WINS);
+        compiler.signalValuesCombinator(inB, carry, inA, Netlist.Binary.AND, Signal.WhenCombining.ABSENT_WINS);
+    }
+
     private boolean sum(boolean bA, boolean bB) {
         return bA != bB;
     }
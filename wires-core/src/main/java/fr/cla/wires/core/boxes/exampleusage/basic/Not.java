@@ -3,6 +3,7 @@ package fr.cla.wires.core.boxes.exampleusage.basic;
 import fr.cla.wires.core.Box;
 import fr.cla.wires.core.Clock;
 import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.Netlist;
 import fr.cla.wires.core.Wire;
 
 import static java.util.Objects.requireNonNull;
@@ -58,6 +59,11 @@ public final class Not extends Box {
         return this;
     }
 
+    @Override
+    protected void compile(Netlist.Compiler compiler) {
+        compiler.signalValueTransformation(in, out, Netlist.Unary.NOT);
+    }
+
     private boolean not(boolean b) {
         return !b;
     }
@@ -5,12 +5,13 @@ import fr.cla.wires.core.Delay;
 import fr.cla.wires.core.Signal;
 import fr.cla.wires.core.Wire;
 import fr.cla.wires.core.boxes.CollectHomogeneousInputsToOutputOfSameType;
-import fr.cla.wires.support.oo.Accumulable;
+import fr.cla.wires.support.oo.LongAccumulable;
 
 import java.util.List;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collector;
 
 import static java.util.Objects.requireNonNull;
 
@@ -46,6 +47,11 @@ extends CollectHomogeneousInputsToOutputOfSameType<Boolean> {
         return b1 && b2;
     }
 
+    //Same as collecting weight(), accumulator() and finisher(): counts the false inputs, on a primitive long.
+    @Override protected Collector<Boolean, ?, Boolean> collector() {
+        return LongAccumulable.collector(b -> b ? 0L : 1L, Long::sum, falses -> falses == 0L);
+    }
+
     /**
      * This method is used to not do the startup in the constructor,
      * to avoid letting "this" escape through the method ref,
@@ -2,12 +2,15 @@ package fr.cla.wires.core.boxes.exampleusage.multipleinputs;
 
 import fr.cla.wires.core.Clock;
 import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.IncrementalReduction;
+import fr.cla.wires.core.Netlist;
 import fr.cla.wires.core.Signal;
 import fr.cla.wires.core.Wire;
 import fr.cla.wires.core.boxes.ReduceHomogeneousInputs;
 import fr.cla.wires.support.oo.Accumulable;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 
@@ -39,6 +42,22 @@ public class ReduceMultipleAnd extends ReduceHomogeneousInputs<Boolean, Boolean>
         return b1 && b2;
     }
 
+    //An AND is true iff none of its inputs is false: counting the false inputs can be done incrementally.
+    @Override protected Optional<IncrementalReduction<Boolean, ?, Boolean>> incrementalReduction() {
+        return Optional.of(IncrementalReduction.<Boolean, Long, Boolean>
+            identity(0L)
+            .weight(b -> b ? 0L : 1L)
+            .accumulator(Long::sum)
+            .inverse((falses, w) -> falses - w)
+            .finisher(falses -> falses == 0L)
+        );
+    }
+
+    @Override
+    protected void compile(Netlist.Compiler compiler) {
+        ins().forEach(in -> compiler.allTrue(in, ins(), out()));
+    }
+
     /**
      * This method is used to not do the startup in the constructor,
      * to avoid letting "this" escape through the method ref,
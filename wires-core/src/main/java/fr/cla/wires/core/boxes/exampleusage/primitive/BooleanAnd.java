@@ -0,0 +1,78 @@
+package fr.cla.wires.core.boxes.exampleusage.primitive;
+
+import fr.cla.wires.core.BooleanWire;
+import fr.cla.wires.core.Box;
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Delay;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * An example usage of how to connect primitive wires to boxes:
+ *  the same as And, but on BooleanWires.
+ * @see fr.cla.wires.core.boxes.exampleusage
+ */
+public final class BooleanAnd extends Box {
+
+    private final BooleanWire in1, in2, out;
+
+    private BooleanAnd(BooleanWire in1, BooleanWire in2, BooleanWire out, Clock clock) {
+        this(in1, in2, out, clock, DEFAULT_DELAY);
+    }
+
+    private BooleanAnd(BooleanWire in1, BooleanWire in2, BooleanWire out, Clock clock, Delay delay) {
+        super(clock, delay);
+        this.in1 = requireNonNull(in1);
+        this.in2 = requireNonNull(in2);
+        this.out = requireNonNull(out);
+    }
+
+    /**
+     * There is no "Staged Builder" for primitive wires, so this uses the raw Box::onSignalChanged.
+     */
+    @Override
+    protected BooleanAnd startup() {
+        this.onSignalChanged(in1, (isNone, newIn1) -> and(isNone, newIn1, in2));
+        this.onSignalChanged(in2, (isNone, newIn2) -> and(isNone, newIn2, in1));
+        return this;
+    }
+
+    //Same as Signal.WhenCombining.ABSENT_WINS: none if any input is none.
+    private void and(boolean isNone, boolean newValue, BooleanWire other) {
+        if(isNone || other.isNone()) out.setNone();
+        else out.set(newValue && other.getAsBoolean());
+    }
+
+    public static Builder in1(BooleanWire in1) {
+        return new Builder(requireNonNull(in1));
+    }
+
+
+
+
+    public static class Builder {
+        private BooleanWire in1, in2, out;
+
+        private Builder(BooleanWire in) {
+            this.in1 = requireNonNull(in);
+        }
+
+        public Builder in2(BooleanWire in2) {
+            this.in2 = requireNonNull(in2);
+            return this;
+        }
+
+        public Builder out(BooleanWire out) {
+            this.out = requireNonNull(out);
+            return this;
+        }
+
+        public BooleanAnd time(Clock clock) {
+            Clock _clock = requireNonNull(clock);
+            return new BooleanAnd(in1, in2, out, _clock).startup();
+        }
+    }
+
+}
+//@formatter:on
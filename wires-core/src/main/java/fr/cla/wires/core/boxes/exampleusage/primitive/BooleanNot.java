@@ -0,0 +1,68 @@
+package fr.cla.wires.core.boxes.exampleusage.primitive;
+
+import fr.cla.wires.core.BooleanWire;
+import fr.cla.wires.core.Box;
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Delay;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * An example usage of how to connect primitive wires to boxes:
+ *  the same as Not, but on BooleanWires.
+ * @see fr.cla.wires.core.boxes.exampleusage
+ */
+public final class BooleanNot extends Box {
+
+    private final BooleanWire in, out;
+
+    private BooleanNot(BooleanWire in, BooleanWire out, Clock clock) {
+        this(in, out, clock, DEFAULT_DELAY);
+    }
+
+    private BooleanNot(BooleanWire in, BooleanWire out, Clock clock, Delay delay) {
+        super(clock, delay);
+        this.in = requireNonNull(in);
+        this.out = requireNonNull(out);
+    }
+
+    /**
+     * There is no "Staged Builder" for primitive wires, so this uses the raw Box::onSignalChanged.
+     */
+    @Override
+    protected BooleanNot startup() {
+        this.onSignalChanged(in, (isNone, newIn) -> {
+            if(isNone) out.setNone();
+            else out.set(!newIn);
+        });
+        return this;
+    }
+
+    public static Builder in(BooleanWire in) {
+        return new Builder(requireNonNull(in));
+    }
+
+
+
+
+    public static class Builder {
+        private BooleanWire in, out;
+
+        private Builder(BooleanWire in) {
+            this.in = requireNonNull(in);
+        }
+
+        public Builder out(BooleanWire out) {
+            this.out = requireNonNull(out);
+            return this;
+        }
+
+        public BooleanNot time(Clock clock) {
+            Clock _clock = requireNonNull(clock);
+            return new BooleanNot(in, out, _clock).startup();
+        }
+    }
+
+}
+//@formatter:on
@@ -12,7 +12,8 @@ public class CounterApp {
         Counter.out(out).time(clock);
 
         while(true) {
-            clock.tick();
+            //A Counter always has an appointment at the next Tick, but this is what a driver should do in general.
+            clock.advanceToNextEvent();
             System.out.printf(
                 "now: %s, signal: %s%n",
                 clock.now(), out.getSignal()
@@ -1,5 +1,7 @@
 module fr.cla.wires.core {
     requires transitive fr.cla.wires.support;
+    //Only for FlightRecording, which does without it when it is absent at runtime.
+    requires static jdk.jfr;
     exports fr.cla.wires.core;
     exports fr.cla.wires.core.boxes;
-}
\ No newline at end of file
+}
@@ -3,12 +3,16 @@ package fr.cla.wires.core;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 //@formatter:off
 public class ClockTest {
 
     private final Clock clock = Clock.createTime();
+    private final List<Tick> ran = new ArrayList<>();
 
     @Test
     public void tick_number_should_initially_be_0() {
@@ -21,5 +25,75 @@ public class ClockTest {
         assertThat(clock.now()).isEqualTo(Tick.number(1));
     }
 
+    @Test
+    public void advanceToNextEvent_should_jump_straight_to_the_next_appointment() {
+        given: {
+            appointAfter(1_000);
+        }
+        boolean advanced;
+        when: {
+            advanced = clock.advanceToNextEvent();
+        }
+        then: {
+            assertThat(advanced).isTrue();
+            assertThat(clock.now()).isEqualTo(Tick.number(1_000));
+            assertThat(ran).containsExactly(Tick.number(1_000));
+        }
+    }
+
+    @Test
+    public void advanceToNextEvent_should_not_move_when_there_is_no_appointment() {
+        boolean advanced;
+        when: {
+            advanced = clock.advanceToNextEvent();
+        }
+        then: {
+            assertThat(advanced).isFalse();
+            assertThat(clock.now()).isEqualTo(Tick.ZERO);
+        }
+    }
+
+    @Test
+    public void runUntilQuiescent_should_run_all_appointments() {
+        given: {
+            appointAfter(3);
+            appointAfter(100);
+            appointAfter(10_000);
+        }
+        boolean quiescent;
+        when: {
+            quiescent = clock.runUntilQuiescent(Long.MAX_VALUE);
+        }
+        then: {
+            assertThat(quiescent).isTrue();
+            assertThat(ran).containsExactly(Tick.number(3), Tick.number(100), Tick.number(10_000));
+            assertThat(clock.now()).isEqualTo(Tick.number(10_000));
+        }
+    }
+
+    @Test
+    public void runUntilQuiescent_should_not_go_further_than_maxTicks() {
+        given: {
+            appointAfter(3);
+            appointAfter(100);
+        }
+        boolean quiescent;
+        when: {
+            quiescent = clock.runUntilQuiescent(99);
+        }
+        then: {
+            assertThat(quiescent).isFalse();
+            assertThat(ran).containsExactly(Tick.number(3));
+            assertThat(clock.now()).isEqualTo(Tick.number(3));
+        }
+    }
+
+    private void appointAfter(int delay) {
+        clock.agenda().afterDelay(
+            Delay.of(delay),
+            signal -> ran.add(clock.now())
+        ).accept(Signal.none());
+    }
+
 }
-//@formatter:on
\ No newline at end of file
+//@formatter:on
@@ -0,0 +1,185 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import fr.cla.wires.support.functional.Indexed;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class CoalescedEvaluationsTest {
+
+    private static final int INPUTS = 100, OUTPUTS = 10, TICKS = 1_000;
+
+    private final Clock clock = Clock.createTime();
+    private final AtomicInteger evaluations = new AtomicInteger();
+
+    @Test
+    public void changes_of_all_inputs_in_the_same_tick_should_be_evaluated_once() {
+        List<Wire<Long>> ins = wires(INPUTS);
+        Wire<Long> out = Wire.make();
+        given: {
+            coalesced(ins, out);
+        }
+        when: {
+            for(int i = 0; i < INPUTS; i++) ins.get(i).setSignal(Signal.of((long)i));
+            clock.tick();
+            clock.tick();
+        }
+        then: {
+            assertThat(evaluations.get()).isEqualTo(1);
+            assertThat(out.getSignal()).isEqualTo(Signal.of((long)INPUTS * (INPUTS - 1) / 2));
+        }
+    }
+
+    @Test
+    public void coalesced_evaluations_should_give_exactly_the_same_changes_as_uncoalesced_ones() {
+        List<Wire<Long>> ins = wires(INPUTS);
+        List<Wire<Boolean>> flips = new ArrayList<>();
+        Wire<Long> coalesced = Wire.make(), uncoalesced = Wire.make();
+        List<Signal<Long>> coalescedChanges = new ArrayList<>(), uncoalescedChanges = new ArrayList<>();
+        Random random = new Random(0L);
+        given: {
+            //Half of the inputs are set by the test between Ticks,
+            // the other half by Boxes during the Ticks, which interleaves their changes with the reactions.
+            for(int i = INPUTS / 2; i < INPUTS; i++) {
+                Wire<Boolean> flip = Wire.make(), flipped = Wire.make();
+                Not.in(flip).out(flipped).time(clock);
+                Wire<Long> in = ins.get(i);
+                new Box(clock, Delay.of(1 + i % 3)) {
+                    @Override protected Box startup() {
+                        onSignalChanged(flipped, newSignal -> in.setSignal(newSignal.map(b -> b ? 1L : 0L)));
+                        return this;
+                    }
+                }.startup();
+                flips.add(flip);
+            }
+            coalesced(ins, coalesced);
+            uncoalesced(ins, uncoalesced);
+            coalesced.onSignalChanged(coalescedChanges::add);
+            uncoalesced.onSignalChanged(uncoalescedChanges::add);
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                for(int c = random.nextInt(4); c > 0; c--) {
+                    ins.get(random.nextInt(INPUTS / 2)).setSignal(Signal.of((long)random.nextInt(10)));
+                }
+                for(int c = random.nextInt(4); c > 0; c--) {
+                    flips.get(random.nextInt(flips.size())).setSignal(Signal.of(random.nextBoolean()));
+                }
+                clock.tick();
+            }
+            then: {
+                assertThat(coalesced.getSignal()).as("out at tick %s", t).isEqualTo(uncoalesced.getSignal());
+            }
+        }
+        then: {
+            assertThat(coalescedChanges).isEqualTo(uncoalescedChanges);
+            assertThat(coalescedChanges.size()).isGreaterThan(TICKS / 10);
+        }
+    }
+
+    @Test
+    public void changes_fanned_out_to_several_targets_should_be_collected_once_with_the_same_changes() {
+        List<Wire<Long>> ins = wires(INPUTS), fannedOut = wires(OUTPUTS), uncoalesced = wires(OUTPUTS);
+        List<Signal<Long>> fannedOutChanges = new ArrayList<>(), uncoalescedChanges = new ArrayList<>();
+        Random random = new Random(0L);
+        given: {
+            new Box(clock, Delay.of(2)) {
+                @Override protected Box startup() {
+                    collectIndexedToAll(ins, fannedOut, countingIndexedSum());
+                    return this;
+                }
+            }.startup();
+            uncoalesced.forEach(out -> uncoalescedIndexed(ins, out));
+            fannedOut.forEach(out -> out.onSignalChanged(fannedOutChanges::add));
+            uncoalesced.forEach(out -> out.onSignalChanged(uncoalescedChanges::add));
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                evaluations.set(0);
+                for(int c = random.nextInt(4); c > 0; c--) {
+                    ins.get(random.nextInt(INPUTS)).setSignal(Signal.of((long)random.nextInt(10)));
+                }
+                clock.tick();
+            }
+            then: {
+                //Only the fanned out collect counts its evaluations: at most 1 per Tick for all OUTPUTS targets
+                assertThat(evaluations.get()).as("evaluations at tick %s", t).isLessThanOrEqualTo(1);
+                for(int o = 0; o < OUTPUTS; o++) {
+                    assertThat(fannedOut.get(o).getSignal()).as("out %s at tick %s", o, t)
+                        .isEqualTo(uncoalesced.get(o).getSignal());
+                }
+            }
+        }
+        then: {
+            assertThat(fannedOutChanges).isEqualTo(uncoalescedChanges);
+            assertThat(fannedOutChanges.size()).isGreaterThan(TICKS / 10);
+        }
+    }
+
+    private void coalesced(List<Wire<Long>> ins, Wire<Long> out) {
+        new Box(clock, Delay.of(2)) {
+            @Override protected Box startup() {
+                ins.forEach(in -> this.<Long, Long>onSignalChanged(in).set(out).from(ins).collect(countingSum()));
+                return this;
+            }
+        }.startup();
+    }
+
+    //What the "Staged Builder" did before coalescing the evaluations
+    private void uncoalesced(List<Wire<Long>> ins, Wire<Long> out) {
+        new Box(clock, Delay.of(2)) {
+            @Override protected Box startup() {
+                ins.forEach(in -> onSignalChanged(in, newSignal -> out.setSignal(Wire.collect(ins, countingSum()))));
+                return this;
+            }
+        }.startup();
+    }
+
+    //What CollectIndexedHomogeneousInputs did for each target before fanning out, without counting the evaluations
+    private void uncoalescedIndexed(List<Wire<Long>> ins, Wire<Long> out) {
+        Collector<Indexed<Long>, ?, Long> indexedSum = Collectors.summingLong(l -> l.getIndex() * l.getValue());
+        new Box(clock, Delay.of(2)) {
+            @Override protected Box startup() {
+                ins.forEach(in -> onSignalChanged(in, newSignal -> out.setSignal(Wire.collectIndexed(ins, indexedSum))));
+                return this;
+            }
+        }.startup();
+    }
+
+    private Collector<Long, ?, Long> countingSum() {
+        return Collector.of(
+            () -> new long[1],
+            (sum, l) -> sum[0] += l,
+            (sum1, sum2) -> { sum1[0] += sum2[0]; return sum1; },
+            sum -> { evaluations.incrementAndGet(); return sum[0]; }
+        );
+    }
+
+    //Weighs each input by its index, so that collectIndexed matters
+    private Collector<Indexed<Long>, ?, Long> countingIndexedSum() {
+        return Collector.of(
+            () -> new long[1],
+            (sum, l) -> sum[0] += l.getIndex() * l.getValue(),
+            (sum1, sum2) -> { sum1[0] += sum2[0]; return sum1; },
+            sum -> { evaluations.incrementAndGet(); return sum[0]; }
+        );
+    }
+
+    private static List<Wire<Long>> wires(int n) {
+        List<Wire<Long>> wires = new ArrayList<>(n);
+        for(int i = 0; i < n; i++) wires.add(Wire.make());
+        return wires;
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,62 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.support.oo.AbstractValueObject;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+/**
+ * Signal, Tick and Delay compare their fields directly rather than their equalityCriteria(),
+ *  this checks that this changes nothing.
+ */
+public class EqualityCriteriaTest {
+
+    @Test
+    public void Signal_equals_and_hashCode_should_be_those_of_the_equalityCriteria() {
+        checkAgainstEqualityCriteria(
+            List.of(
+                Signal.of("foo"), Signal.of(new String("foo")), Signal.of("bar"),
+                Signal.none(), Signal.none(), Signal.of(true), Signal.of(1L), Signal.of(1), Signal.of(Double.NaN)
+            ),
+            Signal::equalityCriteria
+        );
+    }
+
+    @Test
+    public void Tick_equals_and_hashCode_should_be_those_of_the_equalityCriteria() {
+        checkAgainstEqualityCriteria(
+            List.of(Tick.ZERO, Tick.number(0), Tick.number(1), Tick.number(1L << 40), Tick.number(Long.MAX_VALUE)),
+            Tick::equalityCriteria
+        );
+    }
+
+    @Test
+    public void Delay_equals_and_hashCode_should_be_those_of_the_equalityCriteria() {
+        checkAgainstEqualityCriteria(
+            List.of(Delay.of(1), Delay.of(1), Delay.of(2), Delay.of(Integer.MAX_VALUE)),
+            Delay::equalityCriteria
+        );
+    }
+
+    private static <T extends AbstractValueObject<T>> void checkAgainstEqualityCriteria(
+        List<T> vos,
+        Function<T, List<Object>> equalityCriteria
+    ) {
+        for(T vo1 : vos) {
+            assertThat(vo1.hashCode()).isEqualTo(Objects.hash(equalityCriteria.apply(vo1)));
+            for(T vo2 : vos) {
+                assertThat(vo1.equals(vo2)).isEqualTo(
+                    Objects.equals(equalityCriteria.apply(vo1), equalityCriteria.apply(vo2))
+                );
+            }
+        }
+    }
+
+}
+//@formatter:on
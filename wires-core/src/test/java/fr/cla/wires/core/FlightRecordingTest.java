@@ -0,0 +1,96 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class FlightRecordingTest {
+
+    private static final int NOTS = 2 * FlightRecording.FAN_OUT_THRESHOLD;
+
+    @Test
+    public void ticks_sampled_evaluations_and_fan_outs_should_be_recorded() throws IOException {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> in = Wire.make();
+        List<RecordedEvent> events;
+        given: {
+            for(int i = 0; i < NOTS; i++) Not.in(in).out(Wire.make()).time(clock);
+        }
+        when: {
+            events = record(() -> {
+                in.setSignal(Signal.of(true));
+                clock.tick();
+            });
+        }
+        then: {
+            assertThat(events.stream().filter(e -> e.getEventType().getName().equals("fr.cla.wires.Tick")))
+                .hasSize(1)
+                .allSatisfy(e -> {
+                    assertThat(e.getLong("tick")).isEqualTo(1L);
+                    assertThat(e.getInt("executed")).isEqualTo(NOTS);
+                });
+            assertThat(events.stream().filter(e -> e.getEventType().getName().equals("fr.cla.wires.BoxEvaluation")))
+                .hasSize(NOTS / FlightRecording.EVALUATION_SAMPLING)
+                .allSatisfy(e -> assertThat(e.getClass("box").getName()).isEqualTo(Not.class.getName()));
+            assertThat(events.stream().filter(e -> e.getEventType().getName().equals("fr.cla.wires.WireFanOut")))
+                .hasSize(1)
+                .allSatisfy(e -> assertThat(e.getInt("listeners")).isEqualTo(NOTS));
+        }
+    }
+
+    @Test
+    public void evaluations_should_be_sampled_across_ticks_smaller_than_the_sampling() throws IOException {
+        int ticks = 16 * FlightRecording.EVALUATION_SAMPLING;
+        Clock clock = Clock.createTime();
+        Wire<Boolean> in = Wire.make();
+        List<RecordedEvent> events;
+        given: {
+            Not.in(in).out(Wire.make()).time(clock);
+        }
+        when: {
+            events = record(() -> {
+                for(int t = 0; t < ticks; t++) {
+                    in.setSignal(Signal.of(t % 2 == 0));
+                    clock.tick();
+                }
+            });
+        }
+        then: {
+            //Each Tick runs a single todo: sampling by index in the Tick would record all of them.
+            assertThat(events.stream().filter(e -> e.getEventType().getName().equals("fr.cla.wires.Tick")))
+                .hasSize(ticks);
+            assertThat(events.stream().filter(e -> e.getEventType().getName().equals("fr.cla.wires.BoxEvaluation")))
+                .hasSize(ticks / FlightRecording.EVALUATION_SAMPLING);
+        }
+    }
+
+    //Any EVALUATION_SAMPLING * n todos run in a row by this thread are sampled exactly n times, whatever ran before.
+    private static List<RecordedEvent> record(Runnable simulation) throws IOException {
+        Path file = Files.createTempFile("wires", ".jfr");
+        try(Recording recording = new Recording()) {
+            recording.enable("fr.cla.wires.Tick");
+            recording.enable("fr.cla.wires.BoxEvaluation");
+            recording.enable("fr.cla.wires.WireFanOut");
+            recording.start();
+            simulation.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,128 @@
+package fr.cla.wires.core;
+
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class IncrementalReductionTest {
+
+    private static final int INPUTS = 50, TICKS = 1_000;
+    private static final Delay DELAY = Delay.of(3);
+
+    private final Clock clock = Clock.createTime();
+
+    @Test
+    public void incremental_sums_should_give_exactly_the_same_results_as_full_sums() {
+        List<Wire<Long>> ins = new ArrayList<>();
+        Wire<Long> full = Wire.make(), incremental = Wire.make();
+        List<Signal<Long>> fullChanges = new ArrayList<>(), incrementalChanges = new ArrayList<>();
+        Random random = new Random(0L);
+        given: {
+            for(int i = 0; i < INPUTS; i++) ins.add(Wire.make());
+            //Some inputs already have a Signal when the Boxes start up
+            for(int i = 0; i < INPUTS; i += 2) ins.get(i).setSignal(Signal.of((long)i));
+
+            fullSum(ins, full);
+            incrementalSum(ins, incremental);
+            full.onSignalChanged(fullChanges::add);
+            incremental.onSignalChanged(incrementalChanges::add);
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                //Several changes per Tick, sometimes of the same input, sometimes to none:
+                // the Delay being 3, changes of different inputs overlap before their reactions.
+                int changes = random.nextInt(4);
+                for(int c = 0; c < changes; c++) {
+                    Wire<Long> in = ins.get(random.nextInt(INPUTS));
+                    in.setSignal(random.nextInt(100) == 0 ? Signal.none() : Signal.of((long)random.nextInt(100)));
+                }
+                clock.tick();
+            }
+            then: {
+                assertThat(incremental.getSignal()).as("out at tick %s", t).isEqualTo(full.getSignal());
+            }
+        }
+        then: {
+            //Not only the same results, but the same changes (so no glitches within a Tick either)
+            assertThat(incrementalChanges).isEqualTo(fullChanges);
+            assertThat(fullChanges.size()).isGreaterThan(TICKS / 10);
+        }
+    }
+
+    @Test
+    public void out_should_be_none_iff_any_input_is_none() {
+        List<Wire<Long>> ins = List.of(Wire.make(), Wire.make());
+        Wire<Long> out = Wire.make();
+        given: {
+            incrementalSum(ins, out);
+        }
+        when: {
+            ins.get(0).setSignal(Signal.of(1L));
+            tickDelay();
+        }
+        then: {
+            assertThat(out.getSignal()).isEqualTo(Signal.none());
+        }
+        when: {
+            ins.get(1).setSignal(Signal.of(2L));
+            tickDelay();
+        }
+        then: {
+            assertThat(out.getSignal()).isEqualTo(Signal.of(3L));
+        }
+        when: {
+            ins.get(0).setSignal(Signal.none());
+            tickDelay();
+        }
+        then: {
+            assertThat(out.getSignal()).isEqualTo(Signal.none());
+        }
+    }
+
+    private void tickDelay() {
+        for(long t = 0; t < DELAY.duration(); t++) clock.tick();
+    }
+
+    private void fullSum(List<Wire<Long>> ins, Wire<Long> out) {
+        new Box(clock, DELAY) {
+            @Override protected Box startup() {
+                ins.forEach(in -> this.<Long, Long>onSignalChanged(in)
+                    .set(out)
+                    .from(ins)
+                    .map(Function.identity())
+                    .reduce(sum())
+                );
+                return this;
+            }
+        }.startup();
+    }
+
+    private void incrementalSum(List<Wire<Long>> ins, Wire<Long> out) {
+        new Box(clock, DELAY) {
+            @Override protected Box startup() {
+                reduceIncrementally(ins, out, IncrementalReduction.<Long, Long, Long>
+                    identity(0L)
+                    .weight(Function.identity())
+                    .accumulator(sum())
+                    .inverse((sum, w) -> sum - w)
+                    .finisher(Function.identity())
+                );
+                return this;
+            }
+        }.startup();
+    }
+
+    private static BinaryOperator<Long> sum() {
+        return Long::sum;
+    }
+
+}
+//@formatter:on
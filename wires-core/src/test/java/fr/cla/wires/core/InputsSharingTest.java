@@ -0,0 +1,40 @@
+package fr.cla.wires.core;
+
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class InputsSharingTest {
+
+    private static final int INPUTS = 1_000;
+
+    //A Box of N inputs registers N reactions: if each held its own copy of the N inputs, that would be O(N^2) memory
+    // (see WireFootprint in wires-benchmarks for the footprint itself).
+    @Test
+    public void the_reactions_to_each_input_of_a_box_should_share_the_inputs_of_the_box() {
+        List<Wire<Boolean>> wires = new ArrayList<>(INPUTS);
+        for(int i = 0; i < INPUTS; i++) wires.add(Wire.make());
+        List<Wire<Boolean>> ins;
+        Reaction first, last;
+        given: {
+            ins = Box.checkNoNulls(wires);
+        }
+        when: {
+            OnSignalChanged<Boolean> callback = newSignal -> {};
+            first = Reaction.known(callback, Delay.of(1), null, List.of(Wire.make()), ins);
+            last = Reaction.known(callback, Delay.of(1), null, List.of(Wire.make()), ins);
+        }
+        then: {
+            assertThat(ins).isNotSameAs(wires).isEqualTo(wires);
+            assertThat(first.reads()).isSameAs(ins);
+            assertThat(last.reads()).isSameAs(ins);
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,717 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.core.boxes.exampleusage.basic.AnswerFirst;
+import fr.cla.wires.core.boxes.exampleusage.basic.AnswerSecond;
+import fr.cla.wires.core.boxes.exampleusage.basic.LeafHalfAdder;
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import fr.cla.wires.core.boxes.exampleusage.composite.CompositeFullAdder;
+import fr.cla.wires.core.boxes.exampleusage.multipleinputs.ReduceMultipleAnd;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//@formatter:off
+public class NetlistTest {
+
+    private static final int BITS = 8, TICKS = 2_000;
+
+    @Test
+    public void a_netlist_should_go_through_exactly_the_same_signals_as_its_circuit() {
+        Circuit simulated = new Circuit(), compiled = new Circuit();
+        Netlist netlist;
+        Random random = new Random(0L);
+        given: {
+            //Some Signals are already set at compile time
+            simulated.ins.get(0).setSignal(Signal.of(true));
+            compiled.ins.get(0).setSignal(Signal.of(true));
+            simulated.clock.runUntilQuiescent(TICKS);
+            compiled.clock.runUntilQuiescent(TICKS);
+
+            netlist = Netlist.compile(compiled.clock);
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                for(int c = random.nextInt(4); c > 0; c--) {
+                    int i = random.nextInt(simulated.ins.size());
+                    Signal<Boolean> s = random.nextInt(20) == 0 ? Signal.none() : Signal.of(random.nextBoolean());
+                    simulated.ins.get(i).setSignal(s);
+                    netlist.setSignal(compiled.ins.get(i), s);
+                }
+                simulated.clock.tick();
+                netlist.tick();
+            }
+            then: {
+                assertThat(netlist.now()).isEqualTo(simulated.clock.now());
+                for(int w = 0; w < simulated.outs.size(); w++) {
+                    assertThat(compiled.outs.get(w).getSignal())
+                        .as("out %s at tick %s", w, t)
+                        .isEqualTo(simulated.outs.get(w).getSignal());
+                }
+            }
+        }
+        then: {
+            assertThat(compiled.changes).isEqualTo(0);
+            assertThat(simulated.changes).isGreaterThan(TICKS);
+        }
+    }
+
+    @Test
+    public void each_lane_of_a_bit_parallel_netlist_should_go_through_exactly_the_same_signals_as_a_netlist() {
+        List<Circuit> lanes = new ArrayList<>();
+        List<Netlist> netlists = new ArrayList<>();
+        Circuit compiled = new Circuit();
+        Netlist.BitParallel bitParallel;
+        Random random = new Random(0L);
+        given: {
+            for(int lane = 0; lane < Long.SIZE; lane++) {
+                Circuit circuit = new Circuit();
+                lanes.add(circuit);
+                netlists.add(Netlist.compile(circuit.clock));
+            }
+            bitParallel = Netlist.compile(compiled.clock).bitParallel();
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                for(int c = random.nextInt(4); c > 0; c--) {
+                    int i = random.nextInt(compiled.ins.size());
+                    long values = random.nextLong(), nones = random.nextLong() & random.nextLong() & random.nextLong();
+                    bitParallel.set(compiled.ins.get(i), values, nones);
+                    for(int lane = 0; lane < Long.SIZE; lane++) {
+                        long bit = 1L << lane;
+                        netlists.get(lane).setSignal(lanes.get(lane).ins.get(i),
+                            (nones & bit) != 0L ? Signal.none() : Signal.of((values & bit) != 0L)
+                        );
+                    }
+                }
+                netlists.forEach(Netlist::tick);
+                bitParallel.tick();
+            }
+            then: {
+                assertThat(bitParallel.now()).isEqualTo(netlists.get(0).now());
+                for(int lane = 0; lane < Long.SIZE; lane++) {
+                    for(int w = 0; w < compiled.outs.size(); w++) {
+                        assertThat(bitParallel.getSignal(compiled.outs.get(w), lane))
+                            .as("out %s of lane %s at tick %s", w, lane, t)
+                            .isEqualTo(lanes.get(lane).outs.get(w).getSignal());
+                    }
+                }
+            }
+        }
+        then: {
+            assertThat(bitParallel.runUntilQuiescent(TICKS)).isTrue();
+            assertThat(compiled.changes).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void circuits_of_doubles_should_not_run_bit_parallel() {
+        Clock clock = Clock.createTime();
+        Wire<Double> in = Wire.make(), out = Wire.make();
+        Netlist netlist;
+        given: {
+            new Box(clock, Delay.of(1)) {
+                @Override protected Box startup() {
+                    evaluateToAll(List.of(in), List.of(out), ins -> ins.get(0).getSignal());
+                    return this;
+                }
+                @Override protected void compile(Netlist.Compiler compiler) {
+                    compiler.threshold(in, List.of(in), List.of(1.0), 0.0, List.of(out));
+                }
+            }.startup();
+            netlist = Netlist.compile(clock);
+        }
+        then: {
+            assertThatThrownBy(netlist::bitParallel).isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    @Test
+    public void boxes_with_delays_longer_than_the_ring_should_not_compile() {
+        Clock longest = Clock.createTime(), tooLong = Clock.createTime();
+        given: {
+            notAfter(Delay.of(Netlist.MAX_DELAY), longest);
+            notAfter(Delay.of(Netlist.MAX_DELAY + 1), tooLong);
+        }
+        then: {
+            assertThat(Netlist.compile(longest)).isNotNull();
+            assertThatThrownBy(() -> Netlist.compile(tooLong)).isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    private static void notAfter(Delay delay, Clock clock) {
+        Wire<Boolean> in = Wire.make(), out = Wire.make();
+        new Box(clock, delay) {
+            @Override protected Box startup() {
+                onSignalChanged2(in).set(out).toResultOfApplying().signalValueTransformation(b -> !b);
+                return this;
+            }
+            @Override protected void compile(Netlist.Compiler compiler) {
+                compiler.signalValueTransformation(in, out, Netlist.Unary.NOT);
+            }
+        }.startup();
+    }
+
+    @Test
+    public void runUntilQuiescent_should_skip_to_each_appointment_and_stop_at_the_last_one_run_like_the_clock() {
+        Clock simulated = Clock.createTime(), compiled = Clock.createTime();
+        Wire<Boolean> simulatedRing = ringOscillator(Delay.of(10), simulated), compiledRing = ringOscillator(Delay.of(10), compiled);
+        Netlist netlist;
+        boolean simulatedQuiescent, compiledQuiescent;
+        given: {
+            netlist = Netlist.compile(compiled);
+        }
+        when: {
+            simulatedRing.setSignal(Signal.of(true));
+            netlist.setSignal(compiledRing, Signal.of(true));
+            simulatedQuiescent = simulated.runUntilQuiescent(25);
+            compiledQuiescent = netlist.runUntilQuiescent(25);
+        }
+        then: {
+            assertThat(simulatedQuiescent).isFalse();
+            assertThat(compiledQuiescent).isFalse();
+            assertThat(simulated.now()).isEqualTo(Tick.number(20));
+            assertThat(netlist.now()).isEqualTo(simulated.now());
+            assertThat(compiledRing.getSignal()).isEqualTo(simulatedRing.getSignal());
+        }
+    }
+
+    //A Not whose output is its own input, which never stabilizes.
+    private static Wire<Boolean> ringOscillator(Delay delay, Clock clock) {
+        Wire<Boolean> ring = Wire.make();
+        new Box(clock, delay) {
+            @Override protected Box startup() {
+                onSignalChanged2(ring).set(ring).toResultOfApplying().signalValueTransformation(b -> !b);
+                return this;
+            }
+            @Override protected void compile(Netlist.Compiler compiler) {
+                compiler.signalValueTransformation(ring, ring, Netlist.Unary.NOT);
+            }
+        }.startup();
+        return ring;
+    }
+
+    @Test
+    public void boxes_that_register_opaque_callbacks_should_not_compile() {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> in = Wire.make(), out = Wire.make();
+        given: {
+            new Box(clock, Delay.of(1)) {
+                @Override protected Box startup() {
+                    onSignalChanged(in, newSignal -> out.setSignal(newSignal));
+                    return this;
+                }
+            }.startup();
+        }
+        then: {
+            assertThatThrownBy(() -> Netlist.compile(clock)).isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    @Test
+    public void a_restored_netlist_should_go_on_exactly_as_the_checkpointed_one() throws IOException {
+        Circuit checkpointed = new Circuit(), restored = new Circuit();
+        Netlist original = Netlist.compile(checkpointed.clock), netlist = Netlist.compile(restored.clock);
+        Random random = new Random(0L);
+        Path file = Files.createTempFile("wires", ".checkpoint");
+        try {
+            given: {
+                for(int t = 0; t < TICKS; t++) {
+                    setRandomSignals(random, checkpointed, original, null, null);
+                    original.tick();
+                }
+                //Some appointments are pending
+                setRandomSignals(random, checkpointed, original, null, null);
+                assertThat(original.runUntilQuiescent(0L)).isFalse();
+            }
+            when: {
+                original.checkpoint(file);
+                netlist.restore(file);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        then: {
+            assertThat(netlist.now()).isEqualTo(original.now());
+            for(int w = 0; w < checkpointed.outs.size(); w++) {
+                assertThat(restored.outs.get(w).getSignal()).as("out %s", w).isEqualTo(checkpointed.outs.get(w).getSignal());
+            }
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                original.tick();
+                netlist.tick();
+                setRandomSignals(random, checkpointed, original, restored, netlist);
+            }
+            then: {
+                assertThat(netlist.now()).isEqualTo(original.now());
+                for(int w = 0; w < checkpointed.outs.size(); w++) {
+                    assertThat(restored.outs.get(w).getSignal())
+                        .as("out %s at tick %s", w, t)
+                        .isEqualTo(checkpointed.outs.get(w).getSignal());
+                }
+            }
+        }
+        then: {
+            assertThat(netlist.runUntilQuiescent(TICKS)).isTrue();
+            assertThat(original.runUntilQuiescent(TICKS)).isTrue();
+            assertThat(netlist.now()).isEqualTo(original.now());
+        }
+    }
+
+    @Test
+    public void checkpoints_should_only_restore_into_the_same_circuit() throws IOException {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> in = Wire.make(), out = Wire.make();
+        Netlist other;
+        Path checkpoint = Files.createTempFile("wires", ".checkpoint"), notACheckpoint = Files.createTempFile("wires", ".txt");
+        try {
+            given: {
+                Not.in(in).out(out).time(clock);
+                other = Netlist.compile(clock);
+                Netlist.compile(new Circuit().clock).checkpoint(checkpoint);
+                Files.writeString(notACheckpoint, "not a checkpoint");
+            }
+            then: {
+                assertThatThrownBy(() -> other.restore(checkpoint)).isInstanceOf(IllegalArgumentException.class);
+                assertThatThrownBy(() -> other.restore(notACheckpoint)).isInstanceOf(IllegalArgumentException.class);
+            }
+        } finally {
+            Files.delete(checkpoint);
+            Files.delete(notACheckpoint);
+        }
+    }
+
+    @Test
+    public void corrupt_checkpoints_should_not_be_restored() throws IOException {
+        Circuit checkpointed = new Circuit(), restored = new Circuit();
+        Netlist original = Netlist.compile(checkpointed.clock), netlist = Netlist.compile(restored.clock);
+        Path file = Files.createTempFile("wires", ".checkpoint");
+        byte[] saved;
+        try {
+            given: {
+                //Some appointments are pending
+                original.setSignal(checkpointed.ins.get(0), Signal.of(true));
+                original.tick();
+                original.setSignal(checkpointed.ins.get(1), Signal.of(true));
+                original.checkpoint(file);
+                saved = Files.readAllBytes(file);
+            }
+            int wires = ByteBuffer.wrap(saved).getInt(16);
+            //After the magic, version, fingerprint and counts
+            int now = 28, pending = now + Long.BYTES;
+            //After the nones
+            int values = pending + Long.BYTES + Long.BYTES * ((wires + Long.SIZE - 1) / Long.SIZE);
+            then: {
+                Files.write(file, corruptLong(saved, pending, ByteBuffer.wrap(saved).getLong(pending) + 1L));
+                assertThatThrownBy(() -> netlist.restore(file)).isInstanceOf(IllegalArgumentException.class);
+                Files.write(file, corruptLong(saved, now, -1L));
+                assertThatThrownBy(() -> netlist.restore(file)).isInstanceOf(IllegalArgumentException.class);
+                //A Boolean Wire that is neither false nor true
+                Files.write(file, corruptLong(saved, values, 2L));
+                assertThatThrownBy(() -> netlist.restore(file)).isInstanceOf(IllegalArgumentException.class);
+                //Left unchanged
+                assertThat(netlist.now()).isEqualTo(Tick.number(0));
+                assertThat(netlist.runUntilQuiescent(0L)).isTrue();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void a_loaded_netlist_should_go_through_exactly_the_same_signals_as_the_saved_one() throws IOException {
+        Circuit saved = new Circuit();
+        Netlist original, loaded;
+        Random random = new Random(0L);
+        Path file = Files.createTempFile("wires", ".netlist");
+        try {
+            given: {
+                original = Netlist.compile(saved.clock);
+                for(int t = 0; t < TICKS; t++) {
+                    setRandomSignals(random, saved, original, null, null);
+                    original.tick();
+                }
+                original.runUntilQuiescent(TICKS);
+            }
+            when: {
+                original.save(file);
+                loaded = Netlist.load(file);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        then: {
+            assertThat(loaded.now()).isEqualTo(original.now());
+            for(Wire<Boolean> wire : saved.outs) {
+                assertThat(loaded.booleanWire(original.id(wire)).getSignal()).isEqualTo(wire.getSignal());
+            }
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                for(int c = random.nextInt(4); c > 0; c--) {
+                    int i = random.nextInt(saved.ins.size());
+                    Signal<Boolean> s = random.nextInt(20) == 0 ? Signal.none() : Signal.of(random.nextBoolean());
+                    original.setSignal(saved.ins.get(i), s);
+                    loaded.setSignal(loaded.booleanWire(original.id(saved.ins.get(i))), s);
+                }
+                original.tick();
+                loaded.tick();
+            }
+            then: {
+                for(int w = 0; w < saved.outs.size(); w++) {
+                    assertThat(loaded.booleanWire(original.id(saved.outs.get(w))).getSignal())
+                        .as("out %s at tick %s", w, t)
+                        .isEqualTo(saved.outs.get(w).getSignal());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void only_valid_netlists_without_appointments_should_be_saved_and_loaded() throws IOException {
+        Circuit circuit = new Circuit();
+        Netlist netlist = Netlist.compile(circuit.clock);
+        Path file = Files.createTempFile("wires", ".netlist");
+        byte[] saved;
+        try {
+            then: {
+                netlist.setSignal(circuit.ins.get(0), Signal.of(true));
+                assertThatThrownBy(() -> netlist.save(file)).isInstanceOf(IllegalStateException.class);
+                netlist.runUntilQuiescent(TICKS);
+                netlist.save(file);
+                saved = Files.readAllBytes(file);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(saved);
+            int wires = buffer.getInt(8), reactions = buffer.getInt(12);
+            int wireBits = Long.BYTES * ((wires + Long.SIZE - 1) / Long.SIZE);
+            int reactionBits = Long.BYTES * ((reactions + Long.SIZE - 1) / Long.SIZE);
+            //After the header, the Wires, and the kinds, functions and presentWins
+            int delays = 28 + 2 * wireBits + Long.BYTES * wires + 2 * reactions + reactionBits;
+            //After the delays and the observed Wires
+            int targets = delays + 2 * Integer.BYTES * reactions;
+            when: {
+                //A corrupt target id, in the middle of the reactions
+                Files.write(file, corrupt(saved, targets + Integer.BYTES * (reactions / 2), wires));
+            }
+            then: {
+                assertThatThrownBy(() -> Netlist.load(file)).isInstanceOf(IllegalArgumentException.class);
+            }
+            when: {
+                //A Delay too long for the ring, which would otherwise fail to be allocated
+                Files.write(file, corrupt(saved, delays, 1 << 30));
+            }
+            then: {
+                assertThatThrownBy(() -> Netlist.load(file)).isInstanceOf(IllegalArgumentException.class);
+            }
+            when: {
+                //A negative now, after the magic, version and counts
+                Files.write(file, corruptLong(saved, 20, -1L));
+            }
+            then: {
+                assertThatThrownBy(() -> Netlist.load(file)).isInstanceOf(IllegalArgumentException.class);
+            }
+            when: {
+                //A Boolean Wire that is neither false nor true, after the doubles and nones
+                Files.write(file, corruptLong(saved, 28 + 2 * wireBits, 2L));
+            }
+            then: {
+                assertThatThrownBy(() -> Netlist.load(file)).isInstanceOf(IllegalArgumentException.class);
+                Files.write(file, new byte[]{1, 2, 3});
+                assertThatThrownBy(() -> Netlist.load(file)).isInstanceOf(IllegalArgumentException.class);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static byte[] corrupt(byte[] bytes, int index, int value) {
+        byte[] corrupt = bytes.clone();
+        ByteBuffer.wrap(corrupt).putInt(index, value);
+        return corrupt;
+    }
+
+    private static byte[] corruptLong(byte[] bytes, int index, long value) {
+        byte[] corrupt = bytes.clone();
+        ByteBuffer.wrap(corrupt).putLong(index, value);
+        return corrupt;
+    }
+
+    @Test
+    public void a_netlist_that_observes_a_cone_should_go_through_exactly_the_same_signals_and_catch_up_with_the_rest() {
+        Circuit full = new Circuit(), pruned = new Circuit();
+        Netlist reference = Netlist.compile(full.clock), netlist = Netlist.compile(pruned.clock);
+        Random random = new Random(0L);
+        //The sum of the lowest bit, which only depends on the first CompositeFullAdder
+        int observed = 0;
+        //The ticks after which the reference still had appointments, but not the Netlist that only simulates the cone
+        int skipped = 0;
+        given: {
+            netlist.observe(List.of(pruned.outs.get(observed)), Netlist.OutOfCone.REPLAYED);
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                setRandomSignals(random, full, reference, pruned, netlist);
+                reference.tick();
+                netlist.tick();
+            }
+            then: {
+                if(netlist.runUntilQuiescent(0L) && !reference.runUntilQuiescent(0L)) skipped++;
+                assertThat(pruned.outs.get(observed).getSignal()).as("tick %s", t).isEqualTo(full.outs.get(observed).getSignal());
+                //Only catch up now and then
+                if(t % 97 == 0) {
+                    for(int w = 0; w < full.outs.size(); w++) {
+                        assertThat(pruned.outs.get(w).getSignal())
+                            .as("out %s at tick %s", w, t)
+                            .isEqualTo(full.outs.get(w).getSignal());
+                    }
+                }
+            }
+        }
+        then: {
+            assertThat(skipped).isGreaterThan(TICKS / 10);
+        }
+        when: {
+            netlist.observeAll();
+            for(int t = 0; t < TICKS; t++) {
+                setRandomSignals(random, full, reference, pruned, netlist);
+                reference.tick();
+                netlist.tick();
+            }
+        }
+        then: {
+            for(int w = 0; w < full.outs.size(); w++) {
+                assertThat(pruned.outs.get(w).getSignal()).as("out %s", w).isEqualTo(full.outs.get(w).getSignal());
+            }
+            for(int i = 0; i < full.ins.size(); i++) {
+                assertThat(pruned.ins.get(i).getSignal()).as("in %s", i).isEqualTo(full.ins.get(i).getSignal());
+            }
+        }
+    }
+
+    @Test @SuppressWarnings("try") //The Observation is only used for its close()
+    public void a_suspended_wire_set_directly_should_be_set_through_its_netlist_until_the_observation_is_closed() {
+        Circuit full = new Circuit(), pruned = new Circuit();
+        Netlist reference = Netlist.compile(full.clock), netlist = Netlist.compile(pruned.clock);
+        Random random = new Random(0L);
+        //An input of the LeafHalfAdder, outside the cone of the lowest sum
+        int suspended = full.ins.size() - 1;
+        when: {
+            try(Netlist.Observation observation = netlist.observe(List.of(pruned.outs.get(0)), Netlist.OutOfCone.REPLAYED)) {
+                for(int t = 0; t < 100; t++) {
+                    Signal<Boolean> s = Signal.of(random.nextBoolean());
+                    reference.setSignal(full.ins.get(suspended), s);
+                    pruned.ins.get(suspended).setSignal(s);
+                    reference.tick();
+                    netlist.tick();
+                    assertThat(pruned.ins.get(suspended).getSignal()).as("tick %s", t).isEqualTo(s);
+                }
+            }
+        }
+        then: {
+            //Observing all again, and never through the Clock
+            assertThat(netlist.bitParallel()).isNotNull();
+            assertThat(pruned.clock.runUntilQuiescent(0L)).isTrue();
+            for(int w = 0; w < full.outs.size(); w++) {
+                assertThat(pruned.outs.get(w).getSignal()).as("out %s", w).isEqualTo(full.outs.get(w).getSignal());
+            }
+        }
+    }
+
+    @Test
+    public void the_signals_set_while_suspended_should_be_caught_up_with_before_they_pile_up() {
+        Circuit full = new Circuit(), pruned = new Circuit();
+        Netlist reference = Netlist.compile(full.clock), netlist = Netlist.compile(pruned.clock);
+        Random random = new Random(0L);
+        int sets = 3 * Netlist.MAX_LOGGED_SETS, mostLogged = 0;
+        given: {
+            netlist.observe(List.of(pruned.outs.get(0)), Netlist.OutOfCone.REPLAYED);
+        }
+        when: {
+            //Only the observed out is read, as in a test bench
+            for(int s = 0; s < sets; s++) {
+                int i = random.nextInt(full.ins.size());
+                Signal<Boolean> signal = Signal.of(random.nextBoolean());
+                reference.setSignal(full.ins.get(i), signal);
+                netlist.setSignal(pruned.ins.get(i), signal);
+                if(s % 4 == 0) {
+                    reference.tick();
+                    netlist.tick();
+                }
+                mostLogged = Math.max(mostLogged, netlist.loggedSets());
+            }
+        }
+        then: {
+            assertThat(mostLogged).isEqualTo(Netlist.MAX_LOGGED_SETS);
+            for(int w = 0; w < full.outs.size(); w++) {
+                assertThat(pruned.outs.get(w).getSignal()).as("out %s", w).isEqualTo(full.outs.get(w).getSignal());
+            }
+            assertThat(netlist.loggedSets()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void suspended_wires_should_still_be_caught_up_with_once_their_netlist_is_dropped() {
+        Circuit full = new Circuit(), pruned = new Circuit();
+        Netlist reference = Netlist.compile(full.clock);
+        given: {
+            observeAndTick(reference, full, pruned);
+            //Only to give a chance to collect the Netlist, if only the suspended Wires referenced it
+            System.gc();
+        }
+        then: {
+            for(int w = 0; w < full.outs.size(); w++) {
+                assertThat(pruned.outs.get(w).getSignal()).as("out %s", w).isEqualTo(full.outs.get(w).getSignal());
+            }
+        }
+    }
+
+    //Drops the Netlist of pruned without observing all again.
+    private static void observeAndTick(Netlist reference, Circuit full, Circuit pruned) {
+        Netlist netlist = Netlist.compile(pruned.clock);
+        Random random = new Random(0L);
+        netlist.observe(List.of(pruned.outs.get(0)), Netlist.OutOfCone.REPLAYED);
+        for(int t = 0; t < 100; t++) {
+            setRandomSignals(random, full, reference, pruned, netlist);
+            reference.tick();
+            netlist.tick();
+        }
+    }
+
+    @Test
+    public void unreadable_wires_should_not_be_simulated_until_a_checkpoint_is_restored() throws IOException {
+        Circuit full = new Circuit(), pruned = new Circuit();
+        Netlist reference = Netlist.compile(full.clock), netlist = Netlist.compile(pruned.clock);
+        Random random = new Random(0L);
+        //An input of the LeafHalfAdder, outside the cone of the lowest sum
+        int suspended = full.ins.size() - 1;
+        Path file = Files.createTempFile("wires", ".checkpoint");
+        try {
+            given: {
+                netlist.observe(List.of(pruned.outs.get(0)));
+            }
+            for(int t = 0; t < TICKS; t++) {
+                when: {
+                    setRandomSignals(random, full, reference, pruned, netlist);
+                    reference.tick();
+                    netlist.tick();
+                }
+                then: {
+                    assertThat(pruned.outs.get(0).getSignal()).as("tick %s", t).isEqualTo(full.outs.get(0).getSignal());
+                }
+            }
+            then: {
+                assertThat(netlist.loggedSets()).isEqualTo(0);
+                assertThatThrownBy(() -> pruned.outs.get(full.outs.size() - 1).getSignal()).isInstanceOf(IllegalStateException.class);
+                assertThatThrownBy(netlist::observeAll).isInstanceOf(IllegalStateException.class);
+                assertThatThrownBy(() -> netlist.observe(List.of(pruned.outs.get(1)))).isInstanceOf(IllegalStateException.class);
+                //Ignored, since nothing observed reads it
+                pruned.ins.get(suspended).setSignal(Signal.of(true));
+            }
+            when: {
+                reference.checkpoint(file);
+                netlist.restore(file);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                setRandomSignals(random, full, reference, pruned, netlist);
+                reference.tick();
+                netlist.tick();
+            }
+        }
+        then: {
+            assertThat(netlist.bitParallel()).isNotNull();
+            for(int w = 0; w < full.outs.size(); w++) {
+                assertThat(pruned.outs.get(w).getSignal()).as("out %s", w).isEqualTo(full.outs.get(w).getSignal());
+            }
+        }
+    }
+
+    @Test
+    public void a_netlist_that_suspends_reactions_should_not_be_checkpointed() {
+        Circuit circuit = new Circuit();
+        Netlist netlist = Netlist.compile(circuit.clock);
+        given: {
+            netlist.observe(List.of(circuit.outs.get(0)));
+        }
+        then: {
+            assertThatThrownBy(() -> netlist.checkpoint(Path.of("unused"))).isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(netlist::bitParallel).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private static void setRandomSignals(Random random, Circuit circuit, Netlist netlist, Circuit other, Netlist otherNetlist) {
+        for(int c = random.nextInt(4); c > 0; c--) {
+            int i = random.nextInt(circuit.ins.size());
+            Signal<Boolean> s = random.nextInt(20) == 0 ? Signal.none() : Signal.of(random.nextBoolean());
+            netlist.setSignal(circuit.ins.get(i), s);
+            if(otherNetlist != null) otherNetlist.setSignal(other.ins.get(i), s);
+        }
+    }
+
+    @Test
+    public void clocks_with_appointments_should_not_compile() {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> in = Wire.make(), out = Wire.make();
+        given: {
+            Not.in(in).out(out).time(clock);
+            in.setSignal(Signal.of(true));
+        }
+        then: {
+            assertThatThrownBy(() -> Netlist.compile(clock)).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    /**
+     * A ripple-carry adder, plus 1 Box of each other kind that can be compiled, on their own Clock.
+     */
+    private static final class Circuit {
+        final Clock clock = Clock.createTime();
+        final List<Wire<Boolean>> ins = new ArrayList<>(), outs = new ArrayList<>();
+        //The changes notified to the listeners of the outs, which a Netlist doesn't notify
+        int changes = 0;
+
+        Circuit() {
+            Wire<Boolean> carry = in();
+            List<Wire<Boolean>> sums = new ArrayList<>();
+            for(int i = 0; i < BITS; i++) {
+                Wire<Boolean> sum = out(), nextCarry = out();
+                CompositeFullAdder.inA(in()).inB(in()).inCarry(carry).sum(sum).carry(nextCarry).time(clock);
+                sums.add(sum);
+                carry = nextCarry;
+            }
+            ReduceMultipleAnd.ins(sums).out(out()).time(clock);
+            Wire<Boolean> a = in(), b = in();
+            LeafHalfAdder.inA(a).inB(b).sum(out()).carry(out()).time(clock);
+            AnswerFirst.in1(a).in2(carry).out(out()).time(clock);
+            AnswerSecond.in1(carry).in2(b).out(out()).time(clock);
+            outs.forEach(out -> out.onSignalChanged(newSignal -> changes++));
+        }
+
+        private Wire<Boolean> in() {
+            Wire<Boolean> in = Wire.make();
+            ins.add(in);
+            return in;
+        }
+
+        private Wire<Boolean> out() {
+            Wire<Boolean> out = Wire.make();
+            outs.add(out);
+            return out;
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,149 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.core.boxes.exampleusage.composite.CompositeFullAdder;
+import fr.cla.wires.core.boxes.exampleusage.multipleinputs.CollectMultipleAnd;
+import fr.cla.wires.core.boxes.exampleusage.multipleinputs.ReduceMultipleAnd;
+import fr.cla.wires.core.boxes.exampleusage.reentrant.Counter;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class ParallelTickTest {
+
+    private static final int BITS = 64, ANDS = 32, COUNTERS = 8, TICKS = 500;
+    //Small enough that almost every Tick actually runs in parallel.
+    private static final int MIN_PARALLEL_TODOS = 2;
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterClass public static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void parallel_ticks_should_give_exactly_the_same_results_as_sequential_ticks() {
+        Circuit sequential = new Circuit(Clock.createTime());
+        Circuit parallel = new Circuit(Clock.createTime(new Clock.Agenda(POOL, MIN_PARALLEL_TODOS)));
+        Random random = new Random(0L);
+
+        for(int t = 0; t < TICKS; t++) {
+            when: {
+                //Change some inputs every few Ticks, so that changes overlap with the propagation of previous ones
+                if(t % 3 == 0) {
+                    for(int i = 0; i < sequential.ins.size(); i++) {
+                        if(random.nextInt(4) != 0) continue;
+                        Signal<Boolean> in = Signal.of(random.nextBoolean());
+                        sequential.ins.get(i).setSignal(in);
+                        parallel.ins.get(i).setSignal(in);
+                    }
+                }
+                sequential.clock.tick();
+                parallel.clock.tick();
+            }
+            then: {
+                assertThat(parallel.outs()).as("outs at tick %s", t).isEqualTo(sequential.outs());
+            }
+        }
+    }
+
+    @Test
+    public void the_failure_of_a_callback_should_propagate_out_of_tick() {
+        Clock clock = Clock.createTime(new Clock.Agenda(POOL, MIN_PARALLEL_TODOS));
+        List<Wire<Boolean>> ins = wires(ANDS), outs = wires(ANDS);
+        given: {
+            for(int i = 0; i < ANDS; i++) {
+                Wire<Boolean> in = ins.get(i), out = outs.get(i);
+                boolean fails = i == ANDS / 2;
+                new Box(clock, Box.DEFAULT_DELAY) {
+                    @Override protected Box startup() {
+                        onSignalChanged2(in).set(out).toResultOfApplying().signalValueTransformation(b -> {
+                            if(fails) throw new IllegalStateException("failing callback");
+                            return b;
+                        });
+                        return this;
+                    }
+                }.startup();
+            }
+            ins.forEach(in -> in.setSignal(Signal.of(true)));
+        }
+        Throwable failure;
+        when: {
+            try {
+                clock.tick();
+                failure = null;
+            } catch(IllegalStateException expected) {
+                failure = expected;
+            }
+        }
+        then: {
+            assertThat(failure).hasMessage("failing callback");
+            assertThat(outs.get(0).getSignal()).isEqualTo(Signal.of(true));
+        }
+    }
+
+    private static List<Wire<Boolean>> wires(int n) {
+        List<Wire<Boolean>> wires = new ArrayList<>(n);
+        for(int i = 0; i < n; i++) wires.add(Wire.make());
+        return wires;
+    }
+
+
+
+
+    /**
+     * A ripple-carry adder (deep, with reads of Wires written during the same Tick),
+     *  AND gates spanning all of its inputs (wide, reading many Wires),
+     *  and Counters (reentrant, never stabilizing).
+     */
+    private static final class Circuit {
+        private final Clock clock;
+        private final List<Wire<Boolean>> ins = wires(2 * BITS + 1);
+        private final List<Wire<Boolean>> booleanOuts = new ArrayList<>();
+        private final List<Wire<Long>> longOuts = new ArrayList<>();
+
+        private Circuit(Clock clock) {
+            this.clock = clock;
+
+            Wire<Boolean> carry = ins.get(2 * BITS);
+            for(int bit = 0; bit < BITS; bit++) {
+                Wire<Boolean> sum = Wire.make(), carryOut = Wire.make();
+                CompositeFullAdder.inA(ins.get(bit)).inB(ins.get(BITS + bit)).inCarry(carry)
+                    .sum(sum).carry(carryOut).time(clock);
+                booleanOuts.add(sum);
+                carry = carryOut;
+            }
+            booleanOuts.add(carry);
+
+            for(int i = 0; i < ANDS; i++) {
+                Wire<Boolean> collected = Wire.make(), reduced = Wire.make();
+                List<Wire<Boolean>> someIns = ins.subList(i, ins.size() - ANDS + i);
+                CollectMultipleAnd.ins(someIns).out(collected).time(clock);
+                ReduceMultipleAnd.ins(someIns).out(reduced).time(clock);
+                booleanOuts.add(collected);
+                booleanOuts.add(reduced);
+            }
+
+            for(int i = 0; i < COUNTERS; i++) {
+                Wire<Long> counter = Wire.make();
+                Counter.out(counter).step(i).time(clock);
+                longOuts.add(counter);
+            }
+        }
+
+        private List<Signal<?>> outs() {
+            List<Signal<?>> outs = booleanOuts.stream().map(Wire::getSignal).collect(toList());
+            longOuts.forEach(out -> outs.add(out.getSignal()));
+            return outs;
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,138 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.core.boxes.exampleusage.composite.CompositeFullAdder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class PartitionedSimulationTest {
+
+    private static final int PARTITIONS = 4, BITS_PER_PARTITION = 16, BITS = PARTITIONS * BITS_PER_PARTITION;
+    //More than the Delay of the Boxes that read the carries, so that forwarding them runs first in its Tick.
+    private static final Delay CHANNEL_DELAY = Delay.of(2);
+    private static final int RUNS = 300;
+
+    @Test
+    public void partitioned_ripple_carry_adder_should_give_exactly_the_same_results_as_on_a_single_clock() {
+        Clock single = Clock.createTime();
+        RippleCarryAdder reference = new RippleCarryAdder(
+            partition -> single,
+            (from, fromPartition, to, toPartition) -> new Forward(from, to, single).startup()
+        );
+        PartitionedSimulation simulation = PartitionedSimulation.create();
+        List<Clock> clocks = new ArrayList<>();
+        for(int p = 0; p < PARTITIONS; p++) clocks.add(simulation.partition());
+        RippleCarryAdder partitioned = new RippleCarryAdder(
+            clocks::get,
+            (from, fromPartition, to, toPartition) -> simulation.connect(
+                from, clocks.get(fromPartition), to, clocks.get(toPartition), CHANNEL_DELAY
+            )
+        );
+        Random random = new Random(0L);
+
+        for(int run = 0; run < RUNS; run++) {
+            when: {
+                for(int i = 0; i < reference.ins.size(); i++) {
+                    if(random.nextInt(8) != 0) continue;
+                    Signal<Boolean> in = Signal.of(random.nextBoolean());
+                    reference.ins.get(i).setSignal(in);
+                    partitioned.ins.get(i).setSignal(in);
+                }
+                //Vary how far the partitions run between 2 synchronizations with the calling thread
+                int ticks = 1 + random.nextInt(5);
+                for(int t = 0; t < ticks; t++) single.tick();
+                simulation.runUntil(single.now());
+            }
+            then: {
+                assertThat(partitioned.outs()).as("outs at tick %s", single.now()).isEqualTo(reference.outs());
+                clocks.forEach(clock -> assertThat(clock.now()).isEqualTo(single.now()));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_not_connect_a_partition_to_itself() {
+        PartitionedSimulation simulation = PartitionedSimulation.create();
+        Clock clock = simulation.partition();
+        simulation.connect(Wire.<Boolean>make(), clock, Wire.make(), clock, CHANNEL_DELAY);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void should_not_add_partitions_once_run() {
+        PartitionedSimulation simulation = PartitionedSimulation.create();
+        simulation.partition();
+        simulation.runUntil(Tick.number(1));
+        simulation.partition();
+    }
+
+
+
+
+    @FunctionalInterface
+    private interface Connect {
+        void connect(Wire<Boolean> from, int fromPartition, Wire<Boolean> to, int toPartition);
+    }
+
+    /**
+     * BITS CompositeFullAdders, each partition being a slice of BITS_PER_PARTITION of them,
+     *  with the carry of each slice connected to the carry in of the next one.
+     */
+    private static final class RippleCarryAdder {
+        private final List<Wire<Boolean>> ins = new ArrayList<>(), outs = new ArrayList<>();
+
+        private RippleCarryAdder(Function<Integer, Clock> partitions, Connect connect) {
+            for(int i = 0; i < 2 * BITS + 1; i++) ins.add(Wire.make());
+
+            Wire<Boolean> carry = ins.get(2 * BITS);
+            for(int bit = 0; bit < BITS; bit++) {
+                int partition = bit / BITS_PER_PARTITION;
+                if(bit > 0 && bit % BITS_PER_PARTITION == 0) {
+                    Wire<Boolean> carryIn = Wire.make();
+                    connect.connect(carry, partition - 1, carryIn, partition);
+                    carry = carryIn;
+                }
+                Wire<Boolean> sum = Wire.make(), carryOut = Wire.make();
+                CompositeFullAdder.inA(ins.get(bit)).inB(ins.get(BITS + bit)).inCarry(carry)
+                    .sum(sum).carry(carryOut).time(partitions.apply(partition));
+                outs.add(sum);
+                carry = carryOut;
+            }
+            outs.add(carry);
+        }
+
+        private List<Signal<Boolean>> outs() {
+            return outs.stream().map(Wire::getSignal).collect(toList());
+        }
+    }
+
+    /**
+     * What a channel amounts to on a single Clock.
+     */
+    private static final class Forward extends Box {
+        private final Wire<Boolean> from, to;
+
+        private Forward(Wire<Boolean> from, Wire<Boolean> to, Clock clock) {
+            super(clock, CHANNEL_DELAY);
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected Forward startup() {
+            this.onSignalChanged2(from)
+                .set(to)
+                .toResultOfApplying()
+                .signalValueTransformation(Function.identity());
+            return this;
+        }
+    }
+
+}
+//@formatter:on
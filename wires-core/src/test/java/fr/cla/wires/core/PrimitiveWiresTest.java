@@ -0,0 +1,115 @@
+package fr.cla.wires.core;
+
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class PrimitiveWiresTest {
+
+    private final Clock clock = Clock.createTime();
+
+    @Test
+    public void signal_should_initially_be_none() {
+        assertThat(BooleanWire.make().isNone()).isTrue();
+        assertThat(LongWire.make().getSignal()).isEqualTo(Signal.none());
+        assertThat(DoubleWire.make().getSignal()).isEqualTo(Signal.none());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void getAsLong_should_throw_when_none() {
+        LongWire.make().getAsLong();
+    }
+
+    @Test
+    public void listeners_should_only_be_notified_of_changes() {
+        LongWire wire = LongWire.make();
+        List<String> notified = new ArrayList<>();
+        given: {
+            wire.onSignalChanged((isNone, newValue) -> notified.add(isNone ? "none" : String.valueOf(newValue)));
+        }
+        when: {
+            wire.set(1L);
+            wire.set(1L);
+            wire.set(2L);
+            wire.setNone();
+            wire.setNone();
+            wire.setSignal(Signal.of(2L));
+        }
+        then: {
+            assertThat(notified).containsExactly("1", "2", "none", "2");
+        }
+    }
+
+    @Test
+    public void DoubleWire_should_compare_values_like_Double_equals() {
+        DoubleWire wire = DoubleWire.make();
+        List<Double> notified = new ArrayList<>();
+        given: {
+            wire.onSignalChanged((isNone, newValue) -> notified.add(newValue));
+        }
+        when: {
+            wire.set(Double.NaN);
+            wire.set(Double.NaN);
+            wire.set(0.0);
+            wire.set(-0.0);
+        }
+        then: {
+            assertThat(notified).containsExactly(Double.NaN, 0.0, -0.0);
+        }
+    }
+
+    @Test
+    public void toWire_and_following_should_follow_the_original_wire() {
+        BooleanWire primitive = BooleanWire.make();
+        Wire<Boolean> generic = primitive.toWire();
+        BooleanWire roundTrip = BooleanWire.following(generic);
+        when: {
+            primitive.set(true);
+        }
+        then: {
+            assertThat(generic.getSignal()).isEqualTo(Signal.of(true));
+            assertThat(roundTrip.getAsBoolean()).isTrue();
+        }
+        when: {
+            primitive.setNone();
+        }
+        then: {
+            assertThat(generic.getSignal()).isEqualTo(Signal.none());
+            assertThat(roundTrip.isNone()).isTrue();
+        }
+    }
+
+    @Test
+    public void callbacks_should_be_passed_the_value_at_the_time_of_the_change() {
+        DoubleWire in = DoubleWire.make();
+        List<String> seen = new ArrayList<>();
+        given: {
+            new Box(clock, Delay.of(2)) {
+                @Override protected Box startup() {
+                    onSignalChanged(in, (isNone, newValue) -> seen.add(isNone ? "none" : String.valueOf(newValue)));
+                    return this;
+                }
+            }.startup();
+        }
+        when: {
+            in.set(-0.0);
+            clock.tick();
+            in.setNone();
+            clock.tick();
+            in.set(Double.NaN);
+            clock.tick();
+            clock.tick();
+        }
+        then: {
+            assertThat(seen).containsExactly("-0.0", "none", "NaN");
+        }
+    }
+
+}
+//@formatter:on
@@ -34,5 +34,41 @@ public class SignalTest {
         ).isTrue();
     }
 
+
+    @Test
+    public void none_true_and_false_should_be_canonical() {
+        assertThat(Signal.none()).isSameAs(Signal.none());
+        assertThat(Signal.of(true)).isSameAs(Signal.of(Boolean.valueOf("true")));
+        assertThat(Signal.of(false)).isSameAs(Signal.of(false));
+    }
+
+    @Test
+    public void small_longs_and_integral_doubles_should_be_canonical() {
+        assertThat(Signal.of(-128L)).isSameAs(Signal.of(-128L));
+        assertThat(Signal.of(1023L)).isSameAs(Signal.of(Long.valueOf(1023L)));
+        assertThat(Signal.of(1.0)).isSameAs(Signal.of(1.0));
+        assertThat(Signal.of(0.0)).isSameAs(Signal.of(0.0));
+    }
+
+    @Test
+    public void other_values_should_not_be_canonical_but_still_be_equal() {
+        assertThat(Signal.of(1024L)).isNotSameAs(Signal.of(1024L)).isEqualTo(Signal.of(1024L));
+        assertThat(Signal.of(0.5)).isNotSameAs(Signal.of(0.5)).isEqualTo(Signal.of(0.5));
+        assertThat(Signal.of(Double.NaN)).isEqualTo(Signal.of(Double.NaN));
+    }
+
+    @Test
+    public void canonical_signals_should_not_equal_other_canonical_signals() {
+        assertThat(Signal.of(1L)).isNotEqualTo(Signal.of(1.0)).isNotEqualTo(Signal.of(true)).isNotEqualTo(Signal.none());
+        assertThat(Signal.of(true)).isNotEqualTo(Signal.of(false));
+    }
+
+    //-0.0 is not Double::equals to 0.0, so it must not get the canonical instance of 0.0
+    @Test
+    public void negative_zero_should_not_equal_zero() {
+        assertThat(Signal.of(-0.0)).isNotEqualTo(Signal.of(0.0));
+        assertThat(Signal.of(-0.0).value()).contains(-0.0);
+    }
+
 }
 //@formatter:on
@@ -0,0 +1,161 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.core.boxes.exampleusage.basic.And;
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class SimulationMetricsTest {
+
+    @Test
+    public void metrics_should_count_what_the_agenda_does() {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> a = Wire.make(), b = Wire.make(), notA = Wire.make(), out = Wire.make();
+        SimulationMetrics metrics;
+        List<SimulationMetrics.TickMetrics> ticks = new ArrayList<>();
+        given: {
+            Not.in(a).out(notA).time(clock);
+            And.in1(notA).in2(b).out(out).time(clock);
+            metrics = clock.enableMetrics();
+            metrics.onTick(ticks::add);
+        }
+        when: {
+            a.setSignal(Signal.of(false)); //Appoints the Not at tick 1
+            b.setSignal(Signal.of(true));  //Appoints the And at tick 1
+            b.setSignal(Signal.of(true));  //Suppressed
+            clock.tick();                  //notA changes: appoints the And at tick 2. out changes, no listener
+            clock.tick();                  //out doesn't change: suppressed
+            clock.tick();                  //Nothing to do
+        }
+        then: {
+            assertThat(ticks).hasSize(3);
+            assertThat(ticks.get(0).tick()).isEqualTo(Tick.number(1));
+            assertThat(ticks.get(0).scheduled()).isEqualTo(3);
+            assertThat(ticks.get(0).executed()).isEqualTo(2);
+            assertThat(ticks.get(0).pendingTicks()).isEqualTo(1);
+            assertThat(ticks.get(1).scheduled()).isEqualTo(0);
+            assertThat(ticks.get(1).executed()).isEqualTo(1);
+            assertThat(ticks.get(1).pendingTicks()).isEqualTo(0);
+            assertThat(ticks.get(2).executed()).isEqualTo(0);
+
+            SimulationMetrics.Snapshot snapshot = metrics.snapshot();
+            assertThat(snapshot.ticks()).isEqualTo(3);
+            assertThat(snapshot.scheduled()).isEqualTo(3);
+            assertThat(snapshot.executed()).isEqualTo(3);
+            assertThat(snapshot.maxQueueDepth()).isEqualTo(2);
+            assertThat(snapshot.pendingTicks()).isEqualTo(0);
+            //notA, out twice
+            assertThat(snapshot.setSignals()).isEqualTo(3);
+            assertThat(snapshot.suppressedSetSignals()).isEqualTo(1);
+            //a, b twice
+            assertThat(snapshot.setSignalsBetweenTicks()).isEqualTo(3);
+            assertThat(snapshot.suppressedSetSignalsBetweenTicks()).isEqualTo(1);
+            assertThat(snapshot.boxes()).containsOnlyKeys(Not.class, And.class);
+            assertThat(snapshot.boxes().get(Not.class).evaluations()).isEqualTo(1);
+            assertThat(snapshot.boxes().get(And.class).evaluations()).isEqualTo(2);
+            assertThat(snapshot.boxes().get(And.class).nanos()).isGreaterThan(0L);
+        }
+    }
+
+    @Test
+    public void disabled_metrics_should_not_count_anymore() {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> in = Wire.make(), out = Wire.make();
+        SimulationMetrics metrics;
+        given: {
+            Not.in(in).out(out).time(clock);
+            metrics = clock.enableMetrics();
+            in.setSignal(Signal.of(true));
+            clock.tick();
+        }
+        when: {
+            clock.disableMetrics();
+            in.setSignal(Signal.of(false));
+            clock.tick();
+        }
+        then: {
+            assertThat(clock.enableMetrics()).isNotSameAs(metrics);
+            assertThat(metrics.snapshot().ticks()).isEqualTo(1);
+            assertThat(metrics.snapshot().executed()).isEqualTo(1);
+            assertThat(metrics.snapshot().boxes().get(Not.class).evaluations()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void set_signals_should_only_be_counted_against_the_clock_that_runs_them_or_that_ticked_last() {
+        Clock measured = Clock.createTime(), other = Clock.createTime();
+        Wire<Boolean> in = Wire.make(), otherIn = Wire.make();
+        SimulationMetrics metrics, otherMetrics;
+        given: {
+            Not.in(in).out(Wire.make()).time(measured);
+            Not.in(otherIn).out(Wire.make()).time(other);
+            metrics = measured.enableMetrics();
+            otherMetrics = other.enableMetrics();
+        }
+        when: {
+            otherIn.setSignal(Signal.of(true)); //Between the Ticks of other, which enabled metrics last
+            other.tick();                       //The out of its Not
+            measured.tick();
+            in.setSignal(Signal.of(true));      //Between the Ticks of measured, which ticked last
+        }
+        then: {
+            assertThat(metrics.snapshot().setSignals()).isEqualTo(0);
+            assertThat(metrics.snapshot().setSignalsBetweenTicks()).isEqualTo(1);
+            assertThat(otherMetrics.snapshot().setSignals()).isEqualTo(1);
+            assertThat(otherMetrics.snapshot().setSignalsBetweenTicks()).isEqualTo(1);
+        }
+        measured.disableMetrics();
+        other.disableMetrics();
+    }
+
+    @Test
+    public void a_parallel_clock_should_count_the_set_signals_of_its_workers() {
+        Clock parallel = Clock.createParallelTime();
+        SimulationMetrics metrics;
+        given: {
+            metrics = notLayer(parallel);
+        }
+        then: {
+            //The outs of the 1000 Not gates, on the worker threads, and their ins between Ticks
+            assertThat(metrics.snapshot().setSignals()).isEqualTo(1_000);
+            assertThat(metrics.snapshot().setSignalsBetweenTicks()).isEqualTo(1_000);
+        }
+    }
+
+    @Test
+    public void a_parallel_clock_should_count_the_same_evaluations() {
+        Clock sequential = Clock.createTime(), parallel = Clock.createParallelTime();
+        SimulationMetrics sequentialMetrics, parallelMetrics;
+        given: {
+            sequentialMetrics = notLayer(sequential);
+            parallelMetrics = notLayer(parallel);
+        }
+        then: {
+            assertThat(parallelMetrics.snapshot().boxes().get(Not.class).evaluations())
+                .isEqualTo(sequentialMetrics.snapshot().boxes().get(Not.class).evaluations())
+                .isEqualTo(1_000);
+            assertThat(parallelMetrics.snapshot().maxQueueDepth()).isEqualTo(1_000);
+        }
+    }
+
+    //1000 Not gates reacting at the same Tick, so that a parallel Clock runs them in parallel.
+    private static SimulationMetrics notLayer(Clock clock) {
+        SimulationMetrics metrics = clock.enableMetrics();
+        for(int i = 0; i < 1_000; i++) {
+            Wire<Boolean> in = Wire.make();
+            Not.in(in).out(Wire.make()).time(clock);
+            in.setSignal(Signal.of(true));
+        }
+        clock.tick();
+        clock.disableMetrics();
+        return metrics;
+    }
+
+}
+//@formatter:on
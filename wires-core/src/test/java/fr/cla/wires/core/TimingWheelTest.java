@@ -0,0 +1,157 @@
+package fr.cla.wires.core;
+
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class TimingWheelTest {
+
+    private static final int SLOTS = 8;
+
+    private final TimingWheel wheel = new TimingWheel(SLOTS);
+    //Appointments are made through it, as by Boxes, with the Delay that leads to their tick.
+    private final Clock.Agenda agenda = new Clock.Agenda(wheel);
+    private final List<String> ran = new ArrayList<>();
+
+    @Test
+    public void now_should_initially_be_0() {
+        assertThat(wheel.now()).isEqualTo(0L);
+    }
+
+    @Test
+    public void advance_should_return_null_when_nothing_is_due() {
+        assertThat(wheel.advance()).isNull();
+        assertThat(wheel.now()).isEqualTo(1L);
+    }
+
+    @Test
+    public void should_run_todos_at_their_tick_in_fifo_order() {
+        given: {
+            appoint(2, "a");
+            appoint(1, "b");
+            appoint(2, "c");
+        }
+        when: {
+            runNext();
+        }
+        then: {
+            assertThat(ran).containsExactly("b");
+        }
+        when: {
+            runNext();
+        }
+        then: {
+            assertThat(ran).containsExactly("b", "a", "c");
+        }
+    }
+
+    @Test
+    public void should_reuse_ring_slots_once_their_tick_is_past() {
+        given: {
+            appoint(1, "a");
+            runNext();
+            appoint(1 + SLOTS, "b"); //Same slot as tick 1
+        }
+        when: {
+            for(int i = 0; i < SLOTS; i++) runNext();
+        }
+        then: {
+            assertThat(ran).containsExactly("a", "b");
+            assertThat(wheel.now()).isEqualTo(1L + SLOTS);
+        }
+    }
+
+    @Test
+    public void appointments_beyond_the_ring_should_go_through_the_overflow_tier() {
+        given: {
+            appoint(10 * SLOTS + 3, "far");
+        }
+        when: {
+            for(int i = 0; i < 10 * SLOTS + 2; i++) runNext();
+        }
+        then: {
+            assertThat(ran).isEmpty();
+        }
+        when: {
+            runNext();
+        }
+        then: {
+            assertThat(ran).containsExactly("far");
+        }
+    }
+
+    @Test
+    public void overflow_appointments_should_run_before_later_appointments_for_the_same_tick() {
+        long tick = 3 * SLOTS;
+        given: {
+            appoint(tick, "scheduledWhileFar");
+            while(tick - wheel.now() >= SLOTS) runNext();
+            appoint(tick, "scheduledWhileNear");
+        }
+        when: {
+            while(wheel.now() < tick) runNext();
+        }
+        then: {
+            assertThat(ran).containsExactly("scheduledWhileFar", "scheduledWhileNear");
+        }
+    }
+
+    @Test
+    public void advanceTo_should_jump_to_the_next_appointment_even_in_the_overflow_tier() {
+        given: {
+            appoint(10 * SLOTS, "far");
+            appoint(20 * SLOTS, "farther");
+        }
+        when: {
+            wheel.advanceTo(wheel.nextTick()).runAll();
+        }
+        then: {
+            assertThat(ran).containsExactly("far");
+            assertThat(wheel.now()).isEqualTo(10L * SLOTS);
+            assertThat(wheel.nextTick()).isEqualTo(20L * SLOTS);
+        }
+        when: {
+            appoint(10 * SLOTS + 1, "near");
+            wheel.advanceTo(wheel.nextTick()).runAll();
+            wheel.advanceTo(wheel.nextTick()).runAll();
+        }
+        then: {
+            assertThat(ran).containsExactly("far", "near", "farther");
+            assertThat(wheel.isEmpty()).isTrue();
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void advanceTo_should_not_skip_appointments() {
+        appoint(3, "a");
+        wheel.advanceTo(4);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void should_not_accept_appointments_in_the_past() {
+        runNext();
+        wheel.queueAt(1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void number_of_slots_should_be_a_power_of_2() {
+        new TimingWheel(12);
+    }
+
+    private void appoint(long tick, String todo) {
+        Delay delay = Delay.of(Math.toIntExact(tick - wheel.now()));
+        agenda.<Boolean>afterDelay(delay, signal -> ran.add(todo)).accept(Signal.none());
+    }
+
+    private void runNext() {
+        Tick.Queue due = wheel.advance();
+        if(due != null) due.runAll();
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,259 @@
+package fr.cla.wires.core;
+
+
+import fr.cla.wires.core.boxes.exampleusage.basic.Not;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//@formatter:off
+public class WaveformRecorderTest {
+
+    @Test @SuppressWarnings("try") //The recorder is only used for its close()
+    public void only_changes_should_be_recorded_with_their_tick() throws IOException {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> a = Wire.make(), notA = Wire.make();
+        Wire<Long> n = Wire.make();
+        Wire<Double> x = Wire.make();
+        List<String> lines;
+        Path file = Files.createTempFile("wires", ".vcd");
+        try {
+            given: {
+                Not.in(a).out(notA).time(clock);
+            }
+            when: {
+                try(WaveformRecorder recorder = WaveformRecorder.to(file)
+                    .bit("a", a).bit("notA", notA).integer("n", n).real("x", x)
+                    .time(clock)
+                ) {
+                    a.setSignal(Signal.of(false));
+                    n.setSignal(Signal.of(5L));
+                    clock.tick();                  //notA changes at tick 1
+                    x.setSignal(Signal.of(0.5));
+                    n.setSignal(Signal.of(5L));    //Doesn't change: not recorded
+                    a.setSignal(Signal.of(true));
+                    clock.tick();                  //notA changes at tick 2
+                    clock.tick();                  //Nothing changes
+                }
+                a.setSignal(Signal.of(false));     //After close: no longer listened to
+                lines = Files.readAllLines(file);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        then: {
+            assertThat(lines).containsExactly(
+                "$timescale 1 ns $end",
+                "$scope module wires $end",
+                "$var wire 1 ! a $end",
+                "$var wire 1 \" notA $end",
+                "$var integer 64 # n $end",
+                "$var real 64 $ x $end",
+                "$upscope $end",
+                "$enddefinitions $end",
+                "#0",
+                "$dumpvars",
+                "x!",
+                "x\"",
+                "bx #",
+                "rNaN $",
+                "$end",
+                "0!",
+                "b101 #",
+                "#1",
+                "1\"",
+                "r0.5 $",
+                "1!",
+                "#2",
+                "0\""
+            );
+        }
+    }
+
+    @Test @SuppressWarnings("try") //The recorder is only used for its close()
+    public void a_run_longer_than_the_buffers_should_be_recorded_entirely() throws IOException {
+        int ticks = 100_000;
+        Clock clock = Clock.createTime();
+        Wire<Long> n = Wire.make();
+        List<String> lines;
+        Path file = Files.createTempFile("wires", ".vcd");
+        try {
+            when: {
+                //Small buffers, so that the writer is handed many of them, and the simulation has to wait for it
+                try(WaveformRecorder recorder = WaveformRecorder.to(file).integer("n", n).bufferSize(256).time(clock)) {
+                    for(long t = 0; t < ticks; t++) {
+                        n.setSignal(Signal.of(-t));
+                        clock.tick();
+                    }
+                }
+                lines = Files.readAllLines(file);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        then: {
+            int header = lines.indexOf("$end") + 1;
+            assertThat(lines).hasSize(header + 2 * ticks - 1);
+            //At tick 0, right after the $dumpvars
+            assertThat(lines.get(header)).isEqualTo("b0 !");
+            for(int t = 1; t < ticks; t++) {
+                assertThat(lines.get(header + 2 * t - 1)).isEqualTo("#" + t);
+                assertThat(lines.get(header + 2 * t)).isEqualTo("b" + Long.toBinaryString(-t) + " !");
+            }
+        }
+    }
+
+    @Test(timeout = 60_000) //Racing listeners can also deadlock on the pool of buffers
+    public void a_parallel_clock_should_record_the_same_changes_as_a_sequential_one() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            //Small enough that every Tick runs in parallel
+            List<String> sequential = recordNots(Clock.createTime(), false);
+            List<String> parallel = recordNots(Clock.createTime(new Clock.Agenda(pool, 2)), false);
+            then: {
+                assertThat(sortedWithinTicks(parallel)).isEqualTo(sortedWithinTicks(sequential));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test @SuppressWarnings("try") //The recorder is only used for its close()
+    public void closing_should_unregister_the_listeners_of_the_traced_wires() throws IOException {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> a = Wire.make(), notA = Wire.make();
+        int listening, whileRecording, closed;
+        Path file = Files.createTempFile("wires", ".vcd");
+        try {
+            given: {
+                Not.in(a).out(notA).time(clock);
+                listening = a.listenerCount();
+            }
+            when: {
+                try(WaveformRecorder recorder = WaveformRecorder.to(file).bit("a", a).bit("notA", notA).time(clock)) {
+                    whileRecording = a.listenerCount();
+                }
+                closed = a.listenerCount();
+            }
+        } finally {
+            Files.delete(file);
+        }
+        then: {
+            assertThat(whileRecording).isEqualTo(listening + 1);
+            assertThat(closed).isEqualTo(listening);
+            assertThat(notA.listenerCount()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void a_netlist_should_record_the_same_changes_as_its_clock() throws IOException {
+        List<String> simulated = recordNots(Clock.createTime(), false);
+        List<String> compiled = recordNots(Clock.createTime(), true);
+        then: {
+            //Not only the header
+            assertThat(compiled.size()).isGreaterThan(200 * 64);
+            assertThat(sortedWithinTicks(compiled)).isEqualTo(sortedWithinTicks(simulated));
+        }
+    }
+
+    @Test
+    public void a_netlist_should_not_record_wires_it_suspends() throws IOException {
+        Clock clock = Clock.createTime();
+        Wire<Boolean> a = Wire.make(), notA = Wire.make(), b = Wire.make(), notB = Wire.make();
+        Netlist netlist;
+        given: {
+            Not.in(a).out(notA).time(clock);
+            Not.in(b).out(notB).time(clock);
+            netlist = Netlist.compile(clock);
+            netlist.observe(List.of(notA));
+        }
+        then: {
+            assertThatThrownBy(() -> WaveformRecorder.to(Path.of("unused.vcd")).bit("notB", notB).time(netlist))
+                .isInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> WaveformRecorder.to(Path.of("unused.vcd")).bit("other", Wire.make()).time(netlist))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void a_file_that_cant_be_opened_should_throw() throws IOException {
+        Path dir = Files.createTempDirectory("wires");
+        try {
+            then: {
+                assertThatThrownBy(() -> WaveformRecorder.to(dir).bit("a", Wire.make()).time(Clock.createTime()))
+                    .isInstanceOf(UncheckedIOException.class);
+            }
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void names_should_be_vcd_identifiers() {
+        then: {
+            assertThatThrownBy(() -> WaveformRecorder.to(Path.of("unused.vcd")).bit("a b", Wire.make()))
+                .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> WaveformRecorder.to(Path.of("unused.vcd")).bit("", Wire.make()))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    //NOTS Not gates whose ins all toggle at each Tick, and whose outs are all recorded: so all of them change at each Tick.
+    //If compiled, simulated by a Netlist rather than by clock.
+    @SuppressWarnings("try") //The recorder is only used for its close()
+    private static List<String> recordNots(Clock clock, boolean compiled) throws IOException {
+        int nots = 64, ticks = 200;
+        List<Wire<Boolean>> ins = new ArrayList<>(), outs = new ArrayList<>();
+        for(int i = 0; i < nots; i++) {
+            ins.add(Wire.make());
+            outs.add(Wire.make());
+            Not.in(ins.get(i)).out(outs.get(i)).time(clock);
+        }
+        Path file = Files.createTempFile("wires", ".vcd");
+        //Small buffers, so that the recorder often waits for the writer in the middle of a Tick
+        WaveformRecorder.Builder builder = WaveformRecorder.to(file).bufferSize(256);
+        for(int i = 0; i < nots; i++) builder.bit("out" + i, outs.get(i));
+        try {
+            Netlist netlist = compiled ? Netlist.compile(clock) : null;
+            try(WaveformRecorder recorder = compiled ? builder.time(netlist) : builder.time(clock)) {
+                for(int t = 0; t < ticks; t++) {
+                    Signal<Boolean> value = Signal.of(t % 2 == 0);
+                    if(compiled) ins.forEach(in -> netlist.setSignal(in, value));
+                    else ins.forEach(in -> in.setSignal(value));
+                    if(compiled) netlist.tick();
+                    else clock.tick();
+                }
+            }
+            return Files.readAllLines(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    //The order of the changes within a Tick doesn't matter in VCD: a parallel Clock may record them in any order.
+    private static List<String> sortedWithinTicks(List<String> lines) {
+        List<String> sorted = new ArrayList<>(lines.size());
+        int from = 0;
+        for(int i = 0; i <= lines.size(); i++) {
+            if(i < lines.size() && !lines.get(i).startsWith("#")) continue;
+            List<String> tick = new ArrayList<>(lines.subList(from, i));
+            Collections.sort(tick);
+            sorted.addAll(tick);
+            if(i < lines.size()) sorted.add(lines.get(i));
+            from = i + 1;
+        }
+        return sorted;
+    }
+
+}
+//@formatter:on
@@ -3,6 +3,11 @@ package fr.cla.wires.core;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 //@formatter:off
@@ -14,5 +19,82 @@ public class WireTest {
         assertThat(w.getSignal()).isEqualTo(Signal.none());
     }
 
+    @Test
+    public void listeners_should_be_notified_once_each_in_the_order_they_were_registered() {
+        Wire<Boolean> w = Wire.make();
+        List<Integer> notified = new ArrayList<>();
+        given: {
+            List<OnSignalChanged<Boolean>> listeners = new ArrayList<>();
+            for(int i = 0; i < 10; i++) {
+                int index = i;
+                listeners.add(newSignal -> notified.add(index));
+            }
+            listeners.forEach(w::onSignalChanged);
+            //Registering a listener again has no effect
+            w.onSignalChanged(listeners.get(3));
+        }
+        when: {
+            w.setSignal(Signal.of(true));
+        }
+        then: {
+            assertThat(notified).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        }
+    }
+
+    @Test
+    public void listeners_should_still_be_registered_once_each_past_those_that_are_scanned() {
+        Wire<Boolean> w = Wire.make();
+        int count = 10 * Wire.SCANNED_LISTENERS;
+        List<Integer> notified = new ArrayList<>();
+        given: {
+            List<OnSignalChanged<Boolean>> listeners = new ArrayList<>();
+            for(int i = 0; i < count; i++) {
+                int index = i;
+                listeners.add(newSignal -> notified.add(index));
+            }
+            for(int i = 0; i < count; i++) {
+                w.onSignalChanged(listeners.get(i));
+                //Registered again, before and after the Set takes over from the scan
+                w.onSignalChanged(listeners.get(i / 2));
+            }
+        }
+        when: {
+            w.setSignal(Signal.of(true));
+        }
+        then: {
+            assertThat(notified).containsExactlyElementsOf(
+                IntStream.range(0, count).boxed().collect(toList())
+            );
+        }
+    }
+
+    @Test
+    public void removed_listeners_should_no_longer_be_notified_and_the_others_still_in_order() {
+        Wire<Boolean> w = Wire.make();
+        int count = 2 * Wire.SCANNED_LISTENERS;
+        List<Integer> notified = new ArrayList<>();
+        given: {
+            List<OnSignalChanged<Boolean>> listeners = new ArrayList<>();
+            for(int i = 0; i < count; i++) {
+                int index = i;
+                listeners.add(newSignal -> notified.add(index));
+            }
+            listeners.forEach(w::onSignalChanged);
+            //The odd ones, until the scan takes over from the Set
+            for(int i = 1; i < count; i += 2) w.removeSignalChanged(listeners.get(i));
+            //Removing a listener again has no effect
+            w.removeSignalChanged(listeners.get(1));
+            //Registering a listener again once removed registers it again, at the end
+            w.onSignalChanged(listeners.get(1));
+        }
+        when: {
+            w.setSignal(Signal.of(true));
+        }
+        then: {
+            assertThat(w.listenerCount()).isEqualTo(count / 2 + 1);
+            assertThat(notified).containsExactly(0, 2, 4, 6, 8, 10, 12, 14, 1);
+        }
+    }
+
 }
 //@formatter:on
\ No newline at end of file
@@ -0,0 +1,112 @@
+package fr.cla.wires.core.boxes.exampleusage.primitive;
+
+
+import fr.cla.wires.core.BooleanWire;
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.core.boxes.exampleusage.basic.And;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+/**
+ * An example of the expected behaviour of Boxes, and of how to tick the clock.
+ * @see fr.cla.wires.core.boxes.exampleusage
+ */
+public class BooleanAndTest {
+
+    private BooleanWire in1, in2, out;
+    private Clock clock;
+
+    @Before public void setup() {
+        in1 = BooleanWire.make();
+        in2 = BooleanWire.make();
+        out = BooleanWire.make();
+        clock = Clock.createTime();
+        BooleanAnd.in1(in1).in2(in2).out(out).time(clock);
+    }
+
+    @Test
+    public void out_should_be_false_when_1_is_false_and_2_is_true() {
+        given: {
+            in1.set(false);
+            in2.set(true);
+        }
+        when: {
+            clock.tick();
+        }
+        then: {
+            assertThat(out.isNone()).isFalse();
+            assertThat(out.getAsBoolean()).isFalse();
+        }
+    }
+
+    @Test
+    public void out_should_be_true_when_1_and_2_are_true() {
+        given: {
+            in1.set(true);
+            in2.set(true);
+        }
+        when: {
+            clock.tick();
+        }
+        then: {
+            assertThat(out.isNone()).isFalse();
+            assertThat(out.getAsBoolean()).isTrue();
+        }
+    }
+
+    @Test
+    public void out_should_be_none_when_1_is_none() {
+        given: {
+            in2.set(true);
+        }
+        when: {
+            clock.tick();
+        }
+        then: {
+            assertThat(out.isNone()).isTrue();
+        }
+    }
+
+    @Test
+    public void should_behave_like_And_on_Wires() {
+        Clock andClock = Clock.createTime();
+        Wire<Boolean> wire1 = Wire.make(), wire2 = Wire.make(), wireOut = Wire.make();
+        And.in1(wire1).in2(wire2).out(wireOut).time(andClock);
+        Wire<Boolean> outAsWire = out.toWire();
+        Random random = new Random(0L);
+
+        for(int t = 0; t < 100; t++) {
+            when: {
+                if(random.nextBoolean()) {
+                    Signal<Boolean> s1 = randomSignal(random);
+                    wire1.setSignal(s1);
+                    in1.setSignal(s1);
+                }
+                if(random.nextBoolean()) {
+                    Signal<Boolean> s2 = randomSignal(random);
+                    wire2.setSignal(s2);
+                    in2.setSignal(s2);
+                }
+                clock.tick();
+                andClock.tick();
+            }
+            then: {
+                assertThat(out.getSignal()).isEqualTo(wireOut.getSignal());
+                assertThat(outAsWire.getSignal()).isEqualTo(wireOut.getSignal());
+            }
+        }
+    }
+
+    private static Signal<Boolean> randomSignal(Random random) {
+        return random.nextInt(5) == 0 ? Signal.none() : Signal.of(random.nextBoolean());
+    }
+
+}
+//@formatter:on
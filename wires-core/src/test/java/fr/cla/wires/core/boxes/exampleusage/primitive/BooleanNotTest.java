@@ -0,0 +1,91 @@
+package fr.cla.wires.core.boxes.exampleusage.primitive;
+
+
+import fr.cla.wires.core.BooleanWire;
+import fr.cla.wires.core.Clock;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+/**
+ * An example of the expected behaviour of Boxes, and of how to tick the clock.
+ * @see fr.cla.wires.core.boxes.exampleusage
+ */
+public class BooleanNotTest {
+
+    private BooleanWire in, out;
+    private Clock clock;
+
+    @Before
+    public void setup() {
+        in = BooleanWire.make();
+        out = BooleanWire.make();
+        clock = Clock.createTime();
+        BooleanNot.in(in).out(out).time(clock);
+    }
+
+    @Test
+    public void out_should_initially_be_none() {
+        assertThat(out.isNone()).isTrue();
+    }
+
+    @Test
+    public void out_should_be_false_when_in_is_true() {
+        given: {
+            in.set(true);
+        }
+        when: {
+            clock.tick();
+        }
+        then: {
+            assertThat(out.getAsBoolean()).isFalse();
+        }
+    }
+
+    @Test
+    public void out_should_be_true_when_in_is_false() {
+        given: {
+            in.set(false);
+        }
+        when: {
+            clock.tick();
+        }
+        then: {
+            assertThat(out.getAsBoolean()).isTrue();
+        }
+    }
+
+    @Test
+    public void out_should_be_none_again_when_in_is_none_again() {
+        given: {
+            in.set(false);
+            clock.tick();
+        }
+        when: {
+            in.setNone();
+            clock.tick();
+        }
+        then: {
+            assertThat(out.isNone()).isTrue();
+        }
+    }
+
+    @Test
+    public void should_react_to_each_value_in_the_order_it_was_set() {
+        given: {
+            in.set(false);
+            clock.tick();
+            in.set(true);
+        }
+        when: {
+            clock.tick();
+        }
+        then: {
+            assertThat(out.getAsBoolean()).isFalse();
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,6 @@
+/**
+ * Example where Boxes:
+ *  -have a fixed number of inputs/outputs,
+ *  -and connect primitive wires (BooleanWire, LongWire, DoubleWire) rather than Wires, so that they run without allocating
+ */
+package fr.cla.wires.core.boxes.exampleusage.primitive;
@@ -66,6 +66,18 @@ public class CounterTest {
         }
     }
     
+    @Test
+    public void runUntilQuiescent_should_stop_after_maxTicks_since_a_counter_never_stabilizes() {
+        boolean quiescent;
+        when: {
+            quiescent = clock.runUntilQuiescent(10);
+        }
+        then: {
+            assertThat(quiescent).isFalse();
+            assertThat(out.getSignal()).isEqualTo(Signal.of(10L));
+        }
+    }
+
     @Test
     public void should_not_overflow_silently() {
         given: {
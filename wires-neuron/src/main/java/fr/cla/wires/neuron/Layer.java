@@ -2,6 +2,7 @@ package fr.cla.wires.neuron;
 
 import fr.cla.wires.core.Clock;
 import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.Signal;
 import fr.cla.wires.core.Wire;
 import fr.cla.wires.core.boxes.CollectIndexedHomogeneousInputs;
 import fr.cla.wires.support.functional.Indexed;
@@ -22,6 +23,7 @@ implements GroupOfUnits{
 
     private final double threshold;
     private final List<Double> weigths;
+    private final WeightedSum weightedSum;
 
     protected Layer(List<Wire<Double>> ins, Wire<Double> out, double threshold, List<Double> weigths, Clock clock) {
         this(ins, out, threshold, weigths, clock, DEFAULT_DELAY);
@@ -31,12 +33,14 @@ implements GroupOfUnits{
         super(ins, out, clock, delay);
         this.threshold = threshold;
         this.weigths = new ArrayList<>(weigths);
+        this.weightedSum = new WeightedSum(weigths, threshold, ins.size());
     }
 
     protected Layer(List<Wire<Double>> ins, List<Wire<Double>> outs, double threshold, List<Double> weigths, Clock clock, Delay delay) {
         super(ins, outs, clock, delay);
         this.threshold = threshold;
         this.weigths = new ArrayList<>(weigths);
+        this.weightedSum = new WeightedSum(weigths, threshold, ins.size());
     }
 
     @Override
@@ -58,6 +62,12 @@ implements GroupOfUnits{
         return potential -> potential > threshold ? 1.0 : 0.0;
     }
 
+    //Same as collecting weight(), accumulator() and finisher(), on primitive arrays.
+    @Override
+    protected Function<List<Wire<Double>>, Signal<Double>> evaluation() {
+        return weightedSum::fire;
+    }
+
     @Override protected Layer startup() {
         super.startup();
         return this;
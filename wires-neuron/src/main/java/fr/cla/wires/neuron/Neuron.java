@@ -2,6 +2,8 @@ package fr.cla.wires.neuron;
 
 import fr.cla.wires.core.Clock;
 import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Netlist;
 import fr.cla.wires.core.Wire;
 import fr.cla.wires.core.boxes.CollectIndexedHomogeneousInputs;
 import fr.cla.wires.support.functional.Indexed;
@@ -27,6 +29,7 @@ public class Neuron extends CollectIndexedHomogeneousInputs<Double, Double, Long
 
     private final double threshold;
     private final List<Double> weigths;
+    private final WeightedSum weightedSum;
 
     protected Neuron(List<Wire<Double>> ins, Wire<Double> out, double threshold, List<Double> weigths, Clock clock) {
         this(ins, out, threshold, weigths, clock, DEFAULT_DELAY);
@@ -36,12 +39,14 @@ public class Neuron extends CollectIndexedHomogeneousInputs<Double, Double, Long
         super(ins, out, clock, delay);
         this.threshold = threshold;
         this.weigths = new ArrayList<>(weigths);
+        this.weightedSum = new WeightedSum(weigths, threshold, ins.size());
     }
 
     protected Neuron(List<Wire<Double>> ins, List<Wire<Double>> outs, double threshold, List<Double> weigths, Clock clock, Delay delay) {
         super(ins, outs, clock, delay);
         this.threshold = threshold;
         this.weigths = new ArrayList<>(weigths);
+        this.weightedSum = new WeightedSum(weigths, threshold, ins.size());
     }
 
     @Override
@@ -63,6 +68,17 @@ public class Neuron extends CollectIndexedHomogeneousInputs<Double, Double, Long
         return potential -> potential > threshold ? 1.0 : 0.0;
     }
 
+    //Same as collecting weight(), accumulator() and finisher(), on primitive arrays.
+    @Override
+    protected Function<List<Wire<Double>>, Signal<Double>> evaluation() {
+        return weightedSum::fire;
+    }
+
+    @Override
+    protected void compile(Netlist.Compiler compiler) {
+        ins().forEach(in -> compiler.threshold(in, ins(), weigths, threshold, outs()));
+    }
+
     /**
      * This method is used to not do the startup in the constructor,
      * to avoid letting "this" escape through the method ref,
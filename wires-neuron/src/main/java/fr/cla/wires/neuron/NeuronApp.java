@@ -32,7 +32,7 @@ public class NeuronApp {
             ins.forEach(in -> in.setSignal(
                 Signal.of(ThreadLocalRandom.current().nextDouble())
             ));
-            clock.tick();
+            clock.runUntilQuiescent(Long.MAX_VALUE);
             System.out.printf(
                 "now: %s, out: %s%n",
                 clock.now(), out.getSignal()
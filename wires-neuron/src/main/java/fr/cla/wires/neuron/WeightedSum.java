@@ -0,0 +1,64 @@
+package fr.cla.wires.neuron;
+
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+
+import java.util.List;
+import java.util.Optional;
+
+//@formatter:off
+/**
+ * The potential of a Neuron (or of the units of a Layer), computed on primitive arrays:
+ *  the Signals of the inputs are gathered into a double[], then multiplied by the weights and summed by dot().
+ * This spares what collecting Indexed<Double>s through an Accumulable costs for each input
+ *  (boxing, 1 Indexed and 1 Optional per input, and the Stream pipeline).
+ *
+ * Gives exactly the same results as weight(), accumulator() and finisher() of Neuron, since dot() sums from left to right:
+ *  reassociating the sum (eg. into several accumulators, or SIMD lanes with the Vector API once the build targets
+ *  a JDK that has it) would change the rounding, and thus which potentials reach the threshold.
+ */
+final class WeightedSum {
+
+    private final double[] weights;
+    private final double threshold;
+    //Only ever used by the reactions of 1 Box, which all write the same targets, so that even a parallel Clock
+    // runs them one after the other (see ParallelTick).
+    private final double[] values;
+
+    WeightedSum(List<Double> weights, double threshold, int inputs) {
+        this.weights = weights.stream().mapToDouble(Double::doubleValue).toArray();
+        this.threshold = threshold;
+        this.values = new double[inputs];
+    }
+
+    /**
+     * @return none if any input is none, else 1.0 if the weighted sum of the inputs is > threshold, else 0.0
+     * @throws IndexOutOfBoundsException if there are less weights than inputs, like Neuron::weight
+     */
+    Signal<Double> fire(List<Wire<Double>> ins) {
+        double[] values = this.values;
+        for(int i = 0; i < values.length; i++) {
+            Optional<Double> value = ins.get(i).getSignal().value();
+            if(value.isEmpty()) return Signal.none();
+            values[i] = value.get();
+        }
+        return Signal.of(dot(values, weights) > threshold ? 1.0 : 0.0);
+    }
+
+    /**
+     * @return the sum of values[i] * weights[i] for i from 0 to values.length - 1, in that order
+     *  (like reducing the products with Double::sum, starting from the first, not from 0.0)
+     */
+    static double dot(double[] values, double[] weights) {
+        if(values.length == 0) throw new IllegalArgumentException("Can't sum no values");
+        if(weights.length < values.length) throw new IndexOutOfBoundsException(
+            "Only " + weights.length + " weights for " + values.length + " values"
+        );
+
+        double sum = values[0] * weights[0];
+        for(int i = 1; i < values.length; i++) sum += values[i] * weights[i];
+        return sum;
+    }
+
+}
+//@formatter:on
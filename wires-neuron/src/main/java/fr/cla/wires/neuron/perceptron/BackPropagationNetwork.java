@@ -1,4 +1,271 @@
 package fr.cla.wires.neuron.perceptron;
 
+import fr.cla.wires.neuron.TransferFunction;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * A FeedForwardNetwork trained by backpropagation, with mini-batch stochastic gradient descent on the squared error:
+ *  -each epoch shuffles the samples, and cuts them into mini-batches of batchSize,
+ *  -the gradient of each mini-batch is the sum of those of its samples, computed in parallel on the ForkJoinPool
+ *   (forward pass, then errors propagated back through TransferFunction::derivative), then reduced,
+ *  -the weights are updated once per mini-batch, by learningRate times the mean gradient.
+ *
+ * A mini-batch is cut into up to TASKS_PER_BATCH tasks of samplesPerTask samples (the last one may have less),
+ *  which only depends on batchSize: so even small mini-batches are back-propagated in parallel.
+ * Since the tasks don't depend on the parallelism of the pool, and their gradients are summed in the same order,
+ *  the same seed trains the same weights on any pool, to the last bit.
+ * The weights must not be read while train() runs.
+ */
 public class BackPropagationNetwork extends FeedForwardNetwork {
+
+    static final int TASKS_PER_BATCH = 8;
+
+    private final double learningRate;
+    private final int batchSize, samplesPerTask;
+    private final ForkJoinPool pool;
+    private final DoubleUnaryOperator derivative;
+    private final SplittableRandom random;
+
+    protected BackPropagationNetwork(
+        int[] sizes, TransferFunction transferFunction, double[][] weights,
+        double learningRate, int batchSize, ForkJoinPool pool, SplittableRandom random
+    ) {
+        super(sizes, transferFunction, weights);
+        this.learningRate = learningRate;
+        this.batchSize = batchSize;
+        this.samplesPerTask = (batchSize + TASKS_PER_BATCH - 1) / TASKS_PER_BATCH;
+        this.pool = requireNonNull(pool);
+        this.derivative = transferFunction.derivative();
+        this.random = requireNonNull(random);
+    }
+
+    /**
+     * @param sizes The number of inputs, then of units of each layer: the last one is the number of outputs
+     */
+    public static Builder layers(int... sizes) {
+        return new Builder(sizes);
+    }
+
+    /**
+     * @param inputs The inputs of each sample
+     * @param targets The outputs expected for each sample
+     * @return the mean squared error (half the sum of the squares over the outputs) of the samples during the last epoch
+     */
+    public double train(double[][] inputs, double[][] targets, int epochs) {
+        if(inputs.length != targets.length) throw new IllegalArgumentException(
+            "Expected as many targets as inputs, got: " + targets.length + " and " + inputs.length
+        );
+        if(inputs.length == 0) throw new IllegalArgumentException("Expected at least 1 sample");
+        if(epochs < 1) throw new IllegalArgumentException("epochs must be >= 1, was: " + epochs);
+        for(int s = 0; s < inputs.length; s++) {
+            checkLength(inputs[s], inputs(), "inputs[" + s + "]");
+            checkLength(targets[s], outputs(), "targets[" + s + "]");
+        }
+
+        int[] order = new int[inputs.length];
+        for(int s = 0; s < order.length; s++) order[s] = s;
+        double error = 0.0;
+        for(int epoch = 0; epoch < epochs; epoch++) {
+            shuffle(order);
+            error = 0.0;
+            for(int from = 0; from < order.length; from += batchSize) {
+                int to = Math.min(order.length, from + batchSize);
+                Gradient gradient = pool.invoke(new Batch(inputs, targets, order, from, to));
+                update(gradient, to - from);
+                error += gradient.error;
+            }
+        }
+        return error / inputs.length;
+    }
+
+    private void shuffle(int[] order) {
+        for(int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1), swapped = order[i];
+            order[i] = order[j];
+            order[j] = swapped;
+        }
+    }
+
+    /**
+     * @return the size of the tasks that a mini-batch is cut into, at least 1
+     */
+    int samplesPerTask() {
+        return samplesPerTask;
+    }
+
+    private void update(Gradient gradient, int samples) {
+        double step = learningRate / samples;
+        for(int l = 0; l < weights.length; l++) {
+            double[] w = weights[l], g = gradient.weights[l];
+            for(int k = 0; k < w.length; k++) w[k] -= step * g[k];
+        }
+    }
+
+    /**
+     * Adds the gradient of the error of 1 sample to gradient, the weights being left as is.
+     * potentials and activations are scratch arrays, 1 per layer (activations[0] is the input).
+     */
+    void backPropagate(double[] input, double[] target, Gradient gradient, double[][] potentials, double[][] activations) {
+        int last = weights.length;
+        activations[0] = input;
+        for(int l = 0; l < last; l++) {
+            double[] z = potentials[l + 1], a = activations[l + 1];
+            for(int j = 0; j < z.length; j++) {
+                z[j] = potential(weights[l], j, activations[l]);
+                a[j] = transferFunction.applyAsDouble(z[j]);
+            }
+        }
+
+        //The errors of the last layer, then of each layer before it, are computed in place of its potentials.
+        double[] output = activations[last], errors = potentials[last];
+        for(int j = 0; j < errors.length; j++) {
+            double difference = output[j] - target[j];
+            gradient.error += 0.5 * difference * difference;
+            errors[j] = difference * derivative.applyAsDouble(errors[j]);
+        }
+        for(int l = last - 1; l >= 0; l--) {
+            double[] w = weights[l], g = gradient.weights[l], ins = activations[l], outErrors = potentials[l + 1];
+            int stride = ins.length + 1;
+            for(int j = 0; j < outErrors.length; j++) {
+                int row = j * stride;
+                double error = outErrors[j];
+                for(int i = 0; i < ins.length; i++) g[row + i] += error * ins[i];
+                g[row + ins.length] += error;
+            }
+            if(l == 0) break;
+            double[] inErrors = potentials[l];
+            for(int i = 0; i < inErrors.length; i++) {
+                double sum = 0.0;
+                for(int j = 0; j < outErrors.length; j++) sum += w[j * stride + i] * outErrors[j];
+                inErrors[i] = sum * derivative.applyAsDouble(inErrors[i]);
+            }
+        }
+    }
+
+
+
+
+    /**
+     * The sum of the gradients of the errors of some samples, with the same layout as the weights, and the sum of the errors.
+     */
+    static final class Gradient {
+        final double[][] weights;
+        double error;
+
+        Gradient(double[][] like) {
+            this.weights = new double[like.length][];
+            for(int l = 0; l < like.length; l++) this.weights[l] = new double[like[l].length];
+        }
+
+        Gradient add(Gradient other) {
+            for(int l = 0; l < weights.length; l++) {
+                double[] g = weights[l], o = other.weights[l];
+                for(int k = 0; k < g.length; k++) g[k] += o[k];
+            }
+            error += other.error;
+            return this;
+        }
+    }
+
+    //Splits the samples order[from] to order[to - 1] in halves of whole tasks, down to tasks of samplesPerTask, and sums their gradients.
+    private final class Batch extends RecursiveTask<Gradient> {
+        private final double[][] inputs, targets;
+        private final int[] order;
+        private final int from, to;
+
+        private Batch(double[][] inputs, double[][] targets, int[] order, int from, int to) {
+            this.inputs = inputs;
+            this.targets = targets;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Gradient compute() {
+            int tasks = (to - from + samplesPerTask - 1) / samplesPerTask;
+            if(tasks <= 1) return computeDirectly();
+            int middle = from + tasks / 2 * samplesPerTask;
+            Batch right = new Batch(inputs, targets, order, middle, to);
+            right.fork();
+            Gradient left = new Batch(inputs, targets, order, from, middle).compute();
+            return left.add(right.join());
+        }
+
+        private Gradient computeDirectly() {
+            Gradient gradient = new Gradient(weights);
+            double[][] potentials = new double[sizes.length][], activations = new double[sizes.length][];
+            for(int l = 1; l < sizes.length; l++) {
+                potentials[l] = new double[sizes[l]];
+                activations[l] = new double[sizes[l]];
+            }
+            for(int s = from; s < to; s++) {
+                backPropagate(inputs[order[s]], targets[order[s]], gradient, potentials, activations);
+            }
+            return gradient;
+        }
+    }
+
+    public static class Builder {
+        private final int[] sizes;
+        private TransferFunction transferFunction = TransferFunction.logistic();
+        private double learningRate = 0.5;
+        private int batchSize = 32;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        private Builder(int[] sizes) {
+            this.sizes = sizes.clone();
+        }
+
+        /**
+         * @param transferFunction Must be derivable, logistic() by default
+         */
+        public Builder transferFunction(TransferFunction transferFunction) {
+            this.transferFunction = requireNonNull(transferFunction);
+            return this;
+        }
+
+        public Builder learningRate(double learningRate) {
+            if(!(learningRate > 0.0)) throw new IllegalArgumentException("learningRate must be > 0, was: " + learningRate);
+            this.learningRate = learningRate;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            if(batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1, was: " + batchSize);
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param pool Where the samples of each mini-batch are back-propagated, the common pool by default
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = requireNonNull(pool);
+            return this;
+        }
+
+        /**
+         * @param seed Of the initial weights, uniform in +/- 1/sqrt(the number of inputs of their unit),
+         *  and of the shuffling of the samples
+         */
+        public BackPropagationNetwork seed(long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            double[][] weights = new double[Math.max(0, sizes.length - 1)][];
+            for(int l = 0; l < weights.length; l++) {
+                double bound = 1.0 / Math.sqrt(Math.max(1, sizes[l]));
+                weights[l] = random.doubles(Math.max(0, sizes[l + 1] * (sizes[l] + 1)), -bound, bound).toArray();
+            }
+            return new BackPropagationNetwork(sizes, transferFunction, weights, learningRate, batchSize, pool, random);
+        }
+    }
+
 }
+//@formatter:on
@@ -1,15 +1,66 @@
 package fr.cla.wires.neuron.perceptron;
 
+import fr.cla.wires.core.Box;
 import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Delay;
+import fr.cla.wires.core.Signal;
 import fr.cla.wires.core.Wire;
-import fr.cla.wires.neuron.Layer;
+import fr.cla.wires.neuron.TransferFunction;
 
 import java.util.List;
+import java.util.Optional;
 
-public class FeedForwardLayer extends Layer {
+import static java.util.Objects.requireNonNull;
 
-    protected FeedForwardLayer(List<Wire<Double>> ins, Wire<Double> out, double threshold, List<Double> weigths, Clock clock) {
-        super(ins, out, threshold, weigths, clock);
+//@formatter:off
+/**
+ * A layer of a FeedForwardNetwork, wired: out j is transferFunction(bias + sum of the weighted ins),
+ *  with the weights of row j (see FeedForwardNetwork), or no signal as long as any in has none.
+ */
+public class FeedForwardLayer extends Box {
+
+    private final List<Wire<Double>> ins, outs;
+    private final double[] weights;
+    private final TransferFunction transferFunction;
+
+    protected FeedForwardLayer(List<Wire<Double>> ins, List<Wire<Double>> outs, double[] weights, TransferFunction transferFunction, Clock clock) {
+        this(ins, outs, weights, transferFunction, clock, DEFAULT_DELAY);
+    }
+
+    protected FeedForwardLayer(
+        List<Wire<Double>> ins, List<Wire<Double>> outs, double[] weights, TransferFunction transferFunction,
+        Clock clock, Delay delay
+    ) {
+        super(clock, delay);
+        this.ins = checkNoNulls(ins);
+        this.outs = checkNoNulls(outs);
+        if(weights.length != outs.size() * (ins.size() + 1)) throw new IllegalArgumentException(
+            "Expected " + outs.size() * (ins.size() + 1) + " weights, got: " + weights.length
+        );
+        this.weights = weights.clone();
+        this.transferFunction = requireNonNull(transferFunction);
+    }
+
+    @Override
+    protected FeedForwardLayer startup() {
+        //Each out has its own row of weights, hence its own evaluation.
+        for(int j = 0; j < outs.size(); j++) {
+            int unit = j;
+            evaluateToAll(ins, List.of(outs.get(j)), ins -> output(unit, ins));
+        }
+        return this;
+    }
+
+    private Signal<Double> output(int unit, List<Wire<Double>> ins) {
+        int row = unit * (ins.size() + 1);
+        double potential = weights[row + ins.size()];
+        for(int i = 0; i < ins.size(); i++) {
+            Optional<Double> value = ins.get(i).getSignal().value();
+            if(value.isEmpty()) return Signal.none();
+            potential += weights[row + i] * value.get();
+        }
+        return Signal.of(transferFunction.applyAsDouble(potential));
     }
 
 }
+//@formatter:on
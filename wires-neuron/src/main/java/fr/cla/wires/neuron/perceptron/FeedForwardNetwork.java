@@ -1,6 +1,118 @@
 package fr.cla.wires.neuron.perceptron;
 
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Wire;
 import fr.cla.wires.neuron.Network;
+import fr.cla.wires.neuron.TransferFunction;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+//@formatter:off
+/**
+ * Fully connected layers of units, each unit outputting transferFunction(bias + sum of its weighted inputs).
+ * The weights are kept in primitive arrays, 1 per layer, row-major: the row of a unit holds the weights of its inputs,
+ *  then its bias. So the forward pass runs on plain arrays, and the same weights can be wired as FeedForwardLayers on a Clock.
+ */
 public class FeedForwardNetwork extends Network {
+
+    //sizes[0] is the number of inputs, sizes[sizes.length - 1] the number of outputs.
+    protected final int[] sizes;
+    protected final TransferFunction transferFunction;
+    //weights[l] connects the sizes[l] units of a layer to the sizes[l + 1] units of the next: sizes[l + 1] rows of sizes[l] + 1.
+    protected final double[][] weights;
+
+    protected FeedForwardNetwork(int[] sizes, TransferFunction transferFunction, double[][] weights) {
+        this.sizes = checkSizes(sizes).clone();
+        this.transferFunction = requireNonNull(transferFunction);
+        this.weights = new double[sizes.length - 1][];
+        for(int l = 0; l < this.weights.length; l++) {
+            if(weights[l].length != sizes[l + 1] * (sizes[l] + 1)) throw new IllegalArgumentException(
+                "weights[" + l + "] must have " + sizes[l + 1] * (sizes[l] + 1) + " weights, had: " + weights[l].length
+            );
+            this.weights[l] = weights[l].clone();
+        }
+    }
+
+    public int inputs() {
+        return sizes[0];
+    }
+
+    public int outputs() {
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * @return the outputs of the last layer for these inputs
+     */
+    public double[] output(double[] input) {
+        checkLength(input, inputs(), "input");
+        double[] activations = input;
+        for(int l = 0; l < weights.length; l++) {
+            double[] next = new double[sizes[l + 1]];
+            for(int j = 0; j < next.length; j++) {
+                next[j] = transferFunction.applyAsDouble(potential(weights[l], j, activations));
+            }
+            activations = next;
+        }
+        return activations;
+    }
+
+    /**
+     * @return a copy of the weights of each layer, row-major, the bias of each unit last in its row
+     */
+    public double[][] weights() {
+        double[][] copy = new double[weights.length][];
+        for(int l = 0; l < weights.length; l++) copy[l] = weights[l].clone();
+        return copy;
+    }
+
+    /**
+     * Wires the current weights as 1 FeedForwardLayer per layer, with new Wires between them:
+     *  the outs then go through the same Signals as output() (exactly: potentials are summed in the same order).
+     * Later changes to the weights of this network don't change the layers.
+     * @return the layers, from ins to outs
+     */
+    public List<FeedForwardLayer> wire(List<Wire<Double>> ins, List<Wire<Double>> outs, Clock clock) {
+        if(ins.size() != inputs()) throw new IllegalArgumentException("Expected " + inputs() + " ins, got: " + ins.size());
+        if(outs.size() != outputs()) throw new IllegalArgumentException("Expected " + outputs() + " outs, got: " + outs.size());
+        List<FeedForwardLayer> layers = new ArrayList<>(weights.length);
+        List<Wire<Double>> layerIns = ins;
+        for(int l = 0; l < weights.length; l++) {
+            List<Wire<Double>> layerOuts = l == weights.length - 1 ? outs : wires(sizes[l + 1]);
+            layers.add(new FeedForwardLayer(layerIns, layerOuts, weights[l], transferFunction, clock).startup());
+            layerIns = layerOuts;
+        }
+        return layers;
+    }
+
+    //The bias first, then the weighted inputs from left to right: FeedForwardLayer sums in the same order.
+    static double potential(double[] weights, int unit, double[] ins) {
+        int row = unit * (ins.length + 1);
+        double potential = weights[row + ins.length];
+        for(int i = 0; i < ins.length; i++) potential += weights[row + i] * ins[i];
+        return potential;
+    }
+
+    static void checkLength(double[] values, int expected, String name) {
+        if(values.length != expected) throw new IllegalArgumentException(
+            "Expected " + expected + " values for " + name + ", got: " + values.length
+        );
+    }
+
+    private static int[] checkSizes(int[] sizes) {
+        if(sizes.length < 2) throw new IllegalArgumentException("Expected at least the inputs and outputs layers, got: " + sizes.length);
+        for(int size : sizes) if(size < 1) throw new IllegalArgumentException("Layers must have at least 1 unit, got: " + size);
+        return sizes;
+    }
+
+    private static List<Wire<Double>> wires(int size) {
+        return Stream.generate(() -> Wire.<Double>make()).limit(size).collect(toList());
+    }
+
 }
+//@formatter:on
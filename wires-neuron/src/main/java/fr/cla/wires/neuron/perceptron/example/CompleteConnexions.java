@@ -33,23 +33,12 @@ extends Box {
 
     @Override
     protected CompleteConnexions<I, O> startup() {
-        ins.forEach(this::startup);
+        //All outs get the same result: collect it once per change rather than once per out.
+        collectIndexedToAll(ins, outs, collector);
         return this;
     }
 
-    private void startup(Wire<I> in) {
-        outs.forEach(out -> this.startup(in, out));
-    }
-
-    private void startup(Wire<I> in, Wire<O> out) {
-        this.<I, O>onSignalChanged(in)
-            .set(out)
-            .from(ins)
-            .collectIndexed(collector)
-        ;
-    }
-
-    static <I, O> Builder<I, O> ins(List<Wire<I>> ins) {
+    public static <I, O> Builder<I, O> ins(List<Wire<I>> ins) {
         return new Builder<>(ins);
     }
 
@@ -62,6 +51,7 @@ extends Box {
         private Function<Indexed<I>, O> weight;
         private BinaryOperator<O> accumulator;
         private UnaryOperator<O> finisher;
+        private Collector<Indexed<I>, ?, O> collector;
         private Clock clock;
 
         private Builder(List<Wire<I>> ins) {
@@ -88,6 +78,14 @@ extends Box {
             return this;
         }
 
+        /**
+         * Instead of weight, accumulator and finisher, eg. a primitive DoubleAccumulable::collector.
+         */
+        public Builder<I, O> collector(Collector<Indexed<I>, ?, O> collector) {
+            this.collector = requireNonNull(collector);
+            return this;
+        }
+
         public Builder<I, O> clock(Clock clock) {
             this.clock = requireNonNull(clock);
             return this;
@@ -95,10 +93,10 @@ extends Box {
 
         public CompleteConnexions<I, O> delay(Delay delay) {
             Delay _delay = requireNonNull(delay);
-            Collector<Indexed<I>, ?, O> collector = Accumulable.collector(
+            Collector<Indexed<I>, ?, O> _collector = collector != null ? collector : Accumulable.collector(
                 weight, accumulator, finisher
             );
-            return new CompleteConnexions<>(ins, outs, collector, clock, _delay).startup();
+            return new CompleteConnexions<>(ins, outs, _collector, clock, _delay).startup();
         }
     }
 
@@ -1,6 +1,7 @@
 package fr.cla.wires.neuron.perceptron.example;
 
 import fr.cla.wires.core.*;
+import fr.cla.wires.neuron.perceptron.BackPropagationNetwork;
 import fr.cla.wires.support.functional.Indexed;
 import fr.cla.wires.support.oo.Accumulable;
 
@@ -15,8 +16,28 @@ import java.util.stream.Stream;
 import static java.util.stream.Collectors.toList;
 
 //@formatter:off
+/**
+ * Recognizes the digit displayed by 7 segments: NB_SEGMENTS ins, NB_DIGITS hiddens, NB_DIGITS outs, completely connected,
+ *  each unit outputting 1.0 iff the sum of its weighted ins is above threshold, with the weights it is given.
+ * trainedNetwork() is separate from this Box: its units have biases and a logistic transfer function, which this Box doesn't,
+ *  so its weights can't be given to it. It is wired on a Clock as FeedForwardLayers instead (see FeedForwardNetwork::wire).
+ */
 public class RecognizeDigits extends Box {
     private static final long NB_SEGMENTS = 7, NB_DIGITS = 10;;
+    //The segments lit to display each digit from 0 to 9, a to g: top, top right, bottom right, bottom, bottom left, top left, middle.
+    private static final double[][] SEGMENTS_OF_DIGITS = {
+        {1, 1, 1, 1, 1, 1, 0},
+        {0, 1, 1, 0, 0, 0, 0},
+        {1, 1, 0, 1, 1, 0, 1},
+        {1, 1, 1, 1, 0, 0, 1},
+        {0, 1, 1, 0, 0, 1, 1},
+        {1, 0, 1, 1, 0, 1, 1},
+        {1, 0, 1, 1, 1, 1, 1},
+        {1, 1, 1, 0, 0, 0, 0},
+        {1, 1, 1, 1, 1, 1, 1},
+        {1, 1, 1, 1, 0, 1, 1},
+    };
+    private static final int TRAINING_EPOCHS = 2_000;
     private final List<Wire<Double>> segments, digits, hiddens;
     private final CompleteConnexions<Double, Double> segments2Hiddens, hiddens2Digits;
     private final double threshold;
@@ -81,6 +102,40 @@ public class RecognizeDigits extends Box {
         return this;
     }
 
+    /**
+     * @return the segments lit to display each digit, from 0 to 9
+     */
+    public static double[][] segmentsOfDigits() {
+        double[][] copy = new double[SEGMENTS_OF_DIGITS.length][];
+        for(int d = 0; d < copy.length; d++) copy[d] = SEGMENTS_OF_DIGITS[d].clone();
+        return copy;
+    }
+
+    /**
+     * @return the digits expected for segmentsOfDigits(), at the same index: 1.0 for the digit displayed, 0.0 for the others
+     */
+    public static double[][] expectedDigits() {
+        double[][] digits = new double[(int) NB_DIGITS][(int) NB_DIGITS];
+        for(int d = 0; d < digits.length; d++) digits[d][d] = 1.0;
+        return digits;
+    }
+
+    /**
+     * A network of the same shape (NB_SEGMENTS ins, NB_DIGITS hiddens, NB_DIGITS outs), trained by backpropagation on all the digits:
+     *  to be read through its output(), or wired on a Clock with FeedForwardNetwork::wire (not as a RecognizeDigits).
+     * Its mini-batches of 5 digits are back-propagated in parallel on the common pool, 1 digit per task.
+     */
+    public static BackPropagationNetwork trainedNetwork(long seed) {
+        BackPropagationNetwork network = BackPropagationNetwork
+            .layers((int) NB_SEGMENTS, (int) NB_DIGITS, (int) NB_DIGITS)
+            .learningRate(2.0)
+            .batchSize(5)
+            .seed(seed)
+        ;
+        network.train(segmentsOfDigits(), expectedDigits(), TRAINING_EPOCHS);
+        return network;
+    }
+
     //Indirections to later vary the weigths
     private List<Double> segments2HiddensWeigths() {
         return segments2HiddensWeigths;
@@ -2,4 +2,5 @@
 module fr.cla.wires.neuron {
     requires transitive fr.cla.wires.core;
     exports fr.cla.wires.neuron;
+    exports fr.cla.wires.neuron.perceptron;
 }
\ No newline at end of file
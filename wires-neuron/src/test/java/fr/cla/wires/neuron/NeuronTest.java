@@ -2,11 +2,15 @@ package fr.cla.wires.neuron;
 
 
 import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Netlist;
 import fr.cla.wires.core.Signal;
 import fr.cla.wires.core.Wire;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -89,6 +93,51 @@ public class NeuronTest {
         }
     }
 
+    @Test
+    public void Given_threshold_is_reached_Then_output_of_the_compiled_neuron_should_be_1() {
+        Netlist netlist;
+        given: {
+            threshold = 1.0;
+            setup(2);
+            netlist = Netlist.compile(clock);
+            netlist.setSignal(ins.get(0), Signal.of(0.5));
+            netlist.setSignal(ins.get(1), Signal.of(0.500000000000001));
+        }
+        when: {
+            netlist.tick();
+        }
+        then: {
+            assertThat(out.getSignal()).isEqualTo(Signal.of(1.0));
+        }
+    }
+
+    @Test
+    public void Given_threshold_is_reached_Then_output_of_the_saved_then_loaded_neuron_should_be_1() throws IOException {
+        Netlist netlist, loaded;
+        Path file = Files.createTempFile("wires", ".netlist");
+        try {
+            given: {
+                threshold = 1.0;
+                setup(2);
+                netlist = Netlist.compile(clock);
+                netlist.save(file);
+                loaded = Netlist.load(file);
+                loaded.setSignal(loaded.doubleWire(netlist.id(ins.get(0))), Signal.of(0.5));
+                loaded.setSignal(loaded.doubleWire(netlist.id(ins.get(1))), Signal.of(0.500000000000001));
+            }
+            when: {
+                loaded.tick();
+            }
+            then: {
+                assertThat(loaded.doubleWire(netlist.id(out)).getSignal()).isEqualTo(Signal.of(1.0));
+                //The original circuit is not simulated by the loaded Netlist
+                assertThat(out.getSignal()).isEqualTo(Signal.none());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     private void threshold_is_not_reached() {
         //Given threshold is 1.0
         threshold = 1.0;
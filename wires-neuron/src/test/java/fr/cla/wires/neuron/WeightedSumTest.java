@@ -0,0 +1,56 @@
+package fr.cla.wires.neuron;
+
+
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.support.oo.Accumulable;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class WeightedSumTest {
+
+    private static final int INPUTS = 300, TRIALS = 1_000;
+
+    @Test
+    public void the_kernel_should_give_exactly_the_same_results_as_the_collector() {
+        Random random = new Random(0L);
+        List<Wire<Double>> ins = Stream.generate(() -> Wire.<Double>make()).limit(INPUTS).collect(toList());
+        List<Double> weigths = random.doubles(INPUTS, -1.0, 1.0).boxed().collect(toList());
+        Neuron neuron;
+        given: {
+            //A threshold that some potentials reach, and others don't
+            neuron = Neuron.ins(ins).out(Wire.make()).threshold(0.0).weigths(weigths).time(Clock.createTime());
+        }
+        for(int t = 0; t < TRIALS; t++) {
+            when: {
+                ins.forEach(in -> in.setSignal(random.nextInt(1_000) == 0 ? Signal.none() : Signal.of(random.nextDouble())));
+            }
+            then: {
+                Signal<Double> collected = Wire.collectIndexed(ins, Accumulable.collector(
+                    neuron.weight(), neuron.accumulator(), neuron.finisher()
+                ));
+                assertThat(neuron.evaluation().apply(ins)).as("trial %s", t).isEqualTo(collected);
+            }
+        }
+    }
+
+    @Test
+    public void dot_should_sum_from_left_to_right() {
+        //(2^53 + 1.0) + -2^53 == 0.0 since 1.0 is lost to rounding, whereas 2^53 + (1.0 + -2^53) == 1.0
+        double twoPow53 = 0x1p53;
+        double[] values = {twoPow53, 1.0, -twoPow53}, weights = {1.0, 1.0, 1.0};
+        then: {
+            assertThat(WeightedSum.dot(values, weights)).isEqualTo(0.0);
+        }
+    }
+
+}
+//@formatter:on
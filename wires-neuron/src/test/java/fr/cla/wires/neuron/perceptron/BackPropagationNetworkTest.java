@@ -0,0 +1,152 @@
+package fr.cla.wires.neuron.perceptron;
+
+
+import fr.cla.wires.core.Clock;
+import fr.cla.wires.core.Signal;
+import fr.cla.wires.core.Wire;
+import fr.cla.wires.neuron.perceptron.example.RecognizeDigits;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+//@formatter:off
+public class BackPropagationNetworkTest {
+
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    public void the_back_propagated_gradient_should_be_the_derivative_of_the_error() {
+        Random random = new Random(0L);
+        BackPropagationNetwork network = BackPropagationNetwork.layers(3, 4, 2).seed(0L);
+        double[] input = random.doubles(3, -1.0, 1.0).toArray(), target = {0.2, 0.9};
+        BackPropagationNetwork.Gradient gradient = new BackPropagationNetwork.Gradient(network.weights);
+        when: {
+            network.backPropagate(input, target, gradient, scratch(network), scratch(network));
+        }
+        then: {
+            //Central differences of the error, weight by weight
+            for(int l = 0; l < network.weights.length; l++) {
+                for(int k = 0; k < network.weights[l].length; k++) {
+                    double weight = network.weights[l][k];
+                    network.weights[l][k] = weight + EPSILON;
+                    double above = error(network.output(input), target);
+                    network.weights[l][k] = weight - EPSILON;
+                    double below = error(network.output(input), target);
+                    network.weights[l][k] = weight;
+                    assertThat(gradient.weights[l][k]).as("weights[%s][%s]", l, k).isCloseTo(
+                        (above - below) / (2 * EPSILON), within(1e-8)
+                    );
+                }
+            }
+            assertThat(gradient.error).isEqualTo(error(network.output(input), target));
+        }
+    }
+
+    @Test
+    public void the_same_seed_should_train_exactly_the_same_weights_whatever_the_pool() {
+        Random random = new Random(0L);
+        double[][] inputs = Stream.generate(() -> random.doubles(5, 0.0, 1.0).toArray()).limit(100).toArray(double[][]::new);
+        double[][] targets = Stream.generate(() -> random.doubles(3, 0.0, 1.0).toArray()).limit(100).toArray(double[][]::new);
+        ForkJoinPool sequential = new ForkJoinPool(1), parallel = new ForkJoinPool(4);
+        double[][] sequentialWeights, parallelWeights;
+        try {
+            when: {
+                BackPropagationNetwork s = BackPropagationNetwork.layers(5, 6, 3).batchSize(30).pool(sequential).seed(1L);
+                BackPropagationNetwork p = BackPropagationNetwork.layers(5, 6, 3).batchSize(30).pool(parallel).seed(1L);
+                assertThat(p.train(inputs, targets, 20)).isEqualTo(s.train(inputs, targets, 20));
+                sequentialWeights = s.weights();
+                parallelWeights = p.weights();
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+        then: {
+            assertThat(parallelWeights).isEqualTo(sequentialWeights);
+        }
+    }
+
+    @Test
+    public void mini_batches_should_be_cut_into_several_tasks_even_when_small() {
+        for(int batchSize = 1; batchSize <= 1_000; batchSize++) {
+            BackPropagationNetwork network = BackPropagationNetwork.layers(2, 2).batchSize(batchSize).seed(0L);
+            int tasks = (batchSize + network.samplesPerTask() - 1) / network.samplesPerTask();
+            //1 sample per task up to TASKS_PER_BATCH samples, then never less than 2 tasks
+            if(batchSize <= BackPropagationNetwork.TASKS_PER_BATCH) assertThat(tasks).as("batchSize %s", batchSize).isEqualTo(batchSize);
+            else assertThat(tasks).as("batchSize %s", batchSize).isBetween(2, BackPropagationNetwork.TASKS_PER_BATCH);
+        }
+    }
+
+    @Test
+    public void the_same_seed_should_train_exactly_the_same_digits_on_any_pool() {
+        ForkJoinPool sequential = new ForkJoinPool(1), parallel = new ForkJoinPool(4);
+        try {
+            //RecognizeDigits::trainedNetwork mini-batches: cut into 1 task per sample.
+            BackPropagationNetwork s = BackPropagationNetwork.layers(7, 10, 10).learningRate(2.0).batchSize(5).pool(sequential).seed(0L);
+            BackPropagationNetwork p = BackPropagationNetwork.layers(7, 10, 10).learningRate(2.0).batchSize(5).pool(parallel).seed(0L);
+            assertThat(p.samplesPerTask()).isEqualTo(1);
+            double[][] segments = RecognizeDigits.segmentsOfDigits(), digits = RecognizeDigits.expectedDigits();
+            assertThat(p.train(segments, digits, 100)).isEqualTo(s.train(segments, digits, 100));
+            assertThat(p.weights()).isEqualTo(s.weights());
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void a_network_trained_on_all_the_digits_should_recognize_each_of_them_also_once_wired() {
+        double[][] segments = RecognizeDigits.segmentsOfDigits();
+        BackPropagationNetwork network;
+        List<Wire<Double>> ins = wires(7), outs = wires(10);
+        Clock clock = Clock.createTime();
+        given: {
+            network = RecognizeDigits.trainedNetwork(0L);
+            network.wire(ins, outs, clock);
+        }
+        for(int digit = 0; digit < segments.length; digit++) {
+            double[] output, wired;
+            when: {
+                output = network.output(segments[digit]);
+                for(int s = 0; s < ins.size(); s++) ins.get(s).setSignal(Signal.of(segments[digit][s]));
+                clock.runUntilQuiescent(10);
+                wired = outs.stream().mapToDouble(out -> out.getSignal().value().orElseThrow()).toArray();
+            }
+            then: {
+                assertThat(highest(output)).as("digit %s", digit).isEqualTo(digit);
+                assertThat(wired).as("digit %s", digit).isEqualTo(output);
+            }
+        }
+    }
+
+    private static double[][] scratch(FeedForwardNetwork network) {
+        double[][] scratch = new double[network.sizes.length][];
+        for(int l = 1; l < scratch.length; l++) scratch[l] = new double[network.sizes[l]];
+        return scratch;
+    }
+
+    private static double error(double[] output, double[] target) {
+        double error = 0.0;
+        for(int j = 0; j < output.length; j++) error += 0.5 * (output[j] - target[j]) * (output[j] - target[j]);
+        return error;
+    }
+
+    private static int highest(double[] values) {
+        int highest = 0;
+        for(int i = 1; i < values.length; i++) if(values[i] > values[highest]) highest = i;
+        return highest;
+    }
+
+    private static List<Wire<Double>> wires(int size) {
+        return Stream.generate(() -> Wire.<Double>make()).limit(size).collect(toList());
+    }
+
+}
+//@formatter:on
@@ -4,6 +4,7 @@ import fr.cla.wires.support.oo.AbstractValueObject;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 //@formatter:off
 /**
@@ -57,6 +58,17 @@ public final class Indexed<T> extends AbstractValueObject<Indexed<T>> {
         return Arrays.asList(this.index, this.value);
     }
 
+    //Indexed are compared when collecting indexed Signals, so spare allocating the equalityCriteria() Lists.
+    @Override
+    protected boolean sameEqualityCriteria(Indexed<T> that) {
+        return this.index == that.index && Objects.equals(this.value, that.value);
+    }
+
+    @Override
+    protected int equalityCriteriaHashCode() {
+        return 31 + (31 * (31 + index) + Objects.hashCode(value));
+    }
+
     private static <T> Class<Indexed<T>> indexedOfT() {
         Class<?> unbounded = Indexed.class;
 
@@ -0,0 +1,19 @@
+package fr.cla.wires.support.functional;
+
+//@formatter:off
+/**
+ * Like a Consumer<Indexed<T>>, but is passed the index and the value as they are, so that no Indexed is allocated.
+ *
+ * @param <T> The type of the indexed value.
+ */
+@FunctionalInterface
+public interface IndexedConsumer<T> {
+
+    /**
+     * @param index The index of the value.
+     * @param value The value indexed.
+     */
+    void accept(int index, T value);
+
+}
+//@formatter:on
@@ -1,105 +1,101 @@
 package fr.cla.wires.support.functional;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.Spliterator;
-import java.util.function.BiFunction;
 import java.util.function.Consumer;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
-//TODO this is copy-pasted from github and not tested
+import static java.util.Objects.requireNonNull;
+
 //@formatter:off
 public class Streams {
 
     /**
-     * Zip the source stream together with the stream of indices() to provide a stream of indexed values.
+     * Index the values of the source stream by their position in it.
+     * The resulting stream is parallel if the source stream is, and splits wherever the source splits,
+     *  as long as the source knows the exact size of its splits (Spliterator.SUBSIZED, eg. that of an ArrayList).
      * @param source  The source stream.
      * @param <T> The type over which the source stream streams.
      * @return A stream of indexed values.
      */
     public static <T> Stream<Indexed<T>> index(Stream<T> source) {
-        return zip(
-            indices().mapToObj(Integer::valueOf),
-            source,
-            Indexed::index
+        return StreamSupport.stream(
+            new IndexingSpliterator<>(source.spliterator(), 0),
+            source.isParallel()
         ).onClose(source::close);
     }
 
-    /**
-     * Constructs an infinite (although in practice bounded by Long.MAX_VALUE) stream of longs 0, 1, 2, 3...
-     * for use as indices.
-     * @return A stream of longs.
-     */
-    private static IntStream indices() {
-        return IntStream.iterate(0, i -> i + 1);
+    public static <O> Stream<Indexed<O>> index(List<O> values) {
+        return index(values.stream());
     }
 
     /**
-     * Zip together the "left" and "right" streams until either runs out of values.
-     * Each pair of values is combined into a single value using the supplied combiner function.
-     * @param lefts The "left" stream to zip.
-     * @param rights The "right" stream to zip.
-     * @param combiner The function to combine "left" and "right" values.
-     * @param <L> The type over which the "left" stream streams.
-     * @param <R> The type over which the "right" stream streams.
-     * @param <O> The type created by the combiner out of pairs of "left" and "right" values, over which the resulting
-     *           stream streams.
-     * @return A stream of zipped values.
+     * Pass each value of values to action, with its index, without allocating an Indexed for each.
+     * @param values The values to index.
+     * @param action Is passed each value and its index, in order.
+     * @param <T> The type of the values.
      */
-    private static <L, R, O> Stream<O> zip(Stream<L> lefts, Stream<R> rights, BiFunction<L, R, O> combiner) {
-        return StreamSupport.stream(
-            ZippingSpliterator.zipping(lefts.spliterator(), rights.spliterator(), combiner),
-            false
-        );
+    public static <T> void forEachIndexed(List<T> values, IndexedConsumer<? super T> action) {
+        requireNonNull(action);
+        if(values instanceof RandomAccess) {
+            for(int i = 0, size = values.size(); i < size; i++) action.accept(i, values.get(i));
+            return;
+        }
+        int i = 0;
+        for(Iterator<T> it = values.iterator(); it.hasNext(); i++) action.accept(i, it.next());
     }
 
-    public static <O> Stream<Indexed<O>> index(List<O> values) {
-        return index(values.stream());
-    }
+    /**
+     * Indexes the values of a source Spliterator, starting from a given index.
+     * Splits by splitting the source: its prefix keeps the first indices, and this skips the prefix's indices,
+     *  which is only possible if the source knows the exact size of its prefix (Spliterator.SUBSIZED).
+     */
+    private static final class IndexingSpliterator<T> implements Spliterator<Indexed<T>> {
 
-    private static class ZippingSpliterator<L, R, O> implements Spliterator<O> {
+        private final Spliterator<T> source;
+        private int index;
 
-        static <L, R, O> Spliterator<O> zipping(Spliterator<L> lefts, Spliterator<R> rights, BiFunction<L, R, O> combiner) {
-            return new ZippingSpliterator<>(lefts, rights, combiner);
+        private IndexingSpliterator(Spliterator<T> source, int index) {
+            this.source = requireNonNull(source);
+            this.index = index;
         }
 
-        private final Spliterator<L> lefts;
-        private final Spliterator<R> rights;
-        private final BiFunction<L, R, O> combiner;
-        private boolean rightHadNext = false;
-
-        private ZippingSpliterator(Spliterator<L> lefts, Spliterator<R> rights, BiFunction<L, R, O> combiner) {
-            this.lefts = lefts;
-            this.rights = rights;
-            this.combiner = combiner;
+        @Override
+        public boolean tryAdvance(Consumer<? super Indexed<T>> action) {
+            requireNonNull(action);
+            return source.tryAdvance(value -> action.accept(Indexed.index(index++, value)));
         }
 
         @Override
-        public boolean tryAdvance(Consumer<? super O> action) {
-            rightHadNext = false;
-            boolean leftHadNext = lefts.tryAdvance(l ->
-            rights.tryAdvance(r -> {
-                rightHadNext = true;
-                action.accept(combiner.apply(l, r));
-            }));
-            return leftHadNext && rightHadNext;
+        public void forEachRemaining(Consumer<? super Indexed<T>> action) {
+            requireNonNull(action);
+            source.forEachRemaining(value -> action.accept(Indexed.index(index++, value)));
         }
 
         @Override
-        public Spliterator<O> trySplit() {
-            return null;
+        public Spliterator<Indexed<T>> trySplit() {
+            if(!source.hasCharacteristics(SUBSIZED)) return null;
+            Spliterator<T> prefix = source.trySplit();
+            if(prefix == null) return null;
+
+            IndexingSpliterator<T> indexedPrefix = new IndexingSpliterator<>(prefix, index);
+            index = Math.addExact(index, Math.toIntExact(prefix.getExactSizeIfKnown()));
+            return indexedPrefix;
         }
 
         @Override
         public long estimateSize() {
-            return Math.min(lefts.estimateSize(), rights.estimateSize());
+            return source.estimateSize();
         }
 
         @Override
         public int characteristics() {
-            return lefts.characteristics() & rights.characteristics()
-            & ~(Spliterator.DISTINCT | Spliterator.SORTED);
+            //Indexed are never null, and never equal to each other since their indices are distinct.
+            //Whereas a Comparator of T doesn't sort Indexed<T>.
+            return (source.characteristics() & ~SORTED) | NONNULL | DISTINCT;
         }
     }
 }
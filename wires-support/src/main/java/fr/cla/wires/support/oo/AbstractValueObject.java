@@ -34,16 +34,11 @@ public abstract class AbstractValueObject<T extends AbstractValueObject<T>> {
         if(! equatability.areEquatable(this, type, obj)) return false;
 
         T that = type.cast(obj);
-        return Objects.equals(
-            this.equalityCriteria(),
-            that.equalityCriteria()
-        );
+        return sameEqualityCriteria(that);
     }
 
     @Override public final int hashCode() {
-        return Objects.hash(
-            equalityCriteria()
-        );
+        return equalityCriteriaHashCode();
     }
 
     @Override public String toString() {
@@ -57,6 +52,31 @@ public abstract class AbstractValueObject<T extends AbstractValueObject<T>> {
 
     protected abstract List<Object> equalityCriteria();
 
+    /**
+     * Called by equals once Equatability has accepted that, so it doesn't have to check the type again.
+     * The default implementation compares the equalityCriteria() Lists, which allocates 2 of them (and boxes primitive fields).
+     * Value Objects that are compared on hot paths can override this and equalityCriteriaHashCode() together,
+     *  to compare their fields directly, as long as the results stay the same as the default implementations.
+     */
+    protected boolean sameEqualityCriteria(T that) {
+        return Objects.equals(
+            this.equalityCriteria(),
+            that.equalityCriteria()
+        );
+    }
+
+    /**
+     * The default implementation is Objects.hash(equalityCriteria()), which hashes a 1-element array containing the List:
+     *  31 + (31 + hash(c1)) for a single criterion c1, 31 + (31 * (31 + hash(c1)) + hash(c2)) for 2 criteria, and so on.
+     *  An override must compute the same from the fields.
+     * @see "sameEqualityCriteria"
+     */
+    protected int equalityCriteriaHashCode() {
+        return Objects.hash(
+            equalityCriteria()
+        );
+    }
+
     /**
      * @see "Equatability.CAN_EQUAL"
      */
@@ -1,14 +1,13 @@
 package fr.cla.wires.support.oo;
 
 import java.util.Collection;
-import java.util.EnumSet;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.*;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collector.Characteristics.UNORDERED;
 
 //@formatter:off
 /**
@@ -151,9 +150,9 @@ public class Accumulable<W, A> extends MutableValue<A> {
             return getAccumulated.andThen(finisher);
         }
 
+        //Not UNORDERED: Accumulable::combine applies the combiner in encounter order, and not all combiners are commutative.
         @Override public Set<Characteristics> characteristics() {
-            //TODO some collectors might not be UNORDERED
-            return EnumSet.of(UNORDERED);
+            return Collections.emptySet();
         }
     }
 
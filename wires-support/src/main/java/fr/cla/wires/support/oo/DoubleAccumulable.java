@@ -0,0 +1,161 @@
+package fr.cla.wires.support.oo;
+
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * Same as Accumulable, for an accumulated value of type double, so that accumulating doesn't box each weight.
+ * Emptyness is tracked by a flag rather than by a null value, so there is no null to check at each step.
+ * @param <W> Type of "weightable".
+ *           Their weights are determined by {@code weight}
+ *           then accumulated into the current value by {@code combiner}
+ */
+public final class DoubleAccumulable<W> {
+
+    private final ToDoubleFunction<W> weight;
+    private final DoubleBinaryOperator combiner;
+    private boolean present;
+    private double current;
+
+    private DoubleAccumulable(
+        boolean present,
+        double initialValue,
+        ToDoubleFunction<W> weight,
+        DoubleBinaryOperator combiner
+    ) {
+        this.present = present;
+        this.current = initialValue;
+        this.weight = requireNonNull(weight);
+        this.combiner = requireNonNull(combiner);
+    }
+
+    public static <I> DoubleAccumulable<I> initiallyEmpty(
+        ToDoubleFunction<I> weight,
+        DoubleBinaryOperator combiner
+    ) {
+        return new DoubleAccumulable<>(false, 0.0, weight, combiner);
+    }
+
+    public static <I> DoubleAccumulable<I> initially(
+        double initialValue,
+        ToDoubleFunction<I> weight,
+        DoubleBinaryOperator combiner
+    ) {
+        return new DoubleAccumulable<>(true, initialValue, weight, combiner);
+    }
+
+    public void accumulate(W weightable) {
+        combineWithValue(weight.applyAsDouble(weightable));
+    }
+
+    public DoubleAccumulable<W> combine(DoubleAccumulable<W> that) {
+        if(that.present) combineWithValue(that.current);
+        return this;
+    }
+
+    //Like Accumulable::combineWithValue: the first value is taken as is, not combined with anything.
+    private void combineWithValue(double value) {
+        current = present ? combiner.applyAsDouble(current, value) : value;
+        present = true;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * @throws NoSuchElementException if nothing was accumulated yet
+     */
+    public double getAsDouble() {
+        if(!present) throw new NoSuchElementException("Nothing was accumulated");
+        return current;
+    }
+
+    //Same equality as MutableValue: by current value (comparing doubles like Double::equals).
+    @Override public boolean equals(Object obj) {
+        if(obj == this) return true;
+        if(! (obj instanceof DoubleAccumulable)) return false;
+        DoubleAccumulable<?> that = (DoubleAccumulable<?>) obj;
+        return this.present == that.present
+            && Double.doubleToLongBits(this.current) == Double.doubleToLongBits(that.current);
+    }
+
+    @Override public int hashCode() {
+        return present ? Double.hashCode(current) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? String.valueOf(current) : "null";
+    }
+
+    /**
+     * Same as Accumulable::collector, for weights of type double.
+     * Only the result of the finisher is boxed, once per collection rather than once per element.
+     * Doesn't report UNORDERED: the combiner is applied in encounter order, since not all combiners are commutative
+     *  (nor even associative, eg. the rounding of Double::sum).
+     * @throws NoSuchElementException when finishing, if no element was collected
+     */
+    public static <O, T> java.util.stream.Collector<O, ?, T> collector(
+        ToDoubleFunction<O> weight,
+        DoubleBinaryOperator combiner,
+        DoubleFunction<T> finisher
+    ) {
+        return new Collector<>(weight, combiner, finisher);
+    }
+
+
+
+
+    public static final class Collector<O, T>
+    implements java.util.stream.Collector<O, DoubleAccumulable<O>, T> {
+        private final ToDoubleFunction<O> weight;
+        private final DoubleBinaryOperator combiner;
+        private final DoubleFunction<T> finisher;
+
+        private Collector(
+            ToDoubleFunction<O> weight,
+            DoubleBinaryOperator combiner,
+            DoubleFunction<T> finisher
+        )  {
+            this.weight = requireNonNull(weight);
+            this.combiner = requireNonNull(combiner);
+            this.finisher = requireNonNull(finisher);
+        }
+
+        @Override public Supplier<DoubleAccumulable<O>> supplier() {
+            return () -> DoubleAccumulable.initiallyEmpty(
+                weight, combiner
+            );
+        }
+
+        @Override public BiConsumer<DoubleAccumulable<O>, O> accumulator() {
+            return DoubleAccumulable::accumulate;
+        }
+
+        @Override public BinaryOperator<DoubleAccumulable<O>> combiner() {
+            return DoubleAccumulable::combine;
+        }
+
+        @Override public Function<DoubleAccumulable<O>, T> finisher() {
+            return accumulated -> finisher.apply(accumulated.getAsDouble());
+        }
+
+        @Override public Set<Characteristics> characteristics() {
+            return Collections.emptySet();
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,160 @@
+package fr.cla.wires.support.oo;
+
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.requireNonNull;
+
+//@formatter:off
+/**
+ * Same as DoubleAccumulable, for an accumulated value of type long (eg. counts).
+ * Emptyness is tracked by a flag rather than by a null value, so there is no null to check at each step.
+ * @param <W> Type of "weightable".
+ *           Their weights are determined by {@code weight}
+ *           then accumulated into the current value by {@code combiner}
+ */
+public final class LongAccumulable<W> {
+
+    private final ToLongFunction<W> weight;
+    private final LongBinaryOperator combiner;
+    private boolean present;
+    private long current;
+
+    private LongAccumulable(
+        boolean present,
+        long initialValue,
+        ToLongFunction<W> weight,
+        LongBinaryOperator combiner
+    ) {
+        this.present = present;
+        this.current = initialValue;
+        this.weight = requireNonNull(weight);
+        this.combiner = requireNonNull(combiner);
+    }
+
+    public static <I> LongAccumulable<I> initiallyEmpty(
+        ToLongFunction<I> weight,
+        LongBinaryOperator combiner
+    ) {
+        return new LongAccumulable<>(false, 0L, weight, combiner);
+    }
+
+    public static <I> LongAccumulable<I> initially(
+        long initialValue,
+        ToLongFunction<I> weight,
+        LongBinaryOperator combiner
+    ) {
+        return new LongAccumulable<>(true, initialValue, weight, combiner);
+    }
+
+    public void accumulate(W weightable) {
+        combineWithValue(weight.applyAsLong(weightable));
+    }
+
+    public LongAccumulable<W> combine(LongAccumulable<W> that) {
+        if(that.present) combineWithValue(that.current);
+        return this;
+    }
+
+    //Like Accumulable::combineWithValue: the first value is taken as is, not combined with anything.
+    private void combineWithValue(long value) {
+        current = present ? combiner.applyAsLong(current, value) : value;
+        present = true;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * @throws NoSuchElementException if nothing was accumulated yet
+     */
+    public long getAsLong() {
+        if(!present) throw new NoSuchElementException("Nothing was accumulated");
+        return current;
+    }
+
+    //Same equality as MutableValue: by current value.
+    @Override public boolean equals(Object obj) {
+        if(obj == this) return true;
+        if(! (obj instanceof LongAccumulable)) return false;
+        LongAccumulable<?> that = (LongAccumulable<?>) obj;
+        return this.present == that.present
+            && this.current == that.current;
+    }
+
+    @Override public int hashCode() {
+        return present ? Long.hashCode(current) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return present ? String.valueOf(current) : "null";
+    }
+
+    /**
+     * Same as Accumulable::collector, for weights of type long.
+     * Only the result of the finisher is boxed, once per collection rather than once per element.
+     * Doesn't report UNORDERED: the combiner is applied in encounter order, since not all combiners are commutative.
+     * @throws NoSuchElementException when finishing, if no element was collected
+     */
+    public static <O, T> java.util.stream.Collector<O, ?, T> collector(
+        ToLongFunction<O> weight,
+        LongBinaryOperator combiner,
+        LongFunction<T> finisher
+    ) {
+        return new Collector<>(weight, combiner, finisher);
+    }
+
+
+
+
+    public static final class Collector<O, T>
+    implements java.util.stream.Collector<O, LongAccumulable<O>, T> {
+        private final ToLongFunction<O> weight;
+        private final LongBinaryOperator combiner;
+        private final LongFunction<T> finisher;
+
+        private Collector(
+            ToLongFunction<O> weight,
+            LongBinaryOperator combiner,
+            LongFunction<T> finisher
+        )  {
+            this.weight = requireNonNull(weight);
+            this.combiner = requireNonNull(combiner);
+            this.finisher = requireNonNull(finisher);
+        }
+
+        @Override public Supplier<LongAccumulable<O>> supplier() {
+            return () -> LongAccumulable.initiallyEmpty(
+                weight, combiner
+            );
+        }
+
+        @Override public BiConsumer<LongAccumulable<O>, O> accumulator() {
+            return LongAccumulable::accumulate;
+        }
+
+        @Override public BinaryOperator<LongAccumulable<O>> combiner() {
+            return LongAccumulable::combine;
+        }
+
+        @Override public Function<LongAccumulable<O>, T> finisher() {
+            return accumulated -> finisher.apply(accumulated.getAsLong());
+        }
+
+        @Override public Set<Characteristics> characteristics() {
+            return Collections.emptySet();
+        }
+    }
+
+}
+//@formatter:on
@@ -2,6 +2,8 @@ package fr.cla.wires.support.functional;
 
 import org.junit.Test;
 
+import java.util.Objects;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 //@formatter:off
@@ -33,5 +35,20 @@ public class IndexedTest {
         ).isTrue();
     }
 
+    //Indexed compares its fields directly rather than its equalityCriteria(), this checks that this changes nothing.
+    @Test
+    public void equals_and_hashCode_should_be_those_of_the_equalityCriteria() {
+        Indexed<?>[] indexeds = {
+            Indexed.index(0, "foo"), Indexed.index(0, new String("foo")), Indexed.index(1, "foo"),
+            Indexed.index(0, "bar"), Indexed.index(-7, null), Indexed.index(-7, null), Indexed.index(0, 0L)
+        };
+        for(Indexed<?> i1 : indexeds) {
+            assertThat(i1.hashCode()).isEqualTo(Objects.hash(i1.equalityCriteria()));
+            for(Indexed<?> i2 : indexeds) {
+                assertThat(i1.equals(i2)).isEqualTo(Objects.equals(i1.equalityCriteria(), i2.equalityCriteria()));
+            }
+        }
+    }
+
 }
 //@formatter:on
@@ -0,0 +1,78 @@
+package fr.cla.wires.support.functional;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+//@formatter:off
+public class StreamsTest {
+
+    private static final int SIZE = 10_000;
+
+    @Test
+    public void index_should_index_values_by_their_position() {
+        List<Indexed<String>> indexed;
+        when: {
+            indexed = Streams.index(Stream.of("a", "b", "c")).collect(toList());
+        }
+        then: {
+            assertThat(indexed).containsExactly(Indexed.index(0, "a"), Indexed.index(1, "b"), Indexed.index(2, "c"));
+        }
+    }
+
+    @Test
+    public void index_of_a_list_should_split_by_range_and_know_its_exact_size() {
+        List<Integer> values = IntStream.range(0, SIZE).boxed().collect(toList());
+        Spliterator<Indexed<Integer>> all, prefix;
+        given: {
+            all = Streams.index(values).spliterator();
+        }
+        when: {
+            prefix = all.trySplit();
+        }
+        then: {
+            assertThat(prefix).isNotNull();
+            assertThat(all.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)).isTrue();
+            assertThat(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED)).isTrue();
+            assertThat(prefix.getExactSizeIfKnown() + all.getExactSizeIfKnown()).isEqualTo(SIZE);
+            //The suffix starts at the index right after the prefix
+            all.tryAdvance(first -> assertThat(first).isEqualTo(Indexed.index((int) prefix.getExactSizeIfKnown(), first.getValue())));
+        }
+    }
+
+    @Test
+    public void a_parallel_index_should_index_values_like_a_sequential_one() {
+        List<Integer> values = IntStream.range(0, SIZE).map(i -> SIZE - i).boxed().collect(toList());
+        List<Indexed<Integer>> parallel;
+        when: {
+            parallel = Streams.index(values.parallelStream()).collect(toList());
+        }
+        then: {
+            assertThat(parallel).isEqualTo(Streams.index(values.stream()).collect(toList()));
+            for(int i = 0; i < SIZE; i++) assertThat(parallel.get(i)).isEqualTo(Indexed.index(i, values.get(i)));
+        }
+    }
+
+    @Test
+    public void forEachIndexed_should_pass_each_value_with_its_index() {
+        for(List<String> values : List.<List<String>>of(new ArrayList<>(List.of("a", "b", "c")), new LinkedList<>(List.of("a", "b", "c")))) {
+            List<Indexed<String>> indexed = new ArrayList<>();
+            when: {
+                Streams.forEachIndexed(values, (index, value) -> indexed.add(Indexed.index(index, value)));
+            }
+            then: {
+                assertThat(indexed).isEqualTo(Streams.index(values).collect(toList()));
+            }
+        }
+    }
+
+}
+//@formatter:on
@@ -0,0 +1,77 @@
+package fr.cla.wires.support.oo.test;
+
+import fr.cla.wires.support.oo.Accumulable;
+import fr.cla.wires.support.oo.DoubleAccumulable;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.DoubleFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//@formatter:off
+public class DoubleAccumulableTest {
+
+    private static final int TRIALS = 1_000, VALUES = 100;
+
+    @Test
+    public void collector_should_give_exactly_the_same_results_as_that_of_Accumulable() {
+        Random random = new Random(0L);
+        Collector<Double, ?, String> boxed = collectingAndThen(
+            Accumulable.<Double, Double>collector(x -> x * 3.0, Double::sum, UnaryOperator.identity()), String::valueOf
+        );
+        Collector<Double, ?, String> primitive = DoubleAccumulable.collector(x -> x * 3.0, Double::sum, String::valueOf);
+        for(int t = 0; t < TRIALS; t++) {
+            List<Double> values = random.doubles(1 + random.nextInt(VALUES), -1e9, 1e9).boxed().collect(toList());
+            then: {
+                assertThat(values.stream().collect(primitive)).as("trial %s", t).isEqualTo(values.stream().collect(boxed));
+            }
+        }
+    }
+
+    @Test
+    public void collector_should_not_be_unordered() {
+        Collector<Double, ?, Double> collector = DoubleAccumulable.collector(x -> x, (x, y) -> x - y, Double::valueOf);
+        then: {
+            assertThat(collector.characteristics()).doesNotContain(Collector.Characteristics.UNORDERED);
+            //(1 - 2) - 3, not (1 - 3) - 2 or any other order
+            assertThat(Stream.of(1.0, 2.0, 3.0).collect(collector)).isEqualTo(-4.0);
+        }
+    }
+
+    @Test
+    public void accumulating_nothing_should_be_empty() {
+        DoubleFunction<Double> finisher = Double::valueOf;
+        DoubleAccumulable<Double> acc = DoubleAccumulable.initiallyEmpty(x -> x, Double::sum);
+        then: {
+            assertThat(acc.isPresent()).isFalse();
+            assertThatThrownBy(acc::getAsDouble).isInstanceOf(NoSuchElementException.class);
+            assertThatThrownBy(() -> Stream.<Double>empty().collect(DoubleAccumulable.collector(x -> x, Double::sum, finisher)))
+                .isInstanceOf(NoSuchElementException.class);
+        }
+    }
+
+    @Test
+    public void combine_should_accumulate_the_value_of_that() {
+        DoubleAccumulable<Double> acc1 = DoubleAccumulable.initially(1.0, x -> x, Double::sum);
+        DoubleAccumulable<Double> acc2 = DoubleAccumulable.initiallyEmpty(x -> x, Double::sum);
+        when: {
+            acc2.accumulate(2.0);
+            acc1.combine(acc2).combine(DoubleAccumulable.<Double>initiallyEmpty(x -> x, Double::sum));
+        }
+        then: {
+            assertThat(acc1.getAsDouble()).isEqualTo(3.0);
+            assertThat(acc1).isEqualTo(DoubleAccumulable.<Double>initially(3.0, x -> x, Double::sum));
+        }
+    }
+
+}
+//@formatter:on
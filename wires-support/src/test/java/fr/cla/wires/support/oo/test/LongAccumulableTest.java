@@ -0,0 +1,59 @@
+package fr.cla.wires.support.oo.test;
+
+import fr.cla.wires.support.oo.LongAccumulable;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.LongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//@formatter:off
+public class LongAccumulableTest {
+
+    private static final int VALUES = 100_000;
+
+    @Test
+    public void collector_should_count_like_counting_also_in_parallel() {
+        List<Boolean> values = new Random(0L).ints(VALUES, 0, 2).mapToObj(i -> i == 0).collect(toList());
+        Collector<Boolean, ?, Long> countFalses = LongAccumulable.collector(b -> b ? 0L : 1L, Long::sum, Long::valueOf);
+        long expected;
+        given: {
+            expected = values.stream().filter(b -> !b).collect(counting());
+        }
+        then: {
+            assertThat(values.stream().collect(countFalses)).isEqualTo(expected);
+            assertThat(values.parallelStream().collect(countFalses)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void collector_should_not_be_unordered() {
+        Collector<Long, ?, Long> collector = LongAccumulable.collector(x -> x, (x, y) -> x - y, Long::valueOf);
+        then: {
+            assertThat(collector.characteristics()).doesNotContain(Collector.Characteristics.UNORDERED);
+            assertThat(Stream.of(1L, 2L, 3L).collect(collector)).isEqualTo(-4L);
+        }
+    }
+
+    @Test
+    public void accumulating_nothing_should_be_empty() {
+        LongFunction<Long> finisher = Long::valueOf;
+        LongAccumulable<Long> acc = LongAccumulable.initiallyEmpty(x -> x, Long::sum);
+        then: {
+            assertThat(acc.isPresent()).isFalse();
+            assertThatThrownBy(acc::getAsLong).isInstanceOf(NoSuchElementException.class);
+            assertThatThrownBy(() -> Stream.<Long>empty().collect(LongAccumulable.collector(x -> x, Long::sum, finisher)))
+                .isInstanceOf(NoSuchElementException.class);
+        }
+    }
+
+}
+//@formatter:on